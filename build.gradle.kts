@@ -174,6 +174,37 @@ tasks.compileKotlin {
     }
 }
 
+// jmh benchmark, 依赖 fake-api 等 compileOnly 依赖作为服务端替身运行
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += output + compileClasspath + sourceSets.main.get().runtimeClasspath
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.named<JavaCompile>(jmh.compileJavaTaskName) {
+    options.encoding = "UTF-8"
+}
+
+// ./gradlew jmh -Pjmh.includes=FormulaBenchmark
+tasks.create<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs JMH benchmarks."
+    dependsOn(jmh.classesTaskName)
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    doFirst { resultFile.parentFile.mkdirs() }
+    args(
+        (project.findProperty("jmh.includes") ?: ".*").toString(),
+        "-rf", "json",
+        "-rff", resultFile.path
+    )
+}
+
 tasks.create("apiJar", Jar::class) {
     dependsOn(tasks.compileJava, tasks.compileKotlin)
     from(tasks.compileJava, tasks.compileKotlin)
@@ -0,0 +1,89 @@
+package pers.neige.neigeitems;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * 基准测试使用的服务端替身.
+ * 仅实现基准测试路径上实际调用的方法, 其余方法返回默认值.
+ */
+public final class StandIns {
+    private static final Logger LOGGER = Logger.getLogger("NeigeItems");
+
+    private StandIns() {
+    }
+
+    /**
+     * 获取插件替身
+     *
+     * @return 插件替身
+     */
+    @NotNull
+    public static Plugin plugin() {
+        return (Plugin) Proxy.newProxyInstance(
+                StandIns.class.getClassLoader(),
+                new Class<?>[]{Plugin.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getLogger":
+                            return LOGGER;
+                        case "getName":
+                        case "toString":
+                            return "NeigeItems";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "isEnabled":
+                            return true;
+                    }
+                    return defaultValue(method);
+                }
+        );
+    }
+
+    /**
+     * 安装服务端替身, 已存在服务端时不进行操作.
+     * Bukkit.isPrimaryThread 始终返回 true, 即基准测试线程视为主线程.
+     */
+    public static synchronized void installServer() {
+        if (Bukkit.getServer() != null) return;
+        Bukkit.setServer((Server) Proxy.newProxyInstance(
+                StandIns.class.getClassLoader(),
+                new Class<?>[]{Server.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getLogger":
+                            return LOGGER;
+                        case "getName":
+                        case "toString":
+                            return "StandIn";
+                        case "getVersion":
+                        case "getBukkitVersion":
+                            return "0";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "isPrimaryThread":
+                            return true;
+                    }
+                    return defaultValue(method);
+                }
+        ));
+    }
+
+    private static Object defaultValue(@NotNull Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package pers.neige.neigeitems.calculate;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 公式计算基准测试.
+ * legacy 使用 calculate 的原有实现(每次重新解析公式), 用于对照预编译公式的收益.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormulaParserBenchmark {
+    @Param({
+            "1+2*3",
+            "(10.5+20)*1.5-4/2^2%3",
+            "((100-5)*(1+0.25)+(30/4)*2^3-(7%3))*(1.05-0.05)/2+12.5*(3+4*(5-2))"
+    })
+    public String formula;
+
+    private CompiledFormula compiled;
+    private CompiledFormula template;
+    private String[] values;
+    private CompiledFormula script;
+
+    @Setup
+    public void setup() {
+        compiled = FormulaParser.compile(formula);
+        template = FormulaParser.compileTemplate("<base>*(1+<rate>/100)+<number::1_10_0>");
+        values = new String[]{"120", "35", "7"};
+        script = FormulaParser.compileScriptTemplate("(<base> * (1 + <rate> / 100) + <number::1_10_0>) % 50 - -3");
+    }
+
+    /**
+     * 编译后计算, 不使用缓存
+     */
+    @Benchmark
+    public double calculate() {
+        return FormulaParser.calculate(formula);
+    }
+
+    /**
+     * 计算已持有的预编译公式
+     */
+    @Benchmark
+    public double compiled() {
+        return compiled.evaluate();
+    }
+
+    @Benchmark
+    public double legacy() {
+        return LegacyFormulaParser.calculate(formula);
+    }
+
+    /**
+     * 包含节点的公式, 代入节点解析结果计算
+     */
+    @Benchmark
+    public double template() {
+        return template.evaluate(values);
+    }
+
+    /**
+     * 按脚本语义编译的 calculation 节点公式, 代入节点解析结果计算
+     */
+    @Benchmark
+    public double script() {
+        return script.evaluate(values);
+    }
+}
@@ -0,0 +1,49 @@
+package pers.neige.neigeitems.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.yaml.snakeyaml.Yaml;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置读取基准测试.
+ * parseMap 使用预先加载的配置, 用于对照 YAML 解析的开销.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigReaderBenchmark {
+    private static final String CONFIG = String.join("\n",
+            "type: condition",
+            "condition: perm(\"neigeitems.vip\")",
+            "actions:",
+            "- 'tell: &a你是尊贵的VIP'",
+            "- 'give: 100'",
+            "deny:",
+            "  type: weight",
+            "  actions:",
+            "  - '5::tell: &7你不是VIP'",
+            "  - '1::tell: &7你真的不是VIP'"
+    );
+
+    private Map<?, ?> map;
+
+    @Setup
+    public void setup() {
+        map = new Yaml().load(CONFIG);
+    }
+
+    @Benchmark
+    public String parseString() {
+        return ConfigReader.parse(CONFIG).getString("type");
+    }
+
+    @Benchmark
+    public String parseMap() {
+        return ConfigReader.parse(map).getString("type");
+    }
+}
@@ -0,0 +1,69 @@
+package pers.neige.neigeitems.hook.placeholderapi;
+
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+import pers.neige.neigeitems.hook.placeholderapi.impl.PapiHookerImpl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PlaceholderAPI变量解析基准测试.
+ * papi扩展由基准测试直接提供, 不经过 PlaceholderAPI 插件的扩展管理器.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PapiHookerBenchmark {
+    @Param({
+            "&f这是一段不含任何papi变量的文本",
+            "&f玩家: %bench_name% &7等级: %bench_level%",
+            "&f%bench_name% 拥有 %vault_eco_balance% 金币, 100% %bench_health_percent%"
+    })
+    public String text;
+
+    private PapiHooker hooker;
+
+    @Setup
+    public void setup() {
+        Map<String, PlaceholderExpansion> expansions = new HashMap<>();
+        expansions.put("bench", new PlaceholderExpansion() {
+            @Override
+            public @NotNull String getIdentifier() {
+                return "bench";
+            }
+
+            @Override
+            public @NotNull String getAuthor() {
+                return "Neige";
+            }
+
+            @Override
+            public @NotNull String getVersion() {
+                return "1.0.0";
+            }
+
+            @Override
+            public String onRequest(OfflinePlayer player, @NotNull String params) {
+                return params;
+            }
+        });
+        hooker = new PapiHookerImpl(expansions::get);
+    }
+
+    @Benchmark
+    public String papi() {
+        return hooker.papi(null, text);
+    }
+
+    @Benchmark
+    public String toAllSection() {
+        return PapiHooker.toAllSection(text);
+    }
+}
@@ -0,0 +1,39 @@
+package pers.neige.neigeitems.item;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 物品变量解析基准测试.
+ * 使用 spigot-api 中的 ItemStack 作为物品替身, 物品变量由基准测试自行注册, 不读取物品NBT.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemPlaceholderBenchmark {
+    @Param({
+            "&f这是一段不含任何物品变量的物品描述",
+            "&f耐久: %bench_durability%/%bench_maxDurability%",
+            "&f攻击力: %bench_damage% &7(%unknown_value%) 100% %bench_crit_rate%"
+    })
+    public String text;
+
+    private ItemStack itemStack;
+
+    @Setup
+    public void setup() {
+        ItemPlaceholder.INSTANCE.addExpansion("bench", (itemStack, param) -> param.length() > 12 ? null : "10");
+        itemStack = new ItemStack(Material.STONE);
+    }
+
+    @Benchmark
+    public ItemPlaceholder.ParseResult parse() {
+        return ItemPlaceholder.INSTANCE.parse(itemStack, text);
+    }
+}
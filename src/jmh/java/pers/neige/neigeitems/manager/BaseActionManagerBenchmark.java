@@ -0,0 +1,51 @@
+package pers.neige.neigeitems.manager;
+
+import org.openjdk.jmh.annotations.*;
+import pers.neige.neigeitems.StandIns;
+import pers.neige.neigeitems.action.Action;
+import pers.neige.neigeitems.action.ActionContext;
+import pers.neige.neigeitems.action.ActionResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 动作编译及执行基准测试.
+ * 动作为包含50个 StringAction 的 ListAction, 动作上下文中不含玩家, 测量的是动作调度本身的开销.
+ * 基准测试线程视为主线程, 动作不发生线程切换.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BaseActionManagerBenchmark {
+    private BaseActionManager manager;
+    private List<String> rawAction;
+    private Action action;
+
+    @Setup
+    public void setup() {
+        // ActionContext 及同步执行判断需要读取 Bukkit.isPrimaryThread
+        StandIns.installServer();
+        manager = new BaseActionManager(StandIns.plugin()) {
+        };
+        rawAction = new ArrayList<>();
+        for (int index = 0; index < 50; index++) {
+            rawAction.add("tell: &f这是第" + index + "条消息");
+        }
+        action = manager.compile(rawAction);
+    }
+
+    @Benchmark
+    public Action compile() {
+        return manager.compile(rawAction);
+    }
+
+    @Benchmark
+    public ActionResult runAction() {
+        return action.eval(ActionContext.empty()).join();
+    }
+}
@@ -0,0 +1,60 @@
+package pers.neige.neigeitems.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 加权随机采样基准测试.
+ * weight 系列方法每次调用重新遍历样本集, 别名表及加权采样器则预先构建, 仅测量采样耗时.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SamplingUtilsBenchmark {
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"5"})
+    public int amount;
+
+    private Map<String, Double> samples;
+    private SamplingUtils.AliasTable<String> aliasTable;
+    private SamplingUtils.WeightedSampler<String> sampler;
+
+    @Setup
+    public void setup() {
+        samples = new LinkedHashMap<>();
+        for (int index = 0; index < size; index++) {
+            samples.put("sample-" + index, (double) (index % 10 + 1));
+        }
+        aliasTable = SamplingUtils.aliasTable(samples);
+        sampler = SamplingUtils.sampler(samples);
+    }
+
+    @Benchmark
+    public String weightSingle() {
+        return SamplingUtils.weight(samples);
+    }
+
+    @Benchmark
+    public String aliasTableSingle() {
+        return aliasTable.sample();
+    }
+
+    @Benchmark
+    public List<String> weightMultiple() {
+        return SamplingUtils.weight(samples, amount);
+    }
+
+    @Benchmark
+    public List<SamplingUtils.SamplingResult<String>> samplerMultiple() {
+        return sampler.sample(amount);
+    }
+}
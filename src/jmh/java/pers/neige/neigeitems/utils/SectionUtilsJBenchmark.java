@@ -0,0 +1,58 @@
+package pers.neige.neigeitems.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 节点文本解析基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectionUtilsJBenchmark {
+    /**
+     * 以 skip 开头的节点保留原文, 其余节点解析为固定值
+     */
+    private static final Function<String, String> TRANSFORM = text -> text.startsWith("skip") ? null : "10";
+
+    @Param({"plain", "flat", "nested", "escaped"})
+    public String shape;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        switch (shape) {
+            case "plain":
+                text = "&f攻击力: 10 - 20, 这是一段不含任何节点的普通文本";
+                break;
+            case "flat":
+                text = "&f攻击力: <number::10_20_0> - <number::20_30_0>, <strength> <skip>";
+                break;
+            case "nested":
+                text = "&f攻击力: <calculation::<base>*<number::1_2_2>+<strength>_0> <skip::<level>>";
+                break;
+            default:
+                text = "&f攻击力: \\<base\\> <number::10\\_20_0> C:\\\\path\\to <strength>";
+                break;
+        }
+    }
+
+    @Benchmark
+    public String parse() {
+        return SectionUtilsJ.parse(text, '<', '>', '\\', TRANSFORM);
+    }
+
+    /**
+     * 每次重新编译节点模板, 用于对照模板缓存的收益
+     */
+    @Benchmark
+    public String parseUncached() {
+        return SectionTemplate.compile(text, '<', '>', '\\').evaluate(TRANSFORM);
+    }
+}
@@ -0,0 +1,29 @@
+package pers.neige.neigeitems.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点参数分割基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringUtilsBenchmark {
+    @Param({
+            "10_20_0",
+            "a\\_b_c\\\\_d\\_e_f",
+            "key1_key2_key3_key4_key5_key6_key7_key8_key9_key10_key11_key12_key13_key14_key15_key16"
+    })
+    public String text;
+
+    @Benchmark
+    public List<String> split() {
+        return StringUtils.split(text, '_', '\\');
+    }
+}
@@ -3,6 +3,7 @@ package pers.neige.neigeitems.action;
 import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import pers.neige.neigeitems.action.result.Results;
 import pers.neige.neigeitems.manager.BaseActionManager;
 import pers.neige.neigeitems.utils.SchedulerUtils;
 
@@ -13,6 +14,19 @@ public abstract class Action {
     @NotNull
     protected final BaseActionManager manager;
     protected boolean asyncSafe = true;
+    /**
+     * 动作是否总在当前线程内执行完毕(不包含延时, 等待输入等挂起操作)
+     */
+    protected boolean syncComplete = false;
+    /**
+     * 动作及其全部子动作是否均可在任意线程执行, 且不会修改动作上下文中的物品
+     */
+    protected boolean asyncPure = false;
+    /**
+     * 性能分析记录键, 为null时不进行记录
+     */
+    @Nullable
+    private String profileKey;
 
     public Action(@NotNull BaseActionManager manager) {
         this.manager = manager;
@@ -29,17 +43,57 @@ public abstract class Action {
             @NotNull ActionContext context
     );
 
+    /**
+     * 同步执行动作, 直接返回执行结果.
+     * 仅应在 canEvalSync 返回 true 时调用, 子类设置 syncComplete 后可覆写本方法以避免创建 CompletableFuture.
+     *
+     * @param manager 动作管理器
+     * @param context 动作上下文
+     * @return 执行结果
+     */
+    @NotNull
+    public ActionResult evalSync(
+            @NotNull BaseActionManager manager,
+            @NotNull ActionContext context
+    ) {
+        return eval(manager, context).join();
+    }
+
+    /**
+     * 当前线程下动作能否同步执行, 即动作同步完成且无需进行线程切换
+     *
+     * @param context 动作上下文
+     * @return 能否同步执行
+     */
+    public boolean canEvalSync(@NotNull ActionContext context) {
+        if (!syncComplete) return false;
+        if (asyncSafe) return context.isSync() == Bukkit.isPrimaryThread();
+        return Bukkit.isPrimaryThread();
+    }
+
     @NotNull
     public CompletableFuture<ActionResult> evalAsyncSafe(
             @NotNull BaseActionManager manager,
             @NotNull ActionContext context
     ) {
+        if (canEvalSync(context)) {
+            String profileKey = this.profileKey;
+            if (profileKey == null || !ActionProfiler.isEnabled()) {
+                return Results.completed(evalSync(manager, context));
+            }
+            long start = System.nanoTime();
+            try {
+                return Results.completed(evalSync(manager, context));
+            } finally {
+                ActionProfiler.record(profileKey, start);
+            }
+        }
         if (this.asyncSafe) {
             // 如果线程状态不一致, 回归原始线程
             if (context.isSync() != Bukkit.isPrimaryThread()) {
                 CompletableFuture<ActionResult> result = new CompletableFuture<>();
                 SchedulerUtils.run(manager.getPlugin(), context.isSync(), () -> {
-                    eval(manager, context).thenAccept(result::complete);
+                    evalProfiled(manager, context).thenAccept(result::complete);
                 });
                 return result;
             }
@@ -48,19 +102,62 @@ public abstract class Action {
             if (!Bukkit.isPrimaryThread()) {
                 CompletableFuture<ActionResult> result = new CompletableFuture<>();
                 // 转主线程
-                Bukkit.getScheduler().runTask(manager.getPlugin(), () -> {
-                    eval(manager, context).thenAccept(result::complete);
+                SchedulerUtils.sync(manager.getPlugin(), () -> {
+                    evalProfiled(manager, context).thenAccept(result::complete);
                 });
                 return result;
             }
         }
-        return eval(manager, context);
+        return evalProfiled(manager, context);
+    }
+
+    /**
+     * 执行动作, 设置了性能分析记录键且性能分析器已启用时, 记录当前线程内的执行耗时
+     */
+    @NotNull
+    private CompletableFuture<ActionResult> evalProfiled(
+            @NotNull BaseActionManager manager,
+            @NotNull ActionContext context
+    ) {
+        String profileKey = this.profileKey;
+        if (profileKey == null || !ActionProfiler.isEnabled()) {
+            return eval(manager, context);
+        }
+        long start = System.nanoTime();
+        try {
+            return eval(manager, context);
+        } finally {
+            ActionProfiler.record(profileKey, start);
+        }
     }
 
     public boolean isAsyncSafe() {
         return asyncSafe;
     }
 
+    public boolean isSyncComplete() {
+        return syncComplete;
+    }
+
+    public boolean isAsyncPure() {
+        return asyncPure;
+    }
+
+    @Nullable
+    public String getProfileKey() {
+        return profileKey;
+    }
+
+    /**
+     * 设置性能分析记录键, 空动作为共享实例, 不进行设置
+     *
+     * @param profileKey 记录键, 为null时不进行记录
+     */
+    public void setProfileKey(@Nullable String profileKey) {
+        if (getType() == ActionType.NULL) return;
+        this.profileKey = profileKey;
+    }
+
     @NotNull
     public CompletableFuture<ActionResult> evalAsyncSafe(
             @NotNull ActionContext context
@@ -14,23 +14,35 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class ActionContext implements Cloneable {
-    @NotNull
-    private final Bindings basicBindings;
+    /**
+     * 各线程可复用的空闲上下文
+     */
+    private static final ThreadLocal<ActionContext> REUSABLE = new ThreadLocal<>();
+
+    /**
+     * 用于传入 js 的基础 Bindings, 首次调用 js 时构建
+     */
+    @Nullable
+    private volatile Bindings basicBindings;
     @Nullable
-    private final Player player;
+    private Player player;
     @NotNull
     private final Map<String, Object> global;
     @Nullable
     private final Map<String, Object> params;
     @Nullable
-    private final ItemStack itemStack;
+    private ItemStack itemStack;
     @Nullable
-    private final NbtCompound nbt;
+    private NbtCompound nbt;
     @Nullable
-    private final Map<String, String> data;
+    private Map<String, String> data;
     @Nullable
-    private final Event event;
+    private Event event;
     private boolean sync = Bukkit.isPrimaryThread();
+    /**
+     * 是否为可复用上下文
+     */
+    private boolean reusable = false;
 
     public ActionContext() {
         this(null);
@@ -88,7 +100,6 @@ public class ActionContext implements Cloneable {
         this.nbt = nbt;
         this.data = data;
         this.event = event;
-        basicBindings = toBindings();
     }
 
     /**
@@ -99,11 +110,56 @@ public class ActionContext implements Cloneable {
         return new ActionContext();
     }
 
+    /**
+     * 获取当前线程可复用的 ActionContext, 不存在空闲上下文时新建.
+     * 仅应在动作全部于当前线程内同步执行完毕时使用, 执行结束后调用 release 交还上下文.
+     * 未交还的上下文不会被复用, 可以安全地被延时动作等继续持有.
+     */
+    @NotNull
+    public static ActionContext acquire(
+            @Nullable Player player,
+            @Nullable ItemStack itemStack,
+            @Nullable NbtCompound nbt,
+            @Nullable Map<String, String> data,
+            @Nullable Event event
+    ) {
+        ActionContext context = REUSABLE.get();
+        if (context == null) {
+            context = new ActionContext(player, new HashMap<>(), null, itemStack, nbt, data, event);
+            context.reusable = true;
+            return context;
+        }
+        REUSABLE.set(null);
+        context.player = player;
+        context.itemStack = itemStack;
+        context.nbt = nbt;
+        context.data = data;
+        context.event = event;
+        context.sync = Bukkit.isPrimaryThread();
+        return context;
+    }
+
+    /**
+     * 交还通过 acquire 获取的上下文, 交还后不应继续使用该上下文.
+     */
+    public void release() {
+        if (!reusable) return;
+        player = null;
+        itemStack = null;
+        nbt = null;
+        data = null;
+        event = null;
+        basicBindings = null;
+        global.clear();
+        REUSABLE.set(this);
+    }
+
     @Override
     public ActionContext clone() {
         try {
             ActionContext result = (ActionContext) super.clone();
             result.setSync(Bukkit.isPrimaryThread());
+            result.reusable = false;
             return result;
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException(e);
@@ -143,14 +199,35 @@ public class ActionContext implements Cloneable {
         return bindings;
     }
 
+    /**
+     * 获取基础 Bindings, 不存在时进行构建.
+     */
+    @NotNull
+    private Bindings getBasicBindings() {
+        Bindings bindings = basicBindings;
+        if (bindings == null) {
+            synchronized (this) {
+                bindings = basicBindings;
+                if (bindings == null) {
+                    bindings = toBindings();
+                    basicBindings = bindings;
+                }
+            }
+        }
+        return bindings;
+    }
+
     /**
      * 修改 params 后请调用该方法刷新 Bindings.
      */
     public void refreshParams() {
+        Bindings bindings = basicBindings;
+        // 尚未构建的 Bindings 将在构建时读取最新的 params
+        if (bindings == null) return;
         if (params != null) {
             params.forEach((key, value) -> {
                 if (value != null) {
-                    basicBindings.put(key, value);
+                    bindings.put(key, value);
                 }
             });
         }
@@ -158,14 +235,22 @@ public class ActionContext implements Cloneable {
 
     /**
      * 获取用于传入 js 的 Bindings.
+     * 返回值为基础 Bindings 之上的独立分层, 对其进行的修改不会影响基础 Bindings.
      */
     @NotNull
     public Bindings getBindings() {
-        Bindings bindings = new SimpleBindings();
-        Map<String, Object> vars = new HashMap<>();
-        bindings.put("variables", vars);
-        bindings.put("vars", vars);
-        bindings.putAll(basicBindings);
+        Bindings basicBindings = getBasicBindings();
+        Bindings bindings = new LayeredBindings(basicBindings);
+        // params 中的同名变量优先
+        if (!basicBindings.containsKey("variables") || !basicBindings.containsKey("vars")) {
+            Map<String, Object> vars = new HashMap<>();
+            if (!basicBindings.containsKey("variables")) {
+                bindings.put("variables", vars);
+            }
+            if (!basicBindings.containsKey("vars")) {
+                bindings.put("vars", vars);
+            }
+        }
         return bindings;
     }
 
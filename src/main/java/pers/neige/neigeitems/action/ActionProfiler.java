@@ -0,0 +1,336 @@
+package pers.neige.neigeitems.action;
+
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 动作性能分析器.
+ * 按 物品ID:触发器类型 / 条件内容 记录执行次数, 总耗时, p99耗时, 以及主线程与异步线程的耗时占比.
+ * 未启用时仅进行一次 volatile 读取.
+ */
+public final class ActionProfiler {
+    /**
+     * 条件内容过长时截断显示
+     */
+    private static final int MAX_CONDITION_KEY_LENGTH = 64;
+    private static final @NotNull ConcurrentHashMap<String, Metric> metrics = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = false;
+    /**
+     * 本次分析开始时间
+     */
+    private static volatile long startTime = 0;
+
+    private ActionProfiler() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 清空已有数据并开始记录
+     */
+    public static void start() {
+        metrics.clear();
+        startTime = System.currentTimeMillis();
+        enabled = true;
+    }
+
+    /**
+     * 停止记录, 已有数据保留至下次开始
+     */
+    public static void stop() {
+        enabled = false;
+    }
+
+    /**
+     * 获取本次分析开始时间
+     */
+    public static long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * 根据物品ID及触发器类型生成记录键
+     *
+     * @param id   物品ID
+     * @param type 触发器类型
+     * @param part 触发器中的动作部分(actions/async/sync等)
+     * @return 记录键
+     */
+    @NotNull
+    public static String key(@NotNull String id, @NotNull String type, @NotNull String part) {
+        return id + ":" + type + ":" + part;
+    }
+
+    /**
+     * 根据条件内容生成记录键
+     *
+     * @param condition 条件内容
+     * @return 记录键
+     */
+    @NotNull
+    public static String conditionKey(@NotNull String condition) {
+        String text = condition.replace('\n', ' ');
+        if (text.length() > MAX_CONDITION_KEY_LENGTH) {
+            text = text.substring(0, MAX_CONDITION_KEY_LENGTH) + "...";
+        }
+        return "condition:" + text;
+    }
+
+    /**
+     * 根据循环类型及循环条件生成记录键
+     *
+     * @param type   循环类型(while/repeat)
+     * @param source 循环条件或循环次数
+     * @return 记录键
+     */
+    @NotNull
+    public static String loopKey(@NotNull String type, @Nullable String source) {
+        String text = source == null ? "" : source.replace('\n', ' ');
+        if (text.length() > MAX_CONDITION_KEY_LENGTH) {
+            text = text.substring(0, MAX_CONDITION_KEY_LENGTH) + "...";
+        }
+        return "loop:" + type + ":" + text;
+    }
+
+    /**
+     * 记录一次执行
+     *
+     * @param key   记录键
+     * @param start 执行开始时间(System.nanoTime)
+     */
+    public static void record(@NotNull String key, long start) {
+        long nanos = System.nanoTime() - start;
+        if (!enabled) return;
+        Metric metric = metrics.get(key);
+        if (metric == null) {
+            metric = metrics.computeIfAbsent(key, Metric::new);
+        }
+        metric.record(nanos, Bukkit.isPrimaryThread());
+    }
+
+    /**
+     * 记录循环的一段连续迭代
+     *
+     * @param key        记录键
+     * @param iterations 迭代次数
+     * @param yielded    本段结束后是否让出了主线程
+     */
+    public static void recordLoop(@NotNull String key, int iterations, boolean yielded) {
+        if (!enabled) return;
+        Metric metric = metrics.get(key);
+        if (metric == null) {
+            metric = metrics.computeIfAbsent(key, Metric::new);
+        }
+        metric.recordLoop(iterations, yielded);
+    }
+
+    /**
+     * 获取按指定方式排序的前N条记录
+     *
+     * @param sort  排序方式
+     * @param limit 最大条数
+     * @return 记录快照
+     */
+    @NotNull
+    public static List<Snapshot> top(@NotNull Sort sort, int limit) {
+        List<Snapshot> result = new ArrayList<>(metrics.size());
+        for (Metric metric : metrics.values()) {
+            result.add(metric.snapshot());
+        }
+        result.sort(sort.comparator.reversed());
+        if (result.size() > limit) {
+            return new ArrayList<>(result.subList(0, Math.max(0, limit)));
+        }
+        return result;
+    }
+
+    /**
+     * 排序方式
+     */
+    public enum Sort {
+        COUNT(Comparator.comparingLong(Snapshot::getCount)),
+        TOTAL(Comparator.comparingLong(Snapshot::getTotalNanos)),
+        AVG(Comparator.comparingLong(Snapshot::getAvgNanos)),
+        P99(Comparator.comparingLong(Snapshot::getP99Nanos)),
+        MAIN(Comparator.comparingLong(Snapshot::getMainNanos)),
+        ASYNC(Comparator.comparingLong(Snapshot::getAsyncNanos)),
+        ITERATIONS(Comparator.comparingLong(Snapshot::getIterations));
+
+        private final @NotNull Comparator<Snapshot> comparator;
+
+        Sort(@NotNull Comparator<Snapshot> comparator) {
+            this.comparator = comparator;
+        }
+
+        @Nullable
+        public static Sort match(@Nullable String name) {
+            if (name == null) return null;
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException error) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 单个记录键对应的统计数据
+     */
+    private static final class Metric {
+        /**
+         * 每个2的幂区间再细分的桶数
+         */
+        private static final int SUB_BUCKETS = 4;
+        private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+        private final @NotNull String key;
+        private final @NotNull LongAdder count = new LongAdder();
+        private final @NotNull LongAdder mainCount = new LongAdder();
+        private final @NotNull LongAdder mainNanos = new LongAdder();
+        private final @NotNull LongAdder asyncNanos = new LongAdder();
+        /**
+         * 循环迭代次数
+         */
+        private final @NotNull LongAdder iterations = new LongAdder();
+        /**
+         * 循环让出主线程的次数
+         */
+        private final @NotNull LongAdder yields = new LongAdder();
+        /**
+         * 对数分桶的耗时分布, 用于估算p99
+         */
+        private final @NotNull AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private Metric(@NotNull String key) {
+            this.key = key;
+        }
+
+        private static int bucket(long nanos) {
+            if (nanos < SUB_BUCKETS) return (int) Math.max(nanos, 0);
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) ((nanos >>> (exponent - 2)) & (SUB_BUCKETS - 1));
+            return exponent * SUB_BUCKETS + sub;
+        }
+
+        /**
+         * 获取桶的上界
+         */
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int exponent = bucket / SUB_BUCKETS;
+            int sub = bucket % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1) << (exponent - 2)) - 1;
+        }
+
+        private void record(long nanos, boolean primary) {
+            count.increment();
+            if (primary) {
+                mainCount.increment();
+                mainNanos.add(nanos);
+            } else {
+                asyncNanos.add(nanos);
+            }
+            buckets.incrementAndGet(bucket(nanos));
+        }
+
+        private void recordLoop(int iterations, boolean yielded) {
+            this.iterations.add(iterations);
+            if (yielded) {
+                yields.increment();
+            }
+        }
+
+        @NotNull
+        private Snapshot snapshot() {
+            long count = this.count.sum();
+            long threshold = (long) Math.ceil(count * 0.99);
+            long p99 = 0;
+            long seen = 0;
+            for (int index = 0; index < BUCKETS; index++) {
+                seen += buckets.get(index);
+                if (seen >= threshold && seen > 0) {
+                    p99 = upperBound(index);
+                    break;
+                }
+            }
+            return new Snapshot(key, count, mainCount.sum(), mainNanos.sum(), asyncNanos.sum(), p99, iterations.sum(), yields.sum());
+        }
+    }
+
+    /**
+     * 统计数据快照
+     */
+    public static final class Snapshot {
+        private final @NotNull String key;
+        private final long count;
+        private final long mainCount;
+        private final long mainNanos;
+        private final long asyncNanos;
+        private final long p99Nanos;
+        private final long iterations;
+        private final long yields;
+
+        private Snapshot(@NotNull String key, long count, long mainCount, long mainNanos, long asyncNanos, long p99Nanos, long iterations, long yields) {
+            this.key = key;
+            this.count = count;
+            this.mainCount = mainCount;
+            this.mainNanos = mainNanos;
+            this.asyncNanos = asyncNanos;
+            this.p99Nanos = p99Nanos;
+            this.iterations = iterations;
+            this.yields = yields;
+        }
+
+        @NotNull
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMainCount() {
+            return mainCount;
+        }
+
+        public long getTotalNanos() {
+            return mainNanos + asyncNanos;
+        }
+
+        public long getAvgNanos() {
+            return count == 0 ? 0 : getTotalNanos() / count;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getMainNanos() {
+            return mainNanos;
+        }
+
+        public long getAsyncNanos() {
+            return asyncNanos;
+        }
+
+        public long getIterations() {
+            return iterations;
+        }
+
+        public long getYields() {
+            return yields;
+        }
+    }
+}
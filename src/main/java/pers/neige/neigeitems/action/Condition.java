@@ -30,6 +30,13 @@ public class Condition {
         return condition;
     }
 
+    /**
+     * 条件是否确定不会修改动作上下文中的内容(无条件或条件可由原生实现求值)
+     */
+    public boolean isPure() {
+        return condition == null || condition.isNative();
+    }
+
     @NotNull
     public ActionResult check(@NotNull ActionContext context) {
         return manager.parseCondition(condition, context);
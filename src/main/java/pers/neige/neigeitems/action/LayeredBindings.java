@@ -0,0 +1,110 @@
+package pers.neige.neigeitems.action;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.script.Bindings;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分层 Bindings.
+ * 读取时优先查找本层, 本层不存在时查找底层; 写入及删除仅作用于本层, 不会修改底层内容.
+ * 用于在不复制 ActionContext 基础 Bindings 的前提下为每次 js 执行提供独立的变量空间.
+ */
+final class LayeredBindings extends AbstractMap<String, Object> implements Bindings {
+    /**
+     * 删除标记, 代表底层中的对应键已在本层被删除
+     */
+    private static final Object REMOVED = new Object();
+
+    private final @NotNull Map<String, Object> base;
+    private final @NotNull HashMap<String, Object> local = new HashMap<>();
+
+    LayeredBindings(@NotNull Map<String, Object> base) {
+        this.base = base;
+    }
+
+    private static void checkKey(Object key) {
+        if (key == null) {
+            throw new NullPointerException("key can not be null");
+        }
+        if (!(key instanceof String)) {
+            throw new ClassCastException("key should be a String");
+        }
+        if (((String) key).isEmpty()) {
+            throw new IllegalArgumentException("key can not be empty");
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        checkKey(key);
+        Object value = local.get(key);
+        if (value == REMOVED) return null;
+        if (value != null || local.containsKey(key)) return value;
+        return base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        checkKey(key);
+        Object value = local.get(key);
+        if (value == REMOVED) return false;
+        if (value != null || local.containsKey(key)) return true;
+        return base.containsKey(key);
+    }
+
+    @Override
+    public Object put(String name, Object value) {
+        checkKey(name);
+        Object old = get(name);
+        local.put(name, value);
+        return old;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> toMerge) {
+        for (Map.Entry<? extends String, ?> entry : toMerge.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        checkKey(key);
+        Object old = get(key);
+        if (base.containsKey(key)) {
+            local.put((String) key, REMOVED);
+        } else {
+            local.remove(key);
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        for (String key : base.keySet()) {
+            local.put(key, REMOVED);
+        }
+    }
+
+    /**
+     * 返回合并后内容的只读快照
+     */
+    @Override
+    public @NotNull Set<Entry<String, Object>> entrySet() {
+        Map<String, Object> merged = new HashMap<>(base);
+        local.forEach((key, value) -> {
+            if (value == REMOVED) {
+                merged.remove(key);
+            } else {
+                merged.put(key, value);
+            }
+        });
+        return Collections.unmodifiableMap(merged).entrySet();
+    }
+}
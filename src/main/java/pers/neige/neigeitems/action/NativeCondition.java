@@ -0,0 +1,566 @@
+package pers.neige.neigeitems.action;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import pers.neige.neigeitems.manager.HookerManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 简单条件的原生实现.
+ * 将由 字面量, 比较运算, 逻辑运算(&&, ||, !), 四则运算, papi(...) 以及 global/data 查询构成的布尔表达式
+ * 编译为 Java 节点树, 按 js 的类型转换规则直接求值, 无需经过脚本引擎.
+ * 不支持的表达式编译时返回 null; 求值时遇到无法确定 js 行为的值(非基础类型的 Java 对象等)将返回 null, 交由脚本引擎处理.
+ */
+final class NativeCondition {
+    /**
+     * 代表当前值无法按原生方式处理, 需回退至脚本引擎
+     */
+    private static final RuntimeException FALLBACK = new RuntimeException("fallback", null, false, false) {
+    };
+    private static final Pattern DECIMAL = Pattern.compile("[+-]?(\\d+\\.?\\d*([eE][+-]?\\d+)?|\\.\\d+([eE][+-]?\\d+)?|Infinity)");
+    private static final Pattern HEX = Pattern.compile("0[xX][0-9a-fA-F]{1,15}");
+
+    private final @NotNull Node root;
+
+    private NativeCondition(@NotNull Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 编译条件, 不支持的表达式返回 null
+     *
+     * @param source 条件内容
+     * @return 已编译条件
+     */
+    static @Nullable NativeCondition compile(@NotNull String source) {
+        List<Object> tokens = tokenize(source);
+        if (tokens == null || tokens.isEmpty()) return null;
+        try {
+            Parser parser = new Parser(tokens);
+            Node root = parser.parseOr();
+            if (!parser.isEnd() || !root.isBoolean()) return null;
+            return new NativeCondition(root);
+        } catch (IllegalArgumentException error) {
+            return null;
+        }
+    }
+
+    /**
+     * 对条件求值
+     *
+     * @param context 动作上下文
+     * @return 条件结果, 需回退至脚本引擎时返回 null
+     */
+    @Nullable
+    Boolean eval(@NotNull ActionContext context) {
+        try {
+            return (Boolean) root.eval(context);
+        } catch (RuntimeException error) {
+            if (error == FALLBACK) return null;
+            throw error;
+        }
+    }
+
+    // ---------------- js 类型转换 ----------------
+
+    /**
+     * 将 Java 值规范为 null/Boolean/Double/String, 其余类型回退
+     */
+    private static @Nullable Object normalize(@Nullable Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Double) {
+            return value;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte || value instanceof Float) {
+            return ((Number) value).doubleValue();
+        }
+        throw FALLBACK;
+    }
+
+    private static double toNumber(@Nullable Object value) {
+        if (value == null) return 0;
+        if (value instanceof Double) return (Double) value;
+        if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+        String text = ((String) value).trim();
+        if (text.isEmpty()) return 0;
+        if (DECIMAL.matcher(text).matches()) return Double.parseDouble(text);
+        if (HEX.matcher(text).matches()) return Long.parseLong(text.substring(2), 16);
+        return Double.NaN;
+    }
+
+    private static boolean toBoolean(@Nullable Object value) {
+        if (value == null) return false;
+        if (value instanceof Boolean) return (Boolean) value;
+        if (value instanceof Double) {
+            double number = (Double) value;
+            return number != 0 && !Double.isNaN(number);
+        }
+        return !((String) value).isEmpty();
+    }
+
+    private static @NotNull String toJsString(@Nullable Object value) {
+        if (value == null) return "null";
+        if (value instanceof Double) {
+            double number = (Double) value;
+            if (Double.isNaN(number)) return "NaN";
+            if (Double.isInfinite(number)) return number > 0 ? "Infinity" : "-Infinity";
+            if (number == Math.rint(number) && Math.abs(number) < 1e15) return Long.toString((long) number);
+            String text = Double.toString(number);
+            // 科学计数法的格式与 js 不同
+            if (text.indexOf('E') >= 0) throw FALLBACK;
+            return text;
+        }
+        return value.toString();
+    }
+
+    private static boolean looseEquals(@Nullable Object left, @Nullable Object right) {
+        if (left == null || right == null) return left == right;
+        if (left.getClass() == right.getClass()) return strictEquals(left, right);
+        if (left instanceof Boolean) return looseEquals(toNumber(left), right);
+        if (right instanceof Boolean) return looseEquals(left, toNumber(right));
+        // 数字与字符串
+        return toNumber(left) == toNumber(right);
+    }
+
+    private static boolean strictEquals(@Nullable Object left, @Nullable Object right) {
+        if (left == null || right == null) return left == right;
+        if (left instanceof Double && right instanceof Double) {
+            return (double) (Double) left == (double) (Double) right;
+        }
+        return left.equals(right);
+    }
+
+    /**
+     * @return 比较结果, 任意一侧为 NaN 时返回 null
+     */
+    private static @Nullable Integer compare(@Nullable Object left, @Nullable Object right) {
+        if (left instanceof String && right instanceof String) {
+            return ((String) left).compareTo((String) right);
+        }
+        double a = toNumber(left);
+        double b = toNumber(right);
+        if (Double.isNaN(a) || Double.isNaN(b)) return null;
+        return Double.compare(a == 0 ? 0 : a, b == 0 ? 0 : b);
+    }
+
+    // ---------------- 词法分析 ----------------
+
+    /**
+     * 拆分词法单元, 数字为 Double, 字符串为 Literal, 标识符为 String, 运算符为 Symbol
+     *
+     * @return 词法单元, 存在不支持的内容时返回 null
+     */
+    private static @Nullable List<Object> tokenize(@NotNull String source) {
+        List<Object> tokens = new ArrayList<>();
+        int length = source.length();
+        int index = 0;
+        while (index < length) {
+            char c = source.charAt(index);
+            if (Character.isWhitespace(c)) {
+                index++;
+            } else if (Character.isDigit(c) || (c == '.' && index + 1 < length && Character.isDigit(source.charAt(index + 1)))) {
+                int start = index;
+                while (index < length && (Character.isDigit(source.charAt(index)) || source.charAt(index) == '.')) {
+                    index++;
+                }
+                if (index < length && Character.isJavaIdentifierPart(source.charAt(index))) return null;
+                try {
+                    tokens.add(Double.parseDouble(source.substring(start, index)));
+                } catch (NumberFormatException error) {
+                    return null;
+                }
+            } else if (c == '"' || c == '\'') {
+                StringBuilder builder = new StringBuilder();
+                index++;
+                boolean closed = false;
+                while (index < length) {
+                    char current = source.charAt(index++);
+                    if (current == c) {
+                        closed = true;
+                        break;
+                    }
+                    if (current == '\n') return null;
+                    if (current == '\\') {
+                        if (index >= length) return null;
+                        char escaped = source.charAt(index++);
+                        switch (escaped) {
+                            case '\\':
+                            case '"':
+                            case '\'':
+                                builder.append(escaped);
+                                break;
+                            case 'n':
+                                builder.append('\n');
+                                break;
+                            case 't':
+                                builder.append('\t');
+                                break;
+                            default:
+                                return null;
+                        }
+                    } else {
+                        builder.append(current);
+                    }
+                }
+                if (!closed) return null;
+                tokens.add(new Literal(builder.toString()));
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = index;
+                while (index < length && Character.isJavaIdentifierPart(source.charAt(index))) {
+                    index++;
+                }
+                tokens.add(source.substring(start, index));
+            } else {
+                Symbol symbol = Symbol.match(source, index);
+                if (symbol == null) return null;
+                tokens.add(symbol);
+                index += symbol.text.length();
+            }
+        }
+        return tokens;
+    }
+
+    private enum Symbol {
+        // 长运算符在前, 以便优先匹配
+        STRICT_EQUALS("==="), STRICT_NOT_EQUALS("!=="),
+        EQUALS("=="), NOT_EQUALS("!="), LESS_EQUALS("<="), GREATER_EQUALS(">="), AND("&&"), OR("||"),
+        LESS("<"), GREATER(">"), NOT("!"), PLUS("+"), MINUS("-"), TIMES("*"), DIVIDE("/"), MOD("%"),
+        LEFT_PAREN("("), RIGHT_PAREN(")"), LEFT_BRACKET("["), RIGHT_BRACKET("]"), DOT(".");
+
+        private final @NotNull String text;
+
+        Symbol(@NotNull String text) {
+            this.text = text;
+        }
+
+        private static @Nullable Symbol match(@NotNull String source, int index) {
+            // 注释及正则表达式交由脚本引擎处理
+            if (source.startsWith("//", index) || source.startsWith("/*", index)) return null;
+            for (Symbol symbol : values()) {
+                if (source.startsWith(symbol.text, index)) return symbol;
+            }
+            return null;
+        }
+    }
+
+    private static final class Literal {
+        private final @NotNull String value;
+
+        private Literal(@NotNull String value) {
+            this.value = value;
+        }
+    }
+
+    // ---------------- 语法分析 ----------------
+
+    private static final class Parser {
+        private final @NotNull List<Object> tokens;
+        private int index = 0;
+
+        private Parser(@NotNull List<Object> tokens) {
+            this.tokens = tokens;
+        }
+
+        private boolean isEnd() {
+            return index >= tokens.size();
+        }
+
+        private @Nullable Object peek() {
+            return isEnd() ? null : tokens.get(index);
+        }
+
+        private boolean accept(@NotNull Symbol symbol) {
+            if (peek() == symbol) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(@NotNull Symbol symbol) {
+            if (!accept(symbol)) throw new IllegalArgumentException();
+        }
+
+        /**
+         * 逻辑运算仅接受布尔操作数, 保证结果与 js 一致(js 中 && 与 || 返回操作数本身)
+         */
+        private @NotNull Node requireBoolean(@NotNull Node node) {
+            if (!node.isBoolean()) throw new IllegalArgumentException();
+            return node;
+        }
+
+        private @NotNull Node parseOr() {
+            Node left = parseAnd();
+            while (accept(Symbol.OR)) {
+                Node a = requireBoolean(left);
+                Node b = requireBoolean(parseAnd());
+                left = new BooleanNode(context -> (Boolean) a.eval(context) || (Boolean) b.eval(context));
+            }
+            return left;
+        }
+
+        private @NotNull Node parseAnd() {
+            Node left = parseEquality();
+            while (accept(Symbol.AND)) {
+                Node a = requireBoolean(left);
+                Node b = requireBoolean(parseEquality());
+                left = new BooleanNode(context -> (Boolean) a.eval(context) && (Boolean) b.eval(context));
+            }
+            return left;
+        }
+
+        private @NotNull Node parseEquality() {
+            Node left = parseRelational();
+            while (true) {
+                Node a = left;
+                if (accept(Symbol.EQUALS)) {
+                    Node b = parseRelational();
+                    left = new BooleanNode(context -> looseEquals(a.eval(context), b.eval(context)));
+                } else if (accept(Symbol.NOT_EQUALS)) {
+                    Node b = parseRelational();
+                    left = new BooleanNode(context -> !looseEquals(a.eval(context), b.eval(context)));
+                } else if (accept(Symbol.STRICT_EQUALS)) {
+                    Node b = parseRelational();
+                    left = new BooleanNode(context -> strictEquals(a.eval(context), b.eval(context)));
+                } else if (accept(Symbol.STRICT_NOT_EQUALS)) {
+                    Node b = parseRelational();
+                    left = new BooleanNode(context -> !strictEquals(a.eval(context), b.eval(context)));
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private @NotNull Node parseRelational() {
+            Node left = parseAdditive();
+            while (true) {
+                Node a = left;
+                if (accept(Symbol.LESS)) {
+                    Node b = parseAdditive();
+                    left = new BooleanNode(context -> {
+                        Integer result = compare(a.eval(context), b.eval(context));
+                        return result != null && result < 0;
+                    });
+                } else if (accept(Symbol.LESS_EQUALS)) {
+                    Node b = parseAdditive();
+                    left = new BooleanNode(context -> {
+                        Integer result = compare(a.eval(context), b.eval(context));
+                        return result != null && result <= 0;
+                    });
+                } else if (accept(Symbol.GREATER)) {
+                    Node b = parseAdditive();
+                    left = new BooleanNode(context -> {
+                        Integer result = compare(a.eval(context), b.eval(context));
+                        return result != null && result > 0;
+                    });
+                } else if (accept(Symbol.GREATER_EQUALS)) {
+                    Node b = parseAdditive();
+                    left = new BooleanNode(context -> {
+                        Integer result = compare(a.eval(context), b.eval(context));
+                        return result != null && result >= 0;
+                    });
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private @NotNull Node parseAdditive() {
+            Node left = parseMultiplicative();
+            while (true) {
+                Node a = left;
+                if (accept(Symbol.PLUS)) {
+                    Node b = parseMultiplicative();
+                    left = new ValueNode(context -> {
+                        Object x = a.eval(context);
+                        Object y = b.eval(context);
+                        if (x instanceof String || y instanceof String) {
+                            return toJsString(x) + toJsString(y);
+                        }
+                        return toNumber(x) + toNumber(y);
+                    });
+                } else if (accept(Symbol.MINUS)) {
+                    Node b = parseMultiplicative();
+                    left = new ValueNode(context -> toNumber(a.eval(context)) - toNumber(b.eval(context)));
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private @NotNull Node parseMultiplicative() {
+            Node left = parseUnary();
+            while (true) {
+                Node a = left;
+                if (accept(Symbol.TIMES)) {
+                    Node b = parseUnary();
+                    left = new ValueNode(context -> toNumber(a.eval(context)) * toNumber(b.eval(context)));
+                } else if (accept(Symbol.DIVIDE)) {
+                    Node b = parseUnary();
+                    left = new ValueNode(context -> toNumber(a.eval(context)) / toNumber(b.eval(context)));
+                } else if (accept(Symbol.MOD)) {
+                    Node b = parseUnary();
+                    left = new ValueNode(context -> toNumber(a.eval(context)) % toNumber(b.eval(context)));
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private @NotNull Node parseUnary() {
+            if (accept(Symbol.NOT)) {
+                Node node = parseUnary();
+                return new BooleanNode(context -> !toBoolean(node.eval(context)));
+            }
+            if (accept(Symbol.MINUS)) {
+                Node node = parseUnary();
+                return new ValueNode(context -> -toNumber(node.eval(context)));
+            }
+            if (accept(Symbol.PLUS)) {
+                Node node = parseUnary();
+                return new ValueNode(context -> toNumber(node.eval(context)));
+            }
+            return parsePrimary();
+        }
+
+        private @NotNull Node parsePrimary() {
+            Object token = peek();
+            index++;
+            if (token instanceof Double) {
+                Object value = token;
+                return new ValueNode(context -> value);
+            }
+            if (token instanceof Literal) {
+                String value = ((Literal) token).value;
+                return new ValueNode(context -> value);
+            }
+            if (token == Symbol.LEFT_PAREN) {
+                Node node = parseOr();
+                expect(Symbol.RIGHT_PAREN);
+                return node;
+            }
+            if (!(token instanceof String)) throw new IllegalArgumentException();
+            switch ((String) token) {
+                case "true":
+                    return new BooleanNode(context -> Boolean.TRUE);
+                case "false":
+                    return new BooleanNode(context -> Boolean.FALSE);
+                case "null":
+                    return new ValueNode(context -> null);
+                case "papi": {
+                    expect(Symbol.LEFT_PAREN);
+                    Node text = parseAdditive();
+                    expect(Symbol.RIGHT_PAREN);
+                    return new ValueNode(context -> HookerManager.INSTANCE.papi(context.getPlayer(), toJsString(text.eval(context))));
+                }
+                case "global":
+                case "glo":
+                    return parseMember(context -> context.getGlobal());
+                case "data":
+                    return parseMember(context -> context.getData());
+                default:
+                    throw new IllegalArgumentException();
+            }
+        }
+
+        /**
+         * 解析 Map 查询, 至少包含一级 .key 或 ["key"]
+         *
+         * @param getter 根 Map 获取方式
+         */
+        private @NotNull Node parseMember(@NotNull MapGetter getter) {
+            List<String> keys = new ArrayList<>();
+            while (true) {
+                if (accept(Symbol.DOT)) {
+                    Object key = peek();
+                    if (!(key instanceof String)) throw new IllegalArgumentException();
+                    index++;
+                    keys.add((String) key);
+                } else if (accept(Symbol.LEFT_BRACKET)) {
+                    Object key = peek();
+                    if (!(key instanceof Literal)) throw new IllegalArgumentException();
+                    index++;
+                    expect(Symbol.RIGHT_BRACKET);
+                    keys.add(((Literal) key).value);
+                } else {
+                    break;
+                }
+            }
+            if (keys.isEmpty()) throw new IllegalArgumentException();
+            String[] path = keys.toArray(new String[0]);
+            return new ValueNode(context -> {
+                Object current = getter.get(context);
+                for (String key : path) {
+                    // 访问 null 的属性在 js 中将抛出异常, 交由脚本引擎输出报错
+                    if (current == null) throw FALLBACK;
+                    if (!(current instanceof Map<?, ?>)) throw FALLBACK;
+                    Map<?, ?> map = (Map<?, ?>) current;
+                    // 不存在的键在 js 中为 undefined, 与 null 的比较及运算结果不同
+                    if (!map.containsKey(key)) throw FALLBACK;
+                    current = map.get(key);
+                }
+                return normalize(current);
+            });
+        }
+    }
+
+    // ---------------- 节点 ----------------
+
+    @FunctionalInterface
+    private interface Evaluation {
+        @Nullable
+        Object eval(@NotNull ActionContext context);
+    }
+
+    @FunctionalInterface
+    private interface MapGetter {
+        @Nullable
+        Map<?, ?> get(@NotNull ActionContext context);
+    }
+
+    private static abstract class Node {
+        private final @NotNull Evaluation evaluation;
+
+        private Node(@NotNull Evaluation evaluation) {
+            this.evaluation = evaluation;
+        }
+
+        @Nullable
+        Object eval(@NotNull ActionContext context) {
+            return evaluation.eval(context);
+        }
+
+        abstract boolean isBoolean();
+    }
+
+    /**
+     * 结果必定为布尔值的节点
+     */
+    private static final class BooleanNode extends Node {
+        private BooleanNode(@NotNull Evaluation evaluation) {
+            super(evaluation);
+        }
+
+        @Override
+        boolean isBoolean() {
+            return true;
+        }
+    }
+
+    /**
+     * 结果为 null/Double/String 的节点
+     */
+    private static final class ValueNode extends Node {
+        private ValueNode(@NotNull Evaluation evaluation) {
+            super(evaluation);
+        }
+
+        @Override
+        boolean isBoolean() {
+            return false;
+        }
+    }
+}
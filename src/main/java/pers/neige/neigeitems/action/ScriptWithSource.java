@@ -2,20 +2,127 @@ package pers.neige.neigeitems.action;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import pers.neige.neigeitems.manager.HookerManager;
 
 import javax.script.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 public class ScriptWithSource extends CompiledScript {
+    /**
+     * 包装为函数时的参数列表, 与 ActionContext 构建的 Bindings 中的基础变量一一对应
+     */
+    private static final @NotNull String FUNCTION_PARAMETERS = "player, itemStack, itemTag, nbt, data, event, global, glo, context, variables, vars";
+    /**
+     * 包装为函数的脚本中允许出现的标识符(函数参数, 字面量关键字及内置对象).
+     * 其余标识符(如 JavaScriptLib 中读取 player 等全局变量的 papi, hasPermission 等函数, 或未声明的赋值)
+     * 需要在 Bindings 作用域中执行, 不能包装为函数.
+     */
+    private static final @NotNull Set<String> FUNCTION_IDENTIFIERS = new HashSet<>(Arrays.asList(
+            "player", "itemStack", "itemTag", "nbt", "data", "event", "global", "glo", "context", "variables", "vars",
+            "true", "false", "null", "undefined", "NaN", "Infinity", "typeof", "instanceof", "in", "void", "new",
+            "Math", "Number", "String", "Boolean", "parseInt", "parseFloat", "isNaN", "isFinite", "JSON"
+    ));
+
     private final @NotNull String source;
     private final @NotNull CompiledScript script;
+    /**
+     * 将脚本包装为 js 函数后得到的函数对象, 脚本不是单个表达式时为 null
+     */
+    private final @Nullable Object function;
+    /**
+     * 脚本的原生实现, 脚本超出原生支持范围时为 null
+     */
+    private final @Nullable NativeCondition nativeCondition;
 
-    private ScriptWithSource(@NotNull String source, @NotNull CompiledScript script) {
+    private ScriptWithSource(@NotNull String source, @NotNull CompiledScript script, @Nullable Object function) {
         this.script = script;
         this.source = source;
+        this.function = function;
+        this.nativeCondition = NativeCondition.compile(source);
     }
 
     public static @Nullable ScriptWithSource compile(@NotNull Compilable compilable, @Nullable String source) throws ScriptException {
-        return source == null ? null : new ScriptWithSource(source, compilable.compile(source));
+        return source == null ? null : new ScriptWithSource(source, compilable.compile(source), compileFunction(compilable, source));
+    }
+
+    /**
+     * 尝试将脚本包装为以上下文变量为参数的 js 函数.
+     * 仅单个表达式可以包装, 包含多条语句或变量声明的脚本将编译失败并返回 null.
+     * 函数在引擎的默认作用域下调用, 因此表达式中仅允许出现 {@link #FUNCTION_IDENTIFIERS} 中的标识符.
+     */
+    private static @Nullable Object compileFunction(@NotNull Compilable compilable, @NotNull String source) {
+        String expression = source.trim();
+        if (expression.endsWith(";")) {
+            expression = expression.substring(0, expression.length() - 1);
+        }
+        if (expression.isEmpty()) return null;
+        if (!usesOnlyFunctionIdentifiers(expression)) return null;
+        try {
+            CompiledScript wrapper = compilable.compile("(function(" + FUNCTION_PARAMETERS + ") {\nreturn (\n" + expression + "\n);\n})");
+            Object function = wrapper.eval();
+            if (function != null && HookerManager.INSTANCE.getNashornHooker().isFunction(wrapper.getEngine(), function)) {
+                return function;
+            }
+        } catch (Throwable ignored) {
+        }
+        return null;
+    }
+
+    /**
+     * 检查表达式中的标识符是否均可在包装后的函数内解析.
+     * 属性访问(. 之后)的标识符不受限制; 存在注释, 正则表达式, 模板字符串等无法简单判断的内容时视为不可包装.
+     */
+    private static boolean usesOnlyFunctionIdentifiers(@NotNull String expression) {
+        int length = expression.length();
+        int index = 0;
+        // 上一个非空白字符, 用于区分属性访问及除号/正则表达式
+        char last = 0;
+        while (index < length) {
+            char c = expression.charAt(index);
+            if (Character.isWhitespace(c)) {
+                index++;
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                index++;
+                while (index < length && expression.charAt(index) != c) {
+                    if (expression.charAt(index) == '\\') index++;
+                    index++;
+                }
+                if (index >= length) return false;
+                index++;
+                last = c;
+            } else if (Character.isDigit(c)) {
+                while (index < length && (Character.isJavaIdentifierPart(expression.charAt(index)) || expression.charAt(index) == '.')) {
+                    index++;
+                }
+                last = '0';
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = index;
+                while (index < length && Character.isJavaIdentifierPart(expression.charAt(index))) {
+                    index++;
+                }
+                if (last != '.' && !FUNCTION_IDENTIFIERS.contains(expression.substring(start, index))) return false;
+                last = 'a';
+            } else if (c == '`') {
+                return false;
+            } else if (c == '/') {
+                // 注释
+                if (index + 1 < length && (expression.charAt(index + 1) == '/' || expression.charAt(index + 1) == '*')) return false;
+                // 仅在操作数之后出现时才是除号, 否则为正则表达式
+                if (last != 'a' && last != '0' && last != ')' && last != ']' && last != '"' && last != '\'') return false;
+                index++;
+                last = c;
+            } else {
+                index++;
+                last = c;
+            }
+        }
+        return true;
     }
 
     public @NotNull CompiledScript getScript() {
@@ -26,6 +133,56 @@ public class ScriptWithSource extends CompiledScript {
         return source;
     }
 
+    /**
+     * 脚本是否已包装为 js 函数
+     */
+    public boolean isFunction() {
+        return function != null;
+    }
+
+    /**
+     * 脚本是否存在原生实现
+     */
+    public boolean isNative() {
+        return nativeCondition != null;
+    }
+
+    /**
+     * 根据动作上下文执行脚本.
+     * 上下文中不存在额外参数时, 优先使用原生实现求值, 其次直接以位置参数调用包装后的函数, 无需构建 Bindings.
+     *
+     * @param context 动作上下文
+     * @return 脚本返回值
+     */
+    public Object eval(@NotNull ActionContext context) throws ScriptException {
+        Map<String, Object> params = context.getParams();
+        if (params != null && !params.isEmpty()) {
+            return script.eval(context.getBindings());
+        }
+        if (nativeCondition != null) {
+            Boolean result = nativeCondition.eval(context);
+            if (result != null) return result;
+        }
+        if (function == null) {
+            return script.eval(context.getBindings());
+        }
+        Map<String, Object> vars = new HashMap<>();
+        return HookerManager.INSTANCE.getNashornHooker().call(
+                function,
+                context.getPlayer(),
+                context.getItemStack(),
+                context.getNbt(),
+                context.getNbt(),
+                context.getData(),
+                context.getEvent(),
+                context.getGlobal(),
+                context.getGlobal(),
+                context,
+                vars,
+                vars
+        );
+    }
+
     @Override
     public Object eval() throws ScriptException {
         return script.eval();
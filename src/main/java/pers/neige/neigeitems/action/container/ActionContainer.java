@@ -28,7 +28,9 @@ public class ActionContainer {
             config.getKeys(false).forEach((trigger) -> {
                 ConfigurationSection it = config.getConfigurationSection(trigger);
                 if (it != null) {
-                    triggers.put(trigger.toLowerCase(), new ActionTrigger(actionManager, trigger, it));
+                    ActionTrigger actionTrigger = new ActionTrigger(actionManager, trigger, it);
+                    actionTrigger.setProfileKey(id);
+                    triggers.put(trigger.toLowerCase(), actionTrigger);
                 }
             });
         }
@@ -4,6 +4,7 @@ import org.bukkit.configuration.ConfigurationSection;
 import org.jetbrains.annotations.NotNull;
 import pers.neige.neigeitems.action.Action;
 import pers.neige.neigeitems.action.ActionContext;
+import pers.neige.neigeitems.action.ActionProfiler;
 import pers.neige.neigeitems.action.ActionResult;
 import pers.neige.neigeitems.manager.BaseActionManager;
 import pers.neige.neigeitems.utils.SchedulerUtils;
@@ -46,6 +47,17 @@ public class ActionTrigger {
         this.sync = actionManager.NULL_ACTION;
     }
 
+    /**
+     * 为触发器动作设置性能分析记录键
+     *
+     * @param id 动作容器ID
+     */
+    public void setProfileKey(@NotNull String id) {
+        actions.setProfileKey(ActionProfiler.key(id, type, "actions"));
+        async.setProfileKey(ActionProfiler.key(id, type, "async"));
+        sync.setProfileKey(ActionProfiler.key(id, type, "sync"));
+    }
+
     @NotNull
     public BaseActionManager getActionManager() {
         return actionManager;
@@ -83,6 +95,13 @@ public class ActionTrigger {
         this.sync = sync;
     }
 
+    /**
+     * 触发器中的全部动作是否均可在任意线程执行, 且不会修改动作上下文中的物品
+     */
+    public boolean isAsyncPure() {
+        return actions.isAsyncPure() && async.isAsyncPure() && sync.isAsyncPure();
+    }
+
     @NotNull
     public CompletableFuture<ActionResult> run(
             @NotNull ActionContext context
@@ -91,6 +91,13 @@ public class Evaluator<T> {
         return getOrDefault(context, null);
     }
 
+    /**
+     * 求值过程是否确定不会修改动作上下文中的内容
+     */
+    public boolean isPure() {
+        return true;
+    }
+
     public @NotNull BaseActionManager getManager() {
         return manager;
     }
@@ -4,6 +4,7 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import pers.neige.neigeitems.action.ActionContext;
+import pers.neige.neigeitems.action.ActionProfiler;
 import pers.neige.neigeitems.action.ScriptWithSource;
 import pers.neige.neigeitems.action.evaluator.Evaluator;
 import pers.neige.neigeitems.manager.BaseActionManager;
@@ -15,6 +16,10 @@ import java.util.logging.Level;
 
 public class JsEvaluator<T> extends Evaluator<T> {
     protected final @Nullable ScriptWithSource script;
+    /**
+     * 性能分析记录键
+     */
+    private final @Nullable String profileKey;
 
     public JsEvaluator(@NotNull BaseActionManager manager, @NotNull Class<T> type, @Nullable String script) {
         super(manager, type);
@@ -23,12 +28,18 @@ public class JsEvaluator<T> extends Evaluator<T> {
         } catch (ScriptException e) {
             throw new RuntimeException(e);
         }
+        this.profileKey = script == null ? null : ActionProfiler.conditionKey(script);
     }
 
     public @Nullable ScriptWithSource getScript() {
         return script;
     }
 
+    @Override
+    public boolean isPure() {
+        return script == null || script.isNative();
+    }
+
     public @Nullable T cast(@NotNull Object result) {
         return type.isInstance(result) ? type.cast(result) : null;
     }
@@ -37,12 +48,23 @@ public class JsEvaluator<T> extends Evaluator<T> {
     @Contract("_, !null -> !null")
     public @Nullable T getOrDefault(@NotNull ActionContext context, @Nullable T def) {
         if (this.script == null) return def;
+        if (profileKey == null || !ActionProfiler.isEnabled()) return eval(this.script, context, def);
+        long start = System.nanoTime();
+        try {
+            return eval(this.script, context, def);
+        } finally {
+            ActionProfiler.record(profileKey, start);
+        }
+    }
+
+    @Contract("_, _, !null -> !null")
+    private @Nullable T eval(@NotNull ScriptWithSource script, @NotNull ActionContext context, @Nullable T def) {
         Object evalResult;
         try {
-            evalResult = this.script.eval(context.getBindings());
+            evalResult = script.eval(context);
             if (evalResult == null) return def;
         } catch (Throwable error) {
-            String[] lines = this.script.getSource().split("\n");
+            String[] lines = script.getSource().split("\n");
             for (int i = 0; i < lines.length; i++) {
                 String conditionLine = lines[i];
                 lines[i] = (i + 1) + ". " + conditionLine;
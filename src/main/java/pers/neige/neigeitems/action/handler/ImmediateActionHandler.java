@@ -0,0 +1,31 @@
+package pers.neige.neigeitems.action.handler;
+
+import org.jetbrains.annotations.NotNull;
+import pers.neige.neigeitems.action.ActionContext;
+import pers.neige.neigeitems.action.ActionResult;
+import pers.neige.neigeitems.action.result.Results;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * 同步完成的动作处理器, 在当前线程内执行完毕并直接返回执行结果, 不会挂起.
+ * 由此类处理器执行的动作可以跳过 CompletableFuture 直接执行.
+ */
+@FunctionalInterface
+public interface ImmediateActionHandler extends BiFunction<ActionContext, String, CompletableFuture<ActionResult>> {
+    /**
+     * 执行动作
+     *
+     * @param context 动作上下文
+     * @param content 动作内容
+     * @return 执行结果
+     */
+    @NotNull
+    ActionResult handle(@NotNull ActionContext context, @NotNull String content);
+
+    @Override
+    default CompletableFuture<ActionResult> apply(ActionContext context, String content) {
+        return Results.completed(handle(context, content));
+    }
+}
@@ -0,0 +1,37 @@
+package pers.neige.neigeitems.action.handler;
+
+import org.jetbrains.annotations.NotNull;
+import pers.neige.neigeitems.action.ActionContext;
+import pers.neige.neigeitems.action.ActionResult;
+
+/**
+ * 可预处理参数的同步完成动作处理器.
+ * 动作内容为常量时, 参数仅在动作编译时预处理一次, 执行时直接使用预处理结果.
+ *
+ * @param <T> 预处理结果类型
+ */
+public interface PreparedActionHandler<T> extends ImmediateActionHandler {
+    /**
+     * 预处理动作参数
+     *
+     * @param content 动作内容(已经过节点解析)
+     * @return 预处理结果
+     */
+    T prepare(@NotNull String content);
+
+    /**
+     * 根据预处理结果执行动作
+     *
+     * @param context  动作上下文
+     * @param prepared 预处理结果
+     * @return 执行结果
+     */
+    @NotNull
+    ActionResult handlePrepared(@NotNull ActionContext context, T prepared);
+
+    @Override
+    @NotNull
+    default ActionResult handle(@NotNull ActionContext context, @NotNull String content) {
+        return handlePrepared(context, prepare(content));
+    }
+}
@@ -0,0 +1,8 @@
+package pers.neige.neigeitems.action.handler;
+
+/**
+ * 只能在主线程执行的同步完成动作处理器
+ */
+@FunctionalInterface
+public interface SyncImmediateActionHandler extends SyncActionHandler, ImmediateActionHandler {
+}
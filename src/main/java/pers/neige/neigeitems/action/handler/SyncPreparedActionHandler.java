@@ -0,0 +1,9 @@
+package pers.neige.neigeitems.action.handler;
+
+/**
+ * 只能在主线程执行的可预处理参数动作处理器
+ *
+ * @param <T> 预处理结果类型
+ */
+public interface SyncPreparedActionHandler<T> extends SyncImmediateActionHandler, PreparedActionHandler<T> {
+}
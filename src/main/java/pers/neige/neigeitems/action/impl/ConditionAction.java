@@ -36,6 +36,8 @@ public class ConditionAction extends Action {
         if (!this.actions.isAsyncSafe() && !this.deny.isAsyncSafe()) {
             this.asyncSafe = false;
         }
+        this.asyncPure = condition.isPure() && actions.isAsyncPure() && deny.isAsyncPure()
+                && async.isAsyncPure() && sync.isAsyncPure();
     }
 
     @Override
@@ -28,6 +28,7 @@ public class LabelAction extends Action {
         }
         actions = manager.compile(action.get("actions"));
         this.asyncSafe = actions.isAsyncSafe();
+        this.asyncPure = actions.isAsyncPure();
     }
 
     @Override
@@ -1,5 +1,6 @@
 package pers.neige.neigeitems.action.impl;
 
+import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
 import pers.neige.neigeitems.action.Action;
 import pers.neige.neigeitems.action.ActionContext;
@@ -14,6 +15,14 @@ import java.util.concurrent.CompletableFuture;
 public class ListAction extends Action {
     @NotNull
     private final List<Action> actions;
+    /**
+     * 是否包含可以异步执行的动作
+     */
+    private boolean hasAsyncSafe;
+    /**
+     * 是否包含只能在主线程执行的动作
+     */
+    private boolean hasSyncOnly;
 
     public ListAction(
             @NotNull BaseActionManager manager,
@@ -38,10 +47,41 @@ public class ListAction extends Action {
     }
 
     private void checkAsyncSafe() {
+        boolean syncComplete = true;
+        boolean asyncPure = true;
         for (Action action : actions) {
-            if (action.isAsyncSafe()) return;
+            if (action instanceof ListAction) {
+                hasAsyncSafe |= ((ListAction) action).hasAsyncSafe;
+                hasSyncOnly |= ((ListAction) action).hasSyncOnly;
+            } else if (action.isAsyncSafe()) {
+                hasAsyncSafe = true;
+            } else {
+                hasSyncOnly = true;
+            }
+            syncComplete &= action.isSyncComplete();
+            asyncPure &= action.isAsyncPure();
         }
-        this.asyncSafe = false;
+        this.asyncSafe = hasAsyncSafe;
+        this.syncComplete = syncComplete;
+        this.asyncPure = asyncPure;
+    }
+
+    /**
+     * 所有子动作均同步完成, 且在当前线程下均无需进行线程切换时, 可以同步执行
+     */
+    @Override
+    public boolean canEvalSync(@NotNull ActionContext context) {
+        if (!syncComplete) return false;
+        if (Bukkit.isPrimaryThread()) return !hasAsyncSafe || context.isSync();
+        return !hasSyncOnly && !context.isSync();
+    }
+
+    @Override
+    public @NotNull ActionResult evalSync(
+            @NotNull BaseActionManager manager,
+            @NotNull ActionContext context
+    ) {
+        return manager.runActionSync(this, context);
     }
 
     @Override
@@ -13,6 +13,8 @@ import java.util.concurrent.CompletableFuture;
 public class NullAction extends Action {
     public NullAction(@NotNull BaseActionManager manager) {
         super(manager);
+        this.syncComplete = true;
+        this.asyncPure = true;
     }
 
     @Override
@@ -29,6 +31,14 @@ public class NullAction extends Action {
             @NotNull BaseActionManager manager,
             @NotNull ActionContext context
     ) {
-        return CompletableFuture.completedFuture(Results.SUCCESS);
+        return Results.completed(Results.SUCCESS);
+    }
+
+    @Override
+    public @NotNull ActionResult evalSync(
+            @NotNull BaseActionManager manager,
+            @NotNull ActionContext context
+    ) {
+        return Results.SUCCESS;
     }
 }
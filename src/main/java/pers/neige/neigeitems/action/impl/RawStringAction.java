@@ -6,6 +6,8 @@ import pers.neige.neigeitems.action.Action;
 import pers.neige.neigeitems.action.ActionContext;
 import pers.neige.neigeitems.action.ActionResult;
 import pers.neige.neigeitems.action.ActionType;
+import pers.neige.neigeitems.action.handler.ImmediateActionHandler;
+import pers.neige.neigeitems.action.handler.PreparedActionHandler;
 import pers.neige.neigeitems.action.handler.SyncActionHandler;
 import pers.neige.neigeitems.action.result.Results;
 import pers.neige.neigeitems.manager.BaseActionManager;
@@ -23,6 +25,12 @@ public class RawStringAction extends Action {
     private final String content;
     @Nullable
     private BiFunction<ActionContext, String, CompletableFuture<ActionResult>> handler;
+    /**
+     * 处理器支持预处理时的参数预处理结果
+     */
+    @Nullable
+    private Object prepared;
+    private boolean hasPrepared = false;
 
     public RawStringAction(
             @NotNull BaseActionManager manager,
@@ -55,6 +63,14 @@ public class RawStringAction extends Action {
         if (this.handler != null && this.handler instanceof SyncActionHandler) {
             this.asyncSafe = false;
         }
+        this.syncComplete = this.handler instanceof ImmediateActionHandler && manager.isRawStringActionSyncSupported();
+        // 仅基础动作确定不会修改物品, 未注册的动作将交由物品编辑器处理
+        this.asyncPure = this.asyncSafe && manager.isBasicAction(this.key, this.handler);
+        // 动作内容不经过节点解析, 可以直接预处理动作参数
+        if (this.handler instanceof PreparedActionHandler) {
+            this.prepared = ((PreparedActionHandler<?>) this.handler).prepare(content);
+            this.hasPrepared = true;
+        }
     }
 
     @Override
@@ -83,6 +99,23 @@ public class RawStringAction extends Action {
         }
     }
 
+    @Override
+    public @NotNull ActionResult evalSync(
+            @NotNull BaseActionManager manager,
+            @NotNull ActionContext context
+    ) {
+        try {
+            return manager.runActionSync(this, context);
+        } catch (Throwable throwable) {
+            manager.getPlugin().getLogger().warning("动作执行异常, 动作原始内容如下:");
+            for (String actionLine : action.split("\n")) {
+                manager.getPlugin().getLogger().warning(actionLine);
+            }
+            throwable.printStackTrace();
+            return Results.STOP;
+        }
+    }
+
     @Override
     public @NotNull CompletableFuture<ActionResult> evalAsyncSafe(@NotNull BaseActionManager manager, @NotNull ActionContext context) {
         if (handler == null) {
@@ -107,6 +140,21 @@ public class RawStringAction extends Action {
         return content;
     }
 
+    /**
+     * 是否存在参数预处理结果
+     */
+    public boolean hasPrepared() {
+        return hasPrepared;
+    }
+
+    /**
+     * 获取参数预处理结果
+     */
+    @Nullable
+    public Object getPrepared() {
+        return prepared;
+    }
+
     @Nullable
     public BiFunction<ActionContext, String, CompletableFuture<ActionResult>> getHandler() {
         return handler;
@@ -3,6 +3,7 @@ package pers.neige.neigeitems.action.impl;
 import org.jetbrains.annotations.NotNull;
 import pers.neige.neigeitems.action.Action;
 import pers.neige.neigeitems.action.ActionContext;
+import pers.neige.neigeitems.action.ActionProfiler;
 import pers.neige.neigeitems.action.ActionResult;
 import pers.neige.neigeitems.action.ActionType;
 import pers.neige.neigeitems.action.evaluator.Evaluator;
@@ -15,6 +16,10 @@ public class RepeatAction extends Action {
     private final @NotNull String globalId;
     private final @NotNull Evaluator<Integer> repeat;
     private final @NotNull Action actions;
+    /**
+     * 性能分析中记录循环次数所用的键
+     */
+    private final @NotNull String loopKey;
 
     public RepeatAction(
             @NotNull BaseActionManager manager,
@@ -24,7 +29,9 @@ public class RepeatAction extends Action {
         this.globalId = config.getString("global-id", "i");
         this.repeat = Evaluator.createIntegerEvaluator(manager, config.getString("repeat"));
         this.actions = manager.compile(config.get("actions"));
+        this.loopKey = ActionProfiler.loopKey("repeat", config.getString("repeat"));
         this.asyncSafe = actions.isAsyncSafe();
+        this.asyncPure = actions.isAsyncPure() && repeat.isPure();
     }
 
     @Override
@@ -55,4 +62,8 @@ public class RepeatAction extends Action {
     public @NotNull Action getActions() {
         return actions;
     }
+
+    public @NotNull String getLoopKey() {
+        return loopKey;
+    }
 }
@@ -6,13 +6,17 @@ import pers.neige.neigeitems.action.Action;
 import pers.neige.neigeitems.action.ActionContext;
 import pers.neige.neigeitems.action.ActionResult;
 import pers.neige.neigeitems.action.ActionType;
+import pers.neige.neigeitems.action.handler.ImmediateActionHandler;
+import pers.neige.neigeitems.action.handler.PreparedActionHandler;
 import pers.neige.neigeitems.action.handler.SyncActionHandler;
 import pers.neige.neigeitems.action.result.Results;
 import pers.neige.neigeitems.manager.BaseActionManager;
+import pers.neige.neigeitems.utils.SectionTemplate;
 
 import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class StringAction extends Action {
     @NotNull
@@ -21,8 +25,24 @@ public class StringAction extends Action {
     private final String key;
     @NotNull
     private final String content;
+    /**
+     * 预编译的动作内容
+     */
+    @NotNull
+    private final SectionTemplate template;
+    /**
+     * 动作内容不包含任何节点时的解析结果, 包含节点时为null
+     */
+    @Nullable
+    private final String constantContent;
     @Nullable
     private BiFunction<ActionContext, String, CompletableFuture<ActionResult>> handler;
+    /**
+     * 动作内容为常量且处理器支持预处理时的参数预处理结果
+     */
+    @Nullable
+    private Object prepared;
+    private boolean hasPrepared = false;
 
     public StringAction(
             @NotNull BaseActionManager manager,
@@ -33,6 +53,8 @@ public class StringAction extends Action {
         String[] info = action.split(": ", 2);
         this.key = info[0].toLowerCase(Locale.ROOT);
         this.content = info.length > 1 ? info[1] : "";
+        this.template = SectionTemplate.compile(this.content, '<', '>', '\\');
+        this.constantContent = template.isStatic() ? template.evaluate((Function<String, String>) it -> it) : null;
         this.handler = manager.getActions().get(this.key);
         checkAsyncSafe();
     }
@@ -47,6 +69,8 @@ public class StringAction extends Action {
         this.action = action;
         this.key = key;
         this.content = content;
+        this.template = SectionTemplate.compile(this.content, '<', '>', '\\');
+        this.constantContent = template.isStatic() ? template.evaluate((Function<String, String>) it -> it) : null;
         this.handler = manager.getActions().get(this.key);
         checkAsyncSafe();
     }
@@ -55,6 +79,14 @@ public class StringAction extends Action {
         if (this.handler != null && this.handler instanceof SyncActionHandler) {
             this.asyncSafe = false;
         }
+        this.syncComplete = this.handler instanceof ImmediateActionHandler && manager.isStringActionSyncSupported();
+        // 仅基础动作确定不会修改物品, 未注册的动作将交由物品编辑器处理
+        this.asyncPure = this.asyncSafe && manager.isBasicAction(this.key, this.handler);
+        // 动作内容为常量时, 预处理动作参数
+        if (constantContent != null && this.handler instanceof PreparedActionHandler) {
+            this.prepared = ((PreparedActionHandler<?>) this.handler).prepare(constantContent);
+            this.hasPrepared = true;
+        }
     }
 
     @Override
@@ -83,6 +115,23 @@ public class StringAction extends Action {
         }
     }
 
+    @Override
+    public @NotNull ActionResult evalSync(
+            @NotNull BaseActionManager manager,
+            @NotNull ActionContext context
+    ) {
+        try {
+            return manager.runActionSync(this, context);
+        } catch (Throwable throwable) {
+            manager.getPlugin().getLogger().warning("动作执行异常, 动作原始内容如下:");
+            for (String actionLine : action.split("\n")) {
+                manager.getPlugin().getLogger().warning(actionLine);
+            }
+            throwable.printStackTrace();
+            return Results.STOP;
+        }
+    }
+
     @Override
     public @NotNull CompletableFuture<ActionResult> evalAsyncSafe(@NotNull BaseActionManager manager, @NotNull ActionContext context) {
         if (handler == null) {
@@ -107,6 +156,44 @@ public class StringAction extends Action {
         return content;
     }
 
+    /**
+     * 获取预编译的动作内容
+     */
+    @NotNull
+    public SectionTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * 动作内容是否不包含任何节点
+     */
+    public boolean isConstant() {
+        return constantContent != null;
+    }
+
+    /**
+     * 获取不包含任何节点的动作内容的解析结果, 动作内容包含节点时返回null
+     */
+    @Nullable
+    public String getConstantContent() {
+        return constantContent;
+    }
+
+    /**
+     * 是否存在参数预处理结果
+     */
+    public boolean hasPrepared() {
+        return hasPrepared;
+    }
+
+    /**
+     * 获取参数预处理结果
+     */
+    @Nullable
+    public Object getPrepared() {
+        return prepared;
+    }
+
     @Nullable
     public BiFunction<ActionContext, String, CompletableFuture<ActionResult>> getHandler() {
         return handler;
@@ -10,6 +10,7 @@ import pers.neige.neigeitems.action.ActionResult;
 import pers.neige.neigeitems.action.ActionType;
 import pers.neige.neigeitems.config.ConfigReader;
 import pers.neige.neigeitems.manager.BaseActionManager;
+import pers.neige.neigeitems.utils.SamplingUtils;
 import pers.neige.neigeitems.utils.StringUtils;
 
 import javax.script.Compilable;
@@ -32,6 +33,16 @@ public class WeightAction extends Action {
     private Integer amount = null;
     private double totalWeight = 0;
     private boolean equalWeight = false;
+    /**
+     * 用于单次抽取的别名表
+     */
+    @NotNull
+    private SamplingUtils.AliasTable<Action> aliasTable = SamplingUtils.aliasTable(actions);
+    /**
+     * 用于多次不放回抽取的加权采样器
+     */
+    @NotNull
+    private SamplingUtils.WeightedSampler<Action> sampler = SamplingUtils.sampler(actions);
 
     public WeightAction(
             @NotNull BaseActionManager manager,
@@ -84,6 +95,8 @@ public class WeightAction extends Action {
             total += weight;
         }
         this.totalWeight = total;
+        this.aliasTable = SamplingUtils.aliasTable(this.actions);
+        this.sampler = SamplingUtils.sampler(this.actions);
         if (!this.actions.isEmpty()) {
             this.equalWeight = this.actions.stream().allMatch((current) -> Objects.equals(current.getSecond(), this.actions.get(0).getSecond()));
         } else {
@@ -123,6 +136,16 @@ public class WeightAction extends Action {
         return equalWeight;
     }
 
+    @NotNull
+    public SamplingUtils.AliasTable<Action> getAliasTable() {
+        return aliasTable;
+    }
+
+    @NotNull
+    public SamplingUtils.WeightedSampler<Action> getSampler() {
+        return sampler;
+    }
+
     public int getAmount(@NotNull BaseActionManager manager, @NotNull ActionContext context) {
         if (this.amount != null) return this.amount;
         if (this.amountScript == null) {
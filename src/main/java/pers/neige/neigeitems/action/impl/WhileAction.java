@@ -14,6 +14,11 @@ public class WhileAction extends Action {
     private final Action actions;
     @NotNull
     private final Action _finally;
+    /**
+     * 性能分析中记录循环次数所用的键
+     */
+    @NotNull
+    private final String loopKey;
 
     public WhileAction(
             @NotNull BaseActionManager manager,
@@ -23,6 +28,7 @@ public class WhileAction extends Action {
         condition = new Condition(manager, action.getString("while"));
         actions = manager.compile(action.get("actions"));
         _finally = manager.compile(action.get("finally"));
+        loopKey = ActionProfiler.loopKey("while", action.getString("while"));
         checkAsyncSafe();
     }
 
@@ -30,6 +36,7 @@ public class WhileAction extends Action {
         if (!this.actions.isAsyncSafe() && !this._finally.isAsyncSafe()) {
             this.asyncSafe = false;
         }
+        this.asyncPure = condition.isPure() && actions.isAsyncPure() && _finally.isAsyncPure();
     }
 
     @Override
@@ -63,4 +70,9 @@ public class WhileAction extends Action {
     public Action getFinally() {
         return _finally;
     }
+
+    @NotNull
+    public String getLoopKey() {
+        return loopKey;
+    }
 }
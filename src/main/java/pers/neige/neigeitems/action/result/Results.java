@@ -1,12 +1,37 @@
 package pers.neige.neigeitems.action.result;
 
+import org.jetbrains.annotations.NotNull;
 import pers.neige.neigeitems.action.ActionResult;
 
+import java.util.concurrent.CompletableFuture;
+
 public class Results {
     public static final ActionResult SUCCESS = new SuccessResult();
     public static final ActionResult STOP = new StopResult();
 
+    /**
+     * 已完成的 SUCCESS 结果, 共享实例, 请勿调用 obtrudeValue 等方法修改其结果
+     */
+    private static final CompletableFuture<ActionResult> SUCCESS_FUTURE = CompletableFuture.completedFuture(SUCCESS);
+    /**
+     * 已完成的 STOP 结果, 共享实例, 请勿调用 obtrudeValue 等方法修改其结果
+     */
+    private static final CompletableFuture<ActionResult> STOP_FUTURE = CompletableFuture.completedFuture(STOP);
+
     public static ActionResult fromBoolean(boolean result) {
         return result ? Results.SUCCESS : Results.STOP;
     }
+
+    /**
+     * 将执行结果包装为已完成的 CompletableFuture, SUCCESS 及 STOP 将复用共享实例
+     *
+     * @param result 执行结果
+     * @return 已完成的 CompletableFuture
+     */
+    @NotNull
+    public static CompletableFuture<ActionResult> completed(@NotNull ActionResult result) {
+        if (result == SUCCESS) return SUCCESS_FUTURE;
+        if (result == STOP) return STOP_FUTURE;
+        return CompletableFuture.completedFuture(result);
+    }
 }
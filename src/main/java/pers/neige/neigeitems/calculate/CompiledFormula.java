@@ -0,0 +1,296 @@
+package pers.neige.neigeitems.calculate;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * 预编译公式.
+ * 公式在编译时转换为由操作码(byte[])及常量(double[])组成的后缀表达式程序, 计算时仅遍历程序, 不产生任何装箱对象.
+ * 公式中可包含变量槽, 变量槽对应编译时尚未解析的节点, 计算时代入节点解析结果.
+ */
+public final class CompiledFormula {
+    static final byte PUSH = 0;
+    static final byte LOAD = 1;
+    static final byte PLUS = 2;
+    static final byte MINUS = 3;
+    static final byte MULTIPLY = 4;
+    static final byte DIVIDE = 5;
+    static final byte REMAIN = 6;
+    static final byte POWER = 7;
+    /**
+     * 未闭合的左括号, 与 FormulaParser 的原有行为保持一致: 弹出两个操作数并压入0
+     */
+    static final byte ZERO = 8;
+    /**
+     * 取负(仅用于按脚本语义编译的公式)
+     */
+    static final byte NEGATE = 9;
+
+    /**
+     * 计算栈缓存, 计算过程不存在重入, 可以安全复用
+     */
+    private static final @NotNull ThreadLocal<double[]> STACK = ThreadLocal.withInitial(() -> new double[16]);
+
+    /**
+     * 公式原文
+     */
+    private final @NotNull String formula;
+    /**
+     * 操作码, 为null代表公式无效
+     */
+    private final byte @Nullable [] opcodes;
+    /**
+     * 常量, 按PUSH出现顺序排列
+     */
+    private final double @NotNull [] constants;
+    /**
+     * 变量槽之间的普通文本, 长度为变量槽数量+1
+     */
+    private final @NotNull String[] texts;
+    /**
+     * 变量槽对应的节点原文
+     */
+    private final @NotNull String[] slots;
+    /**
+     * 是否按脚本(JavaScript)语义编译
+     */
+    private final boolean script;
+    /**
+     * 计算所需的最大栈深度
+     */
+    private final int maxDepth;
+
+    CompiledFormula(
+            @NotNull String formula,
+            byte @Nullable [] opcodes,
+            double @NotNull [] constants,
+            @NotNull String[] texts,
+            @NotNull String[] slots,
+            boolean script
+    ) {
+        this.formula = formula;
+        this.opcodes = opcodes;
+        this.constants = constants;
+        this.texts = texts;
+        this.slots = slots;
+        this.script = script;
+        this.maxDepth = opcodes == null ? 0 : maxDepth(opcodes);
+    }
+
+    /**
+     * 构建无效公式, 计算时发送公式错误提示并返回0
+     */
+    static @NotNull CompiledFormula invalid(@NotNull String formula) {
+        return new CompiledFormula(formula, null, new double[0], new String[]{formula}, new String[0], false);
+    }
+
+    /**
+     * 根据操作码及常量构建预编译公式
+     */
+    static @NotNull CompiledFormula of(
+            @NotNull String formula,
+            @NotNull List<Byte> opcodes,
+            @NotNull List<Double> constants,
+            @NotNull List<String> texts,
+            @NotNull List<String> slots,
+            boolean script
+    ) {
+        byte[] opcodeArray = new byte[opcodes.size()];
+        for (int index = 0; index < opcodeArray.length; index++) {
+            opcodeArray[index] = opcodes.get(index);
+        }
+        double[] constantArray = new double[constants.size()];
+        for (int index = 0; index < constantArray.length; index++) {
+            constantArray[index] = constants.get(index);
+        }
+        return new CompiledFormula(
+                formula,
+                opcodeArray,
+                constantArray,
+                texts.toArray(new String[0]),
+                slots.toArray(new String[0]),
+                script
+        );
+    }
+
+    private static int maxDepth(byte @NotNull [] opcodes) {
+        int depth = 0;
+        int maxDepth = 0;
+        for (byte opcode : opcodes) {
+            if (opcode == PUSH || opcode == LOAD) {
+                depth++;
+            } else if (opcode == NEGATE) {
+                depth = Math.max(depth, 1);
+            } else {
+                depth = Math.max(depth - 2, 0) + 1;
+            }
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        return maxDepth;
+    }
+
+    /**
+     * 获取公式原文
+     */
+    public @NotNull String getFormula() {
+        return formula;
+    }
+
+    /**
+     * 公式是否有效, 无效公式计算时将发送公式错误提示并返回0
+     */
+    public boolean isValid() {
+        return opcodes != null && opcodes.length != 0;
+    }
+
+    /**
+     * 获取变量槽数量
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * 获取变量槽对应的节点原文
+     *
+     * @param index 变量槽索引
+     * @return 节点原文
+     */
+    public @NotNull String getSlot(int index) {
+        return slots[index];
+    }
+
+    /**
+     * 计算不含变量槽的公式
+     *
+     * @return 计算结果
+     */
+    public double evaluate() {
+        if (!isValid()) {
+            FormulaParser.invalidFormula(formula);
+            return 0.0;
+        }
+        double[] stack = stack(maxDepth);
+        return run(stack, 0);
+    }
+
+    /**
+     * 代入变量槽取值计算公式.
+     * 存在无法作为单个数字参与运算的取值时, 将取值代入公式原文, 按原有方式计算.
+     *
+     * @param values 各变量槽取值
+     * @return 计算结果
+     */
+    public double evaluate(@NotNull String[] values) {
+        if (!isValid()) {
+            return fallback(values);
+        }
+        int slotCount = slots.length;
+        double[] stack = stack(slotCount + maxDepth);
+        for (int index = 0; index < slotCount; index++) {
+            String value = values[index];
+            if (script ? !FormulaParser.isScriptOperand(value) : !FormulaParser.isOperand(value)) {
+                return fallback(values);
+            }
+            try {
+                stack[index] = Double.parseDouble(value);
+            } catch (NumberFormatException error) {
+                return fallback(values);
+            }
+        }
+        return run(stack, slotCount);
+    }
+
+    /**
+     * 将变量槽取值代入公式原文后计算
+     */
+    private double fallback(@NotNull String[] values) {
+        String filled = fill(values);
+        return script ? FormulaParser.calculateScript(filled) : FormulaParser.calculate(filled);
+    }
+
+    /**
+     * 将变量槽取值代入公式原文
+     */
+    private @NotNull String fill(@NotNull String[] values) {
+        StringBuilder builder = new StringBuilder(texts[0]);
+        for (int index = 0; index < slots.length; index++) {
+            builder.append(values[index]).append(texts[index + 1]);
+        }
+        return builder.toString();
+    }
+
+    private static double @NotNull [] stack(int size) {
+        double[] stack = STACK.get();
+        if (stack.length < size) {
+            stack = new double[Math.max(size, stack.length * 2)];
+            STACK.set(stack);
+        }
+        return stack;
+    }
+
+    /**
+     * 执行后缀表达式程序
+     *
+     * @param stack 计算栈, 前base位存放变量槽取值
+     * @param base  栈底位置
+     * @return 计算结果
+     */
+    private double run(double @NotNull [] stack, int base) {
+        byte[] opcodes = this.opcodes;
+        double[] constants = this.constants;
+        int sp = base;
+        int constantIndex = 0;
+        int slotIndex = 0;
+        for (byte opcode : opcodes) {
+            switch (opcode) {
+                case PUSH:
+                    stack[sp++] = constants[constantIndex++];
+                    continue;
+                case LOAD:
+                    stack[sp++] = stack[slotIndex++];
+                    continue;
+                case NEGATE:
+                    if (sp == base) {
+                        stack[sp++] = -0.0;
+                    } else {
+                        stack[sp - 1] = -stack[sp - 1];
+                    }
+                    continue;
+                default:
+                    break;
+            }
+            // 操作数不足时以0补齐, 与 FormulaParser 的原有行为保持一致
+            double a = sp == base ? 0.0 : stack[--sp];
+            double b = sp == base ? 0.0 : stack[--sp];
+            double result;
+            switch (opcode) {
+                case PLUS:
+                    result = a + b;
+                    break;
+                case MINUS:
+                    result = b - a;
+                    break;
+                case MULTIPLY:
+                    result = a * b;
+                    break;
+                case DIVIDE:
+                    result = b / a;
+                    break;
+                case REMAIN:
+                    result = b % a;
+                    break;
+                case POWER:
+                    result = Math.pow(b, a);
+                    break;
+                default:
+                    result = 0.0;
+                    break;
+            }
+            stack[sp++] = result;
+        }
+        return stack[sp - 1];
+    }
+}
@@ -2,13 +2,34 @@ package pers.neige.neigeitems.calculate;
 
 import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import pers.neige.neigeitems.utils.LangUtils;
+import pers.neige.neigeitems.utils.ScriptUtils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import static pers.neige.neigeitems.calculate.CalcOperator.*;
 
 public class FormulaParser {
+    /**
+     * 预编译公式缓存上限, 超出后清空重建
+     */
+    private static final int FORMULA_CACHE_SIZE = 8192;
+    /**
+     * 包含节点的预编译公式缓存, 以节点解析前的公式原文(即配置中的公式)为键, 节点解析结果在计算时代入变量槽
+     */
+    private static final ConcurrentHashMap<String, CompiledFormula> templates = new ConcurrentHashMap<>();
+    /**
+     * 按脚本语义预编译的包含节点的公式缓存, 以节点解析前的公式原文为键
+     */
+    private static final ConcurrentHashMap<String, CompiledFormula> scriptTemplates = new ConcurrentHashMap<>();
+    /**
+     * 代表公式无法预编译
+     */
+    private static final CompiledFormula UNSUPPORTED = CompiledFormula.invalid("");
+
     @NotNull
     private static ArrayList<Object> toCalcInfix(@NotNull String formula) {
         //将数字与运算符分开，按中缀表达式顺序排列在List中
@@ -93,8 +114,8 @@ public class FormulaParser {
         Stack<CalcOperator> operators = new Stack<>();
         // 遍历中缀表达式
         for (Object it : infix) {
-            // 如果是数字, 存入后缀表达式
-            if (it instanceof Double) {
+            // 如果是数字或变量槽, 存入后缀表达式
+            if (!(it instanceof CalcOperator)) {
                 suffix.offerLast(it);
                 continue;
             }
@@ -138,14 +159,275 @@ public class FormulaParser {
     }
 
     public static double calculate(@NotNull String formula) {
+        return compile(formula).evaluate();
+    }
+
+    /**
+     * 发送公式错误提示
+     *
+     * @param formula 公式文本
+     */
+    static void invalidFormula(@NotNull String formula) {
+        Map<String, String> params = new HashMap<>();
+        params.put("{formula}", formula);
+        LangUtils.sendLang(Bukkit.getConsoleSender(), "Messages.invalidFormula", params);
+    }
+
+    /**
+     * 编译公式, 计算结果与 calculate 的原有实现一致, 无效公式计算时发送公式错误提示并返回0.
+     * 编译结果不进行缓存, 重复计算同一公式时应持有编译结果; 公式来自节点解析结果时应使用 compileTemplate 编译解析前的公式.
+     *
+     * @param formula 公式文本
+     * @return 预编译公式
+     */
+    @NotNull
+    public static CompiledFormula compile(@NotNull String formula) {
         try {
-            return calc(toCalcSuffix(toCalcInfix(formula)));
+            return toProgram(formula, toCalcSuffix(toCalcInfix(formula)), Collections.singletonList(formula), Collections.emptyList());
         } catch (Throwable throwable) {
-            Map<String, String> params = new HashMap<>();
-            params.put("{formula}", formula);
-            LangUtils.sendLang(Bukkit.getConsoleSender(), "Messages.invalidFormula", params);
-            return 0.0;
+            return CompiledFormula.invalid(formula);
+        }
+    }
+
+    /**
+     * 编译包含节点的公式, 每个顶层节点编译为一个变量槽, 同一公式仅编译一次.
+     * 节点与其他文本相连(解析结果会与相邻文本拼接为同一个数字)或公式中存在转义符时无法编译, 返回null.
+     *
+     * @param formula 节点解析前的公式文本
+     * @return 预编译公式
+     */
+    @Nullable
+    public static CompiledFormula compileTemplate(@NotNull String formula) {
+        return cached(templates, formula, () -> {
+            if (formula.indexOf('\\') != -1) return null;
+            try {
+                return toTemplateProgram(formula);
+            } catch (Throwable throwable) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 从缓存中获取预编译公式, 不存在时编译并存入缓存
+     *
+     * @param cache    公式缓存
+     * @param formula  节点解析前的公式文本
+     * @param compiler 公式编译方式, 无法编译时返回null
+     * @return 预编译公式, 无法编译时返回null
+     */
+    @Nullable
+    private static CompiledFormula cached(
+            @NotNull ConcurrentHashMap<String, CompiledFormula> cache,
+            @NotNull String formula,
+            @NotNull Supplier<CompiledFormula> compiler
+    ) {
+        CompiledFormula compiled = cache.get(formula);
+        if (compiled == null) {
+            compiled = compiler.get();
+            if (compiled == null) compiled = UNSUPPORTED;
+            // 缓存键均为配置中的公式原文, 仅在通过API传入大量不同公式时触发清空
+            if (cache.size() >= FORMULA_CACHE_SIZE) {
+                cache.clear();
+            }
+            cache.put(formula, compiled);
+        }
+        return compiled == UNSUPPORTED ? null : compiled;
+    }
+
+    @Nullable
+    private static CompiledFormula toTemplateProgram(@NotNull String formula) {
+        ArrayList<Object> infix = new ArrayList<>();
+        ArrayList<String> texts = new ArrayList<>();
+        ArrayList<String> slots = new ArrayList<>();
+        StringBuilder num = new StringBuilder();
+        int textStart = 0;
+        int length = formula.length();
+        int index = 0;
+        while (index < length) {
+            char c = formula.charAt(index);
+            if (c == '<') {
+                int end = sectionEnd(formula, index);
+                if (end == -1) return null;
+                // 节点前方必须为公式起始或除右括号外的运算符, 后方必须为公式结尾或运算符
+                if (num.length() != 0) return null;
+                if (index != 0 && !isCalcOperatorExceptRightBracket(formula.charAt(index - 1))) return null;
+                if (end + 1 != length && !isCalcOperator(formula.charAt(end + 1))) return null;
+                infix.add(new Slot());
+                texts.add(formula.substring(textStart, index));
+                slots.add(formula.substring(index, end + 1));
+                textStart = end + 1;
+                index = end + 1;
+                continue;
+            }
+            index++;
+            if (!isCalcOperator(c)) {
+                if (c != ' ') {
+                    num.append(c);
+                }
+                continue;
+            }
+            if (c == '+' || c == '-') {
+                if (index == 1 || isCalcOperatorExceptRightBracket(formula.charAt(index - 2))) {
+                    num.append(c);
+                    continue;
+                }
+            }
+            if (num.length() != 0) {
+                infix.add(Double.parseDouble(num.toString()));
+            }
+            num.setLength(0);
+            infix.add(toCalcOperator(c));
+        }
+        if (num.length() != 0) {
+            infix.add(Double.parseDouble(num.toString()));
+        }
+        texts.add(formula.substring(textStart));
+        return toProgram(formula, toCalcSuffix(infix), texts, slots);
+    }
+
+    /**
+     * 获取节点终止标识位置
+     *
+     * @param formula 公式文本
+     * @param start   节点起始标识位置
+     * @return 节点终止标识位置, 节点未闭合时返回-1
+     */
+    private static int sectionEnd(@NotNull String formula, int start) {
+        int depth = 0;
+        for (int index = start; index < formula.length(); index++) {
+            char c = formula.charAt(index);
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                if (--depth == 0) return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 节点解析结果能否作为单个数字代入公式(仅允许首位出现正负号, 不允许出现其他运算符及空格)
+     *
+     * @param value 节点解析结果
+     * @return 能否代入
+     */
+    static boolean isOperand(@Nullable String value) {
+        if (value == null || value.isEmpty()) return false;
+        for (int index = 0; index < value.length(); index++) {
+            char c = value.charAt(index);
+            if (c == ' ') return false;
+            if (isCalcOperator(c) && !(index == 0 && (c == '+' || c == '-'))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 节点解析结果能否作为单个数字代入按脚本语义编译的公式(仅允许无符号的十进制数字, 不允许存在前导0的整数)
+     *
+     * @param value 节点解析结果
+     * @return 能否代入
+     */
+    static boolean isScriptOperand(@Nullable String value) {
+        if (value == null) return false;
+        int length = value.length();
+        int index = 0;
+        int integerDigits = 0;
+        while (index < length && ScriptCompiler.isDigit(value.charAt(index))) {
+            index++;
+            integerDigits++;
+        }
+        if (integerDigits > 1 && value.charAt(0) == '0') return false;
+        int fractionDigits = 0;
+        if (index < length && value.charAt(index) == '.') {
+            index++;
+            while (index < length && ScriptCompiler.isDigit(value.charAt(index))) {
+                index++;
+                fractionDigits++;
+            }
+        }
+        return index == length && (integerDigits != 0 || fractionDigits != 0);
+    }
+
+    @NotNull
+    private static CompiledFormula toProgram(
+            @NotNull String formula,
+            @NotNull Queue<Object> suffix,
+            @NotNull List<String> texts,
+            @NotNull List<String> slots
+    ) {
+        ArrayList<Byte> opcodes = new ArrayList<>(suffix.size());
+        ArrayList<Double> constants = new ArrayList<>();
+        for (Object it : suffix) {
+            if (it instanceof Double) {
+                opcodes.add(CompiledFormula.PUSH);
+                constants.add((Double) it);
+            } else if (it instanceof Slot) {
+                opcodes.add(CompiledFormula.LOAD);
+            } else {
+                opcodes.add(toOpcode((CalcOperator) it));
+            }
         }
+        return CompiledFormula.of(formula, opcodes, constants, texts, slots, false);
+    }
+
+    private static byte toOpcode(@NotNull CalcOperator calcOperator) {
+        switch (calcOperator) {
+            case PLUS:
+                return CompiledFormula.PLUS;
+            case MINUS:
+                return CompiledFormula.MINUS;
+            case MULTIPLY:
+                return CompiledFormula.MULTIPLY;
+            case DIVIDE:
+                return CompiledFormula.DIVIDE;
+            case REMAIN:
+                return CompiledFormula.REMAIN;
+            case POWER:
+                return CompiledFormula.POWER;
+            default:
+                return CompiledFormula.ZERO;
+        }
+    }
+
+    /**
+     * 按照脚本(JavaScript)的算术表达式语义编译公式.
+     * 仅支持由数字, 空格, 括号, 正负号及 + - * / % 组成的合法表达式, 其余情况返回null, 应交由脚本引擎处理.
+     * 编译结果不进行缓存, 公式来自节点解析结果时应使用 compileScriptTemplate 编译解析前的公式.
+     *
+     * @param formula 公式文本
+     * @return 预编译公式
+     */
+    @Nullable
+    public static CompiledFormula compileScript(@NotNull String formula) {
+        return new ScriptCompiler(formula, false).compile();
+    }
+
+    /**
+     * 按照脚本(JavaScript)的算术表达式语义编译包含节点的公式, 每个顶层节点编译为一个变量槽, 同一公式仅编译一次.
+     * 节点解析结果不是无符号十进制数字时, 代入公式原文后按 calculateScript 计算.
+     * 节点与其他文本相连, 公式中存在转义符或公式不受支持时返回null.
+     *
+     * @param formula 节点解析前的公式文本
+     * @return 预编译公式
+     */
+    @Nullable
+    public static CompiledFormula compileScriptTemplate(@NotNull String formula) {
+        return cached(scriptTemplates, formula, () -> {
+            if (formula.indexOf('\\') != -1) return null;
+            return new ScriptCompiler(formula, true).compile();
+        });
+    }
+
+    /**
+     * 按照脚本(JavaScript)的算术表达式语义计算公式, 无法编译时交由脚本引擎计算
+     *
+     * @param formula 公式文本
+     * @return 计算结果
+     */
+    public static double calculateScript(@NotNull String formula) {
+        CompiledFormula compiled = compileScript(formula);
+        return compiled != null ? compiled.evaluate() : ScriptUtils.calculate(formula);
     }
 
     public static double calculate(@NotNull String formula, @NotNull Map<String, Double> args) {
@@ -158,4 +440,183 @@ public class FormulaParser {
             return 0.0;
         }
     }
+
+    /**
+     * 变量槽
+     */
+    private static final class Slot {
+    }
+
+    /**
+     * 按脚本语义编译公式的递归下降解析器
+     */
+    private static final class ScriptCompiler {
+        private final @NotNull String formula;
+        private final @NotNull ArrayList<Byte> opcodes = new ArrayList<>();
+        private final @NotNull ArrayList<Double> constants = new ArrayList<>();
+        private final @NotNull ArrayList<String> texts = new ArrayList<>();
+        /**
+         * 变量槽对应的节点原文, 为null代表不将节点编译为变量槽
+         */
+        private final @Nullable ArrayList<String> slots;
+        private int index = 0;
+        private int textStart = 0;
+
+        private ScriptCompiler(@NotNull String formula, boolean template) {
+            this.formula = formula;
+            this.slots = template ? new ArrayList<>() : null;
+        }
+
+        @Nullable
+        private CompiledFormula compile() {
+            if (!expression()) return null;
+            skipSpaces();
+            if (index != formula.length()) return null;
+            texts.add(formula.substring(textStart));
+            return CompiledFormula.of(formula, opcodes, constants, texts, slots == null ? Collections.emptyList() : slots, true);
+        }
+
+        private void skipSpaces() {
+            while (index < formula.length() && formula.charAt(index) == ' ') {
+                index++;
+            }
+        }
+
+        private int peek() {
+            skipSpaces();
+            return index < formula.length() ? formula.charAt(index) : -1;
+        }
+
+        /**
+         * expression := term (('+' | '-') term)*
+         */
+        private boolean expression() {
+            if (!term()) return false;
+            while (true) {
+                int c = peek();
+                if (c != '+' && c != '-') return true;
+                index++;
+                // 避免出现 ++ 或 -- 运算符
+                if (index < formula.length() && formula.charAt(index) == c) return false;
+                if (!term()) return false;
+                opcodes.add(c == '+' ? CompiledFormula.PLUS : CompiledFormula.MINUS);
+            }
+        }
+
+        /**
+         * term := unary (('*' | '/' | '%') unary)*
+         */
+        private boolean term() {
+            if (!unary()) return false;
+            while (true) {
+                int c = peek();
+                byte opcode;
+                if (c == '*') {
+                    opcode = CompiledFormula.MULTIPLY;
+                } else if (c == '/') {
+                    opcode = CompiledFormula.DIVIDE;
+                } else if (c == '%') {
+                    opcode = CompiledFormula.REMAIN;
+                } else {
+                    return true;
+                }
+                index++;
+                // 避免出现 ** 运算符及注释
+                if (index < formula.length()) {
+                    char next = formula.charAt(index);
+                    if (next == '*' || next == '/') return false;
+                }
+                if (!unary()) return false;
+                opcodes.add(opcode);
+            }
+        }
+
+        /**
+         * unary := ('+' | '-') unary | primary
+         */
+        private boolean unary() {
+            int c = peek();
+            if (c == '+' || c == '-') {
+                index++;
+                if (index < formula.length() && formula.charAt(index) == c) return false;
+                if (!unary()) return false;
+                // 一元加号不改变数值
+                if (c == '-') opcodes.add(CompiledFormula.NEGATE);
+                return true;
+            }
+            return primary();
+        }
+
+        /**
+         * primary := number | slot | '(' expression ')'
+         */
+        private boolean primary() {
+            int c = peek();
+            if (c == '(') {
+                index++;
+                if (!expression()) return false;
+                if (peek() != ')') return false;
+                index++;
+                return true;
+            }
+            if (c == '<' && slots != null) {
+                return slot();
+            }
+            return number();
+        }
+
+        /**
+         * slot := '<' ... '>', 计算时代入节点解析结果
+         */
+        private boolean slot() {
+            int end = sectionEnd(formula, index);
+            if (end == -1) return false;
+            texts.add(formula.substring(textStart, index));
+            slots.add(formula.substring(index, end + 1));
+            index = end + 1;
+            textStart = index;
+            // 节点后紧跟字母, 数字或小数点时, 解析结果将与其拼接
+            if (index < formula.length()) {
+                char next = formula.charAt(index);
+                if (Character.isLetterOrDigit(next) || next == '.' || next == '_' || next == '$') return false;
+            }
+            opcodes.add(CompiledFormula.LOAD);
+            return true;
+        }
+
+        /**
+         * number := digits ('.' digits?)? | '.' digits, 不支持存在前导0的整数(脚本中可能视作八进制)
+         */
+        private boolean number() {
+            int start = index;
+            int length = formula.length();
+            int integerDigits = 0;
+            while (index < length && isDigit(formula.charAt(index))) {
+                index++;
+                integerDigits++;
+            }
+            if (integerDigits > 1 && formula.charAt(start) == '0') return false;
+            int fractionDigits = 0;
+            if (index < length && formula.charAt(index) == '.') {
+                index++;
+                while (index < length && isDigit(formula.charAt(index))) {
+                    index++;
+                    fractionDigits++;
+                }
+            }
+            if (integerDigits == 0 && fractionDigits == 0) return false;
+            // 数字后紧跟字母, 数字或小数点时, 脚本语义与此处不一致
+            if (index < length) {
+                char next = formula.charAt(index);
+                if (Character.isLetterOrDigit(next) || next == '.' || next == '_' || next == '$') return false;
+            }
+            opcodes.add(CompiledFormula.PUSH);
+            constants.add(Double.parseDouble(formula.substring(start, index)));
+            return true;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
 }
@@ -0,0 +1,409 @@
+package pers.neige.neigeitems.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 配置模板, 加载时将yml文本预编译为模板树.
+ * 不包含节点调用的叶子保持原值, 仅包含节点调用的文本在每次求值时进行解析.
+ * 求值结果与 "对yml文本进行节点解析后再通过 Yaml 加载" 一致, 但不存在序列化与反序列化开销.
+ * 节点解析结果会改变yml结构(如包含 ": ", 换行, 引号等)时, 回退为对yml文本进行节点解析后重新加载.
+ */
+public class ConfigTemplate {
+    private static final @NotNull ThreadLocal<Yaml> YAML = ThreadLocal.withInitial(Yaml::new);
+    private static final @NotNull Resolver RESOLVER = new Resolver();
+    /**
+     * 代表节点解析结果无法直接代入, 需回退为重新加载yml文本
+     */
+    private static final @NotNull RuntimeException FALLBACK = new RuntimeException("fallback", null, false, false) {
+    };
+
+    /**
+     * yml文本
+     */
+    private final @NotNull String source;
+    private final @NotNull MapNode root;
+    /**
+     * 存在无法按模板求值的文本(折行位于节点内部, 双引号转义等), 每次均需重新加载yml文本
+     */
+    private final boolean reparse;
+
+    private ConfigTemplate(@NotNull String source, @NotNull MapNode root, boolean reparse) {
+        this.source = source;
+        this.root = root;
+        this.reparse = reparse;
+    }
+
+    /**
+     * 将yml文本编译为配置模板.
+     * yml文本应为 YamlConfiguration.saveToString 的结果, 各文本的引号形式及折行位置均以该文本为准.
+     *
+     * @param config yml文本
+     * @return 配置模板
+     */
+    public static @NotNull ConfigTemplate compile(@NotNull String config) {
+        Yaml yaml = YAML.get();
+        Object value = yaml.load(config);
+        if (value instanceof Map<?, ?>) {
+            Compiler compiler = new Compiler(config, yaml.compose(new StringReader(config)));
+            MapNode root = (MapNode) compiler.compileNode(value, compiler.root);
+            return new ConfigTemplate(config, root, compiler.reparse);
+        }
+        return new ConfigTemplate(config, new MapNode(new Node[0], new Node[0]), false);
+    }
+
+    /**
+     * 模板中是否不存在任何节点调用
+     */
+    public boolean isStatic() {
+        return root.isStatic();
+    }
+
+    /**
+     * 对模板进行求值
+     *
+     * @param transform 文本节点解析函数
+     * @return 求值结果
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull Map<String, Object> evaluate(@NotNull Function<String, String> transform) {
+        if (!reparse) {
+            try {
+                return (Map<String, Object>) root.evaluate(transform);
+            } catch (RuntimeException error) {
+                if (error != FALLBACK) throw error;
+            }
+        }
+        Object value = YAML.get().load(transform.apply(source));
+        return value instanceof Map<?, ?> ? (Map<String, Object>) value : new LinkedHashMap<>();
+    }
+
+    /**
+     * 文本中存在节点起始标识或转义符时, 节点解析可能改变其内容
+     */
+    private static boolean isDynamic(@NotNull String text) {
+        return text.indexOf('<') != -1 || text.indexOf('\\') != -1;
+    }
+
+    /**
+     * 模拟yml对无引号文本的类型推断
+     */
+    private static @Nullable Object resolvePlain(@NotNull String value) {
+        String text = value.trim();
+        if (text.isEmpty()) return null;
+        // 解析结果会破坏yml结构的情况下, 回退为重新加载yml文本
+        if (!isPlainSafe(text)) throw FALLBACK;
+        Tag tag = RESOLVER.resolve(NodeId.scalar, text, true);
+        if (Tag.STR.equals(tag)) {
+            return text;
+        } else if (Tag.INT.equals(tag) && isDecimal(text)) {
+            try {
+                return Integer.valueOf(text);
+            } catch (NumberFormatException ignored) {
+            }
+            try {
+                return Long.valueOf(text);
+            } catch (NumberFormatException ignored) {
+            }
+            return new BigInteger(text);
+        } else if (Tag.FLOAT.equals(tag) && isSimpleFloat(text)) {
+            return Double.valueOf(text);
+        }
+        // 布尔值, 八进制, 十六进制等少见情况交由 Yaml 处理
+        return YAML.get().load(text);
+    }
+
+    private static boolean isPlainSafe(@NotNull String text) {
+        char first = text.charAt(0);
+        if (first == '-' || first == '?' || first == ':') {
+            if (text.length() == 1 || Character.isWhitespace(text.charAt(1))) return false;
+        } else if (",[]{}#&*!|>'\"%@`".indexOf(first) != -1) {
+            return false;
+        }
+        if (text.endsWith(":")) return false;
+        for (int index = 0; index < text.length(); index++) {
+            char c = text.charAt(index);
+            if (c == '\n' || c == '\r') return false;
+            if (c == ':' && index + 1 < text.length() && Character.isWhitespace(text.charAt(index + 1))) return false;
+            if (c == '#' && Character.isWhitespace(text.charAt(index - 1))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDecimal(@NotNull String text) {
+        int start = text.charAt(0) == '-' ? 1 : 0;
+        if (start == text.length()) return false;
+        if (text.charAt(start) == '0') return text.length() == start + 1;
+        for (int index = start; index < text.length(); index++) {
+            char c = text.charAt(index);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static boolean isSimpleFloat(@NotNull String text) {
+        int start = text.charAt(0) == '-' ? 1 : 0;
+        boolean dot = false;
+        boolean digit = false;
+        for (int index = start; index < text.length(); index++) {
+            char c = text.charAt(index);
+            if (c == '.') {
+                if (dot) return false;
+                dot = true;
+            } else if (c >= '0' && c <= '9') {
+                digit = true;
+            } else {
+                return false;
+            }
+        }
+        return dot && digit;
+    }
+
+    private interface Node {
+        boolean isStatic();
+
+        @Nullable Object evaluate(@NotNull Function<String, String> transform);
+    }
+
+    private static class StaticNode implements Node {
+        private final @Nullable Object value;
+
+        private StaticNode(@Nullable Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean isStatic() {
+            return true;
+        }
+
+        @Override
+        public @Nullable Object evaluate(@NotNull Function<String, String> transform) {
+            return value;
+        }
+    }
+
+    private static class TextNode implements Node {
+        private final @NotNull String text;
+        /**
+         * 文本在yml中是否以单引号形式存在, 以引号形式存在的文本在重新加载时必然为字符串
+         */
+        private final boolean quoted;
+
+        private TextNode(@NotNull String text, boolean quoted) {
+            this.text = text;
+            this.quoted = quoted;
+        }
+
+        @Override
+        public boolean isStatic() {
+            return false;
+        }
+
+        @Override
+        public @Nullable Object evaluate(@NotNull Function<String, String> transform) {
+            String result = transform.apply(text);
+            if (!quoted) return resolvePlain(result);
+            // 解析结果中的单引号及换行会改变单引号文本的内容
+            if (result.indexOf('\'') != -1 || result.indexOf('\n') != -1 || result.indexOf('\r') != -1) throw FALLBACK;
+            return result;
+        }
+    }
+
+    private static class MapNode implements Node {
+        private final @NotNull Node[] keys;
+        private final @NotNull Node[] values;
+        private final boolean isStatic;
+
+        private MapNode(@NotNull Node[] keys, @NotNull Node[] values) {
+            this.keys = keys;
+            this.values = values;
+            boolean isStatic = true;
+            for (int index = 0; index < keys.length; index++) {
+                if (!keys[index].isStatic() || !values[index].isStatic()) {
+                    isStatic = false;
+                    break;
+                }
+            }
+            this.isStatic = isStatic;
+        }
+
+        @Override
+        public boolean isStatic() {
+            return isStatic;
+        }
+
+        @Override
+        public @NotNull Object evaluate(@NotNull Function<String, String> transform) {
+            Map<Object, Object> result = new LinkedHashMap<>(keys.length * 4 / 3 + 1);
+            for (int index = 0; index < keys.length; index++) {
+                result.put(keys[index].evaluate(transform), values[index].evaluate(transform));
+            }
+            return result;
+        }
+    }
+
+    private static class ListNode implements Node {
+        private final @NotNull Node[] elements;
+        private final boolean isStatic;
+
+        private ListNode(@NotNull Node[] elements) {
+            this.elements = elements;
+            boolean isStatic = true;
+            for (Node element : elements) {
+                if (!element.isStatic()) {
+                    isStatic = false;
+                    break;
+                }
+            }
+            this.isStatic = isStatic;
+        }
+
+        @Override
+        public boolean isStatic() {
+            return isStatic;
+        }
+
+        @Override
+        public @NotNull Object evaluate(@NotNull Function<String, String> transform) {
+            List<Object> result = new ArrayList<>(elements.length);
+            for (Node element : elements) {
+                result.add(element.evaluate(transform));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 对照yml文本中各标量的原始形式编译模板树
+     */
+    private static class Compiler {
+        private final @NotNull String source;
+        private final @Nullable org.yaml.snakeyaml.nodes.Node root;
+        /**
+         * yml文本中是否存在代理对, 存在时需将标记中的码点位置转换为字符位置
+         */
+        private final boolean surrogates;
+        private boolean reparse = false;
+
+        private Compiler(@NotNull String source, @Nullable org.yaml.snakeyaml.nodes.Node root) {
+            this.source = source;
+            this.root = root;
+            this.surrogates = source.codePointCount(0, source.length()) != source.length();
+        }
+
+        /**
+         * @param value    加载结果
+         * @param yamlNode 加载结果在yml文本中对应的节点, 无法对应时为null
+         */
+        private @NotNull Node compileNode(@Nullable Object value, @Nullable org.yaml.snakeyaml.nodes.Node yamlNode) {
+            if (value instanceof Map<?, ?>) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                List<NodeTuple> tuples = yamlNode instanceof MappingNode ? ((MappingNode) yamlNode).getValue() : null;
+                // 存在合并键, 重复键等情况时无法一一对应
+                if (tuples != null && tuples.size() != map.size()) tuples = null;
+                Node[] keys = new Node[map.size()];
+                Node[] values = new Node[map.size()];
+                int index = 0;
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    NodeTuple tuple = tuples == null ? null : tuples.get(index);
+                    keys[index] = compileLeaf(entry.getKey(), tuple == null ? null : tuple.getKeyNode());
+                    values[index] = compileNode(entry.getValue(), tuple == null ? null : tuple.getValueNode());
+                    index++;
+                }
+                return new MapNode(keys, values);
+            } else if (value instanceof List<?>) {
+                List<?> list = (List<?>) value;
+                List<org.yaml.snakeyaml.nodes.Node> nodes = yamlNode instanceof SequenceNode ? ((SequenceNode) yamlNode).getValue() : null;
+                if (nodes != null && nodes.size() != list.size()) nodes = null;
+                Node[] elements = new Node[list.size()];
+                for (int index = 0; index < elements.length; index++) {
+                    elements[index] = compileNode(list.get(index), nodes == null ? null : nodes.get(index));
+                }
+                return new ListNode(elements);
+            }
+            return compileLeaf(value, yamlNode);
+        }
+
+        private @NotNull Node compileLeaf(@Nullable Object value, @Nullable org.yaml.snakeyaml.nodes.Node yamlNode) {
+            if (!(value instanceof String) || !isDynamic((String) value)) return new StaticNode(value);
+            String text = (String) value;
+            if (yamlNode instanceof ScalarNode) {
+                String raw = source.substring(offset(yamlNode.getStartMark().getIndex()), offset(yamlNode.getEndMark().getIndex()));
+                if (!raw.isEmpty()) {
+                    char first = raw.charAt(0);
+                    if (first == '\'') {
+                        // 单引号文本中的单引号以两个单引号形式存在, 节点解析时内容不同
+                        if (text.indexOf('\'') == -1 && matches(text, raw.substring(1, raw.length() - 1))) {
+                            return new TextNode(text, true);
+                        }
+                    } else if (first != '"' && first != '|' && first != '>' && matches(text, raw)) {
+                        return new TextNode(text, false);
+                    }
+                }
+            }
+            // 双引号转义, 块文本, 折行位于节点内部等情况, 每次生成均需对yml文本进行节点解析后重新加载
+            reparse = true;
+            return new TextNode(text, false);
+        }
+
+        /**
+         * 文本在yml中的原始形式去除折行后是否与文本一致, 且折行不位于节点内部
+         *
+         * @param text 文本
+         * @param raw  文本在yml中的原始形式(不含引号)
+         */
+        private static boolean matches(@NotNull String text, @NotNull String raw) {
+            if (raw.indexOf('\n') == -1) return raw.equals(text);
+            StringBuilder joined = new StringBuilder(text.length());
+            int depth = 0;
+            int start = 0;
+            while (true) {
+                int end = raw.indexOf('\n', start);
+                String line = raw.substring(start, end == -1 ? raw.length() : end);
+                if (start != 0) {
+                    int trim = 0;
+                    while (trim < line.length() && line.charAt(trim) == ' ') {
+                        trim++;
+                    }
+                    line = line.substring(trim);
+                    // 空行在yml中代表换行
+                    if (line.isEmpty() || depth > 0) return false;
+                    joined.append(' ');
+                }
+                for (int index = 0; index < line.length(); index++) {
+                    char c = line.charAt(index);
+                    if (c == '<') {
+                        depth++;
+                    } else if (c == '>' && depth > 0) {
+                        depth--;
+                    }
+                }
+                joined.append(line);
+                if (end == -1) break;
+                start = end + 1;
+            }
+            return joined.toString().equals(text);
+        }
+
+        /**
+         * 将标记中的码点位置转换为字符位置
+         */
+        private int offset(int index) {
+            return surrogates ? source.offsetByCodePoints(0, index) : index;
+        }
+    }
+}
@@ -79,12 +79,24 @@ public enum ItemActionType {
     TICK_39("tick_39"),
     TICK_40("tick_40");
 
+    /**
+     * tick类触发类型的数量(tick_hand 至 tick_40)
+     */
+    public static final int TICK_COUNT = TICK_40.ordinal() - TICK_HAND.ordinal() + 1;
+
     private static final Map<String, ItemActionType> typeToEnum = new HashMap<>();
+    /**
+     * 按槽位索引排列的 tick_0 至 tick_40
+     */
+    private static final ItemActionType[] tickSlots = new ItemActionType[TICK_40.ordinal() - TICK_0.ordinal() + 1];
 
     static {
         for (ItemActionType value : ItemActionType.values()) {
             typeToEnum.put(value.type, value);
         }
+        for (int slot = 0; slot < tickSlots.length; slot++) {
+            tickSlots[slot] = values()[TICK_0.ordinal() + slot];
+        }
     }
 
     private final String type;
@@ -100,7 +112,38 @@ public enum ItemActionType {
         return typeToEnum.get(type);
     }
 
+    /**
+     * 获取槽位对应的tick触发类型
+     *
+     * @param slot 槽位索引(0-40)
+     * @return tick_槽位索引 对应的触发类型
+     */
+    public static ItemActionType tickSlot(int slot) {
+        return tickSlots[slot];
+    }
+
     public String getType() {
         return type;
     }
+
+    /**
+     * 是否为tick类触发类型
+     */
+    public boolean isTick() {
+        return ordinal() >= TICK_HAND.ordinal();
+    }
+
+    /**
+     * 获取tick类触发类型的序号(0 至 TICK_COUNT - 1), 非tick类触发类型返回-1
+     */
+    public int getTickIndex() {
+        return isTick() ? ordinal() - TICK_HAND.ordinal() : -1;
+    }
+
+    /**
+     * 获取tick类触发类型在tick掩码中对应的位, 非tick类触发类型返回0
+     */
+    public long getTickBit() {
+        return isTick() ? 1L << getTickIndex() : 0;
+    }
 }
@@ -1,9 +1,24 @@
 package pers.neige.neigeitems.libs.bot.inker.bukkit.nbt;
 
+import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.internal.annotation.CbVersion;
+import pers.neige.neigeitems.ref.core.component.RefDataComponentHolder;
+import pers.neige.neigeitems.ref.core.component.RefDataComponents;
+import pers.neige.neigeitems.ref.nbt.RefBukkitItemStack;
+import pers.neige.neigeitems.ref.nbt.RefCraftItemStack;
+import pers.neige.neigeitems.ref.nbt.RefNbtBase;
 import pers.neige.neigeitems.ref.nbt.RefNbtTagCompound;
+import pers.neige.neigeitems.ref.nbt.RefNmsItemStack;
+import pers.neige.neigeitems.ref.world.item.component.RefCustomData;
 
 public class NeigeItemsUtils {
+    /**
+     * 1.20.5+ 版本起, 自定义NBT存储于 custom_data 组件当中.
+     */
+    private final static boolean MOJANG_MOTHER_DEAD = CbVersion.v1_20_R4.isSupport();
+
     @NotNull
     public static NbtCompound fromNms(
             @NotNull RefNbtTagCompound nbt
@@ -17,4 +32,40 @@ public class NeigeItemsUtils {
     ) {
         return nbt.delegate;
     }
+
+    /**
+     * 直接从物品的NMS标签中读取 NeigeItems.id, 不构建 NbtItemStack 及 NbtCompound 包装对象, 也不会为物品创建标签.
+     * 1.20.5 以下的 Bukkit ItemStack 需要通过 ItemMeta 获取标签, 此时退回常规读取方式.
+     *
+     * @param itemStack 待读取物品
+     * @return NI物品ID, 非NI物品返回null
+     */
+    @Nullable
+    public static String peekNiId(
+            @NotNull ItemStack itemStack
+    ) {
+        RefCraftItemStack craftItemStack;
+        if (itemStack instanceof RefCraftItemStack) {
+            craftItemStack = (RefCraftItemStack) itemStack;
+        } else if (MOJANG_MOTHER_DEAD) {
+            craftItemStack = (RefCraftItemStack) ((RefBukkitItemStack) (Object) itemStack).craftDelegate;
+        } else {
+            NbtCompound tag = new NbtItemStack(itemStack).getTag();
+            return tag == null ? null : tag.getDeepString("NeigeItems.id");
+        }
+        RefNmsItemStack handle = craftItemStack.handle;
+        if (handle == null) return null;
+        RefNbtTagCompound tag;
+        if (MOJANG_MOTHER_DEAD) {
+            RefCustomData customData = ((RefDataComponentHolder) (Object) handle).get(RefDataComponents.CUSTOM_DATA);
+            tag = customData == null ? null : customData.getUnsafe();
+        } else {
+            tag = handle.getTag();
+        }
+        if (tag == null) return null;
+        RefNbtBase neigeItems = tag.get("NeigeItems");
+        if (!(neigeItems instanceof RefNbtTagCompound)) return null;
+        RefNbtBase id = ((RefNbtTagCompound) neigeItems).get("id");
+        return id == null ? null : id.asString();
+    }
 }
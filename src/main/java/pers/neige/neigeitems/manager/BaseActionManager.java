@@ -20,7 +20,11 @@ import pers.neige.neigeitems.action.*;
 import pers.neige.neigeitems.action.catcher.ChatCatcher;
 import pers.neige.neigeitems.action.catcher.SignCatcher;
 import pers.neige.neigeitems.action.evaluator.Evaluator;
+import pers.neige.neigeitems.action.handler.ImmediateActionHandler;
+import pers.neige.neigeitems.action.handler.PreparedActionHandler;
 import pers.neige.neigeitems.action.handler.SyncActionHandler;
+import pers.neige.neigeitems.action.handler.SyncImmediateActionHandler;
+import pers.neige.neigeitems.action.handler.SyncPreparedActionHandler;
 import pers.neige.neigeitems.action.impl.*;
 import pers.neige.neigeitems.action.result.Results;
 import pers.neige.neigeitems.action.result.StopResult;
@@ -35,8 +39,10 @@ import pers.neige.neigeitems.text.impl.NullText;
 import pers.neige.neigeitems.user.User;
 import pers.neige.neigeitems.utils.*;
 
+import javax.script.Compilable;
 import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
+import javax.script.ScriptException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
@@ -46,6 +52,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 import static pers.neige.neigeitems.utils.ListUtils.*;
@@ -63,6 +71,11 @@ public abstract class BaseActionManager {
      */
     @NotNull
     private final HashMap<String, BiFunction<ActionContext, String, CompletableFuture<ActionResult>>> actions = new HashMap<>();
+    /**
+     * 基础物品动作实现函数, 基础动作均不会修改动作上下文中的物品
+     */
+    @NotNull
+    private final HashMap<String, BiFunction<ActionContext, String, CompletableFuture<ActionResult>>> basicActions;
     /**
      * 用于编译condition的脚本引擎
      */
@@ -78,15 +91,26 @@ public abstract class BaseActionManager {
      */
     @NotNull
     private final ConcurrentHashMap<String, CompiledScript> actionScripts = new ConcurrentHashMap<>();
+    /**
+     * StringAction 能否跳过 CompletableFuture 同步执行
+     */
+    private final boolean stringActionSyncSupported;
+    /**
+     * RawStringAction 能否跳过 CompletableFuture 同步执行
+     */
+    private final boolean rawStringActionSyncSupported;
 
     public BaseActionManager(
             @NotNull Plugin plugin
     ) {
         this.plugin = plugin;
+        this.stringActionSyncSupported = isSyncSupported(StringAction.class);
+        this.rawStringActionSyncSupported = isSyncSupported(RawStringAction.class);
         engine.put("plugin", plugin);
         engine.put("manager", this);
         // 加载基础动作
         loadBasicActions();
+        this.basicActions = new HashMap<>(actions);
     }
 
     @NotNull
@@ -119,6 +143,45 @@ public abstract class BaseActionManager {
         actionScripts.clear();
     }
 
+    /**
+     * 判断动作实现函数是否为基础动作(未被其他插件覆盖)
+     *
+     * @param key     动作ID
+     * @param handler 动作实现函数
+     * @return 是否为基础动作
+     */
+    public boolean isBasicAction(
+            @NotNull String key,
+            @Nullable BiFunction<ActionContext, String, CompletableFuture<ActionResult>> handler
+    ) {
+        // 加载基础动作期间编译的动作尚无法判断
+        return handler != null && basicActions != null && basicActions.get(key) == handler;
+    }
+
+    public boolean isStringActionSyncSupported() {
+        return stringActionSyncSupported;
+    }
+
+    public boolean isRawStringActionSyncSupported() {
+        return rawStringActionSyncSupported;
+    }
+
+    /**
+     * 子类覆写了 runAction 却未覆写对应的 runActionSync 时, 同步执行将绕过子类逻辑, 此时不进行同步执行
+     *
+     * @param actionType 动作类型
+     * @return 能否同步执行
+     */
+    private boolean isSyncSupported(@NotNull Class<? extends Action> actionType) {
+        try {
+            Class<?> async = getClass().getMethod("runAction", actionType, ActionContext.class).getDeclaringClass();
+            Class<?> sync = getClass().getMethod("runActionSync", actionType, ActionContext.class).getDeclaringClass();
+            return async.isAssignableFrom(sync);
+        } catch (NoSuchMethodException error) {
+            return false;
+        }
+    }
+
     @NotNull
     public Action compile(
             @Nullable Object action,
@@ -281,9 +344,32 @@ public abstract class BaseActionManager {
     ) {
         BiFunction<ActionContext, String, CompletableFuture<ActionResult>> handler = action.getHandler();
         if (handler == null) return CompletableFuture.completedFuture(Results.SUCCESS);
+        if (action.hasPrepared()) {
+            return Results.completed(((PreparedActionHandler<Object>) handler).handlePrepared(context, action.getPrepared()));
+        }
         return handler.apply(context, action.getContent());
     }
 
+    /**
+     * 同步执行动作, 仅在动作处理器为 ImmediateActionHandler 时调用
+     *
+     * @param action  动作内容
+     * @param context 动作上下文
+     * @return 执行结果
+     */
+    @NotNull
+    public ActionResult runActionSync(
+            @NotNull RawStringAction action,
+            @NotNull ActionContext context
+    ) {
+        BiFunction<ActionContext, String, CompletableFuture<ActionResult>> handler = action.getHandler();
+        if (!(handler instanceof ImmediateActionHandler)) return runAction(action, context).join();
+        if (action.hasPrepared()) {
+            return ((PreparedActionHandler<Object>) handler).handlePrepared(context, action.getPrepared());
+        }
+        return ((ImmediateActionHandler) handler).handle(context, action.getContent());
+    }
+
     /**
      * 执行动作
      *
@@ -297,15 +383,70 @@ public abstract class BaseActionManager {
             @NotNull ActionContext context
     ) {
         BiFunction<ActionContext, String, CompletableFuture<ActionResult>> handler = action.getHandler();
-        if (handler == null) return CompletableFuture.completedFuture(Results.SUCCESS);
-        // 对动作内容进行节点解析
-        String content = SectionUtils.parseSection(
-                action.getContent(),
+        if (handler == null) return runUnregisteredAction(action, context);
+        // 动作内容为常量时直接使用预处理结果
+        if (action.hasPrepared()) {
+            return Results.completed(((PreparedActionHandler<Object>) handler).handlePrepared(context, action.getPrepared()));
+        }
+        return handler.apply(context, parseContent(action, context));
+    }
+
+    /**
+     * 执行不存在对应处理器的 StringAction
+     *
+     * @param action  动作内容
+     * @param context 动作上下文
+     * @return 执行结果
+     */
+    @NotNull
+    public CompletableFuture<ActionResult> runUnregisteredAction(
+            @NotNull StringAction action,
+            @NotNull ActionContext context
+    ) {
+        return CompletableFuture.completedFuture(Results.SUCCESS);
+    }
+
+    /**
+     * 对 StringAction 的动作内容进行节点解析, 动作内容不包含节点时直接返回原内容
+     *
+     * @param action  动作内容
+     * @param context 动作上下文
+     * @return 解析结果
+     */
+    @NotNull
+    public String parseContent(
+            @NotNull StringAction action,
+            @NotNull ActionContext context
+    ) {
+        String constantContent = action.getConstantContent();
+        if (constantContent != null) return constantContent;
+        return SectionUtils.parseSection(
+                action.getTemplate(),
                 (Map<String, String>) (Object) context.getGlobal(),
                 context.getPlayer(),
                 getSectionConfig(context)
         );
-        return handler.apply(context, content);
+    }
+
+    /**
+     * 同步执行动作, 仅在动作处理器为 ImmediateActionHandler 时调用
+     *
+     * @param action  动作内容
+     * @param context 动作上下文
+     * @return 执行结果
+     */
+    @NotNull
+    public ActionResult runActionSync(
+            @NotNull StringAction action,
+            @NotNull ActionContext context
+    ) {
+        BiFunction<ActionContext, String, CompletableFuture<ActionResult>> handler = action.getHandler();
+        if (!(handler instanceof ImmediateActionHandler)) return runAction(action, context).join();
+        // 动作内容为常量时直接使用预处理结果
+        if (action.hasPrepared()) {
+            return ((PreparedActionHandler<Object>) handler).handlePrepared(context, action.getPrepared());
+        }
+        return ((ImmediateActionHandler) handler).handle(context, parseContent(action, context));
     }
 
     /**
@@ -388,13 +529,47 @@ public abstract class BaseActionManager {
             int fromIndex
     ) {
         List<Action> actions = action.getActions();
-        if (fromIndex >= actions.size()) return CompletableFuture.completedFuture(Results.SUCCESS);
-        return actions.get(fromIndex).evalAsyncSafe(this, context).thenCompose((result) -> {
-            if (result.getType() == ResultType.STOP) {
-                return CompletableFuture.completedFuture(result);
+        // 同步完成的动作直接循环执行, 仅在动作挂起(延时, 等待输入, 线程切换等)时才串联后续动作
+        for (int index = fromIndex; index < actions.size(); index++) {
+            Action current = actions.get(index);
+            if (current.canEvalSync(context)) {
+                ActionResult result = current.evalSync(this, context);
+                if (result.getType() == ResultType.STOP) return Results.completed(result);
+                continue;
             }
-            return runAction(action, context, fromIndex + 1);
-        });
+            CompletableFuture<ActionResult> future = current.evalAsyncSafe(this, context);
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                if (future.join().getType() == ResultType.STOP) return future;
+                continue;
+            }
+            final int nextIndex = index + 1;
+            return future.thenCompose((result) -> {
+                if (result.getType() == ResultType.STOP) {
+                    return CompletableFuture.completedFuture(result);
+                }
+                return runAction(action, context, nextIndex);
+            });
+        }
+        return Results.completed(Results.SUCCESS);
+    }
+
+    /**
+     * 同步执行动作, 仅在 ListAction.canEvalSync 返回 true 时调用
+     *
+     * @param action  动作内容
+     * @param context 动作上下文
+     * @return 执行结果
+     */
+    @NotNull
+    public ActionResult runActionSync(
+            @NotNull ListAction action,
+            @NotNull ActionContext context
+    ) {
+        for (Action current : action.getActions()) {
+            ActionResult result = current.evalSync(this, context);
+            if (result.getType() == ResultType.STOP) return result;
+        }
+        return Results.SUCCESS;
     }
 
     /**
@@ -475,13 +650,13 @@ public abstract class BaseActionManager {
             if (action.isEqualWeight()) {
                 result = action.getActions().get(ThreadLocalRandom.current().nextInt(0, action.getActions().size())).getFirst();
             } else {
-                result = SamplingUtils.weight(action.getActions(), action.getTotalWeight());
+                result = action.getAliasTable().sample();
             }
             if (result != null) {
                 return result.evalAsyncSafe(this, context);
             }
         } else if (amount > 1) {
-            List<SamplingUtils.SamplingResult<Action>> actions = SamplingUtils.weightWithIndex(action.getActions(), amount);
+            List<SamplingUtils.SamplingResult<Action>> actions = action.getSampler().sample(amount);
             if (action.isOrder()) {
                 actions.sort(Comparator.comparingInt(SamplingUtils.SamplingResult::getIndex));
             }
@@ -565,22 +740,39 @@ public abstract class BaseActionManager {
             @NotNull WhileAction action,
             @NotNull ActionContext context
     ) {
+        LoopBudget budget = new LoopBudget(action.getLoopKey());
         // while循环判断条件
-        if (action.getCondition().easyCheck(context)) {
-            return action.getActions().evalAsyncSafe(this, context).thenCompose((result) -> {
-                // 执行中止
-                if (result.getType() == ResultType.STOP) {
-                    // 执行finally块
-                    return action.getFinally().evalAsyncSafe(this, context);
-                } else {
-                    // 继续执行
-                    return runAction(action, context);
+        while (action.getCondition().easyCheck(context)) {
+            Action actions = action.getActions();
+            ActionResult result;
+            if (actions.canEvalSync(context)) {
+                result = actions.evalSync(this, context);
+            } else {
+                CompletableFuture<ActionResult> future = actions.evalAsyncSafe(this, context);
+                if (!future.isDone() || future.isCompletedExceptionally()) {
+                    budget.finish();
+                    // 动作挂起, 完成后继续循环
+                    return future.thenCompose((current) -> {
+                        // 执行中止
+                        if (current.getType() == ResultType.STOP) {
+                            // 执行finally块
+                            return action.getFinally().evalAsyncSafe(this, context);
+                        }
+                        // 继续执行
+                        return runAction(action, context);
+                    });
                 }
-            });
-        } else {
-            // 执行finally块
-            return action.getFinally().evalAsyncSafe(this, context);
+                result = future.join();
+            }
+            // 执行中止
+            if (result.getType() == ResultType.STOP) break;
+            if (budget.next()) {
+                return yieldLoop(() -> runAction(action, context));
+            }
         }
+        budget.finish();
+        // 执行finally块
+        return action.getFinally().evalAsyncSafe(this, context);
     }
 
     /**
@@ -671,19 +863,98 @@ public abstract class BaseActionManager {
             final int repeat,
             final int count
     ) {
-        context.getGlobal().put(action.getGlobalId(), count);
-        return action.getActions().evalAsyncSafe(this, context).thenCompose((result) -> {
-            if (result.getType() == ResultType.STOP) {
-                return CompletableFuture.completedFuture(result);
+        LoopBudget budget = new LoopBudget(action.getLoopKey());
+        Action actions = action.getActions();
+        ActionResult result = Results.SUCCESS;
+        for (int index = count; index < repeat; index++) {
+            context.getGlobal().put(action.getGlobalId(), index);
+            if (actions.canEvalSync(context)) {
+                result = actions.evalSync(this, context);
             } else {
-                int newCount = count + 1;
-                if (newCount < repeat) {
-                    return runAction(action, context, repeat, newCount);
-                } else {
-                    return CompletableFuture.completedFuture(result);
+                CompletableFuture<ActionResult> future = actions.evalAsyncSafe(this, context);
+                if (!future.isDone() || future.isCompletedExceptionally()) {
+                    budget.finish();
+                    final int newCount = index + 1;
+                    // 动作挂起, 完成后继续循环
+                    return future.thenCompose((current) -> {
+                        if (current.getType() == ResultType.STOP || newCount >= repeat) {
+                            return CompletableFuture.completedFuture(current);
+                        }
+                        return runAction(action, context, repeat, newCount);
+                    });
                 }
+                result = future.join();
             }
-        });
+            if (result.getType() == ResultType.STOP) break;
+            if (budget.next() && index + 1 < repeat) {
+                final int newCount = index + 1;
+                return yieldLoop(() -> runAction(action, context, repeat, newCount));
+            }
+        }
+        budget.finish();
+        return Results.completed(result);
+    }
+
+    /**
+     * 在下一tick继续执行循环
+     *
+     * @param next 循环的剩余部分
+     * @return 执行结果
+     */
+    @NotNull
+    private CompletableFuture<ActionResult> yieldLoop(
+            @NotNull Supplier<CompletableFuture<ActionResult>> next
+    ) {
+        CompletableFuture<Void> tick = new CompletableFuture<>();
+        SchedulerUtils.runLater(plugin, 1, () -> tick.complete(null));
+        return tick.thenCompose((ignored) -> next.get());
+    }
+
+    /**
+     * 循环单次连续执行的预算.
+     * 仅在主线程中限制, 连续执行的次数或耗时超出配置值时循环将让出主线程, 于下一tick继续执行.
+     */
+    private static final class LoopBudget {
+        private final @NotNull String key;
+        private final boolean limited;
+        private final int maxIterations;
+        private final long deadline;
+        private int iterations = 0;
+
+        private LoopBudget(@NotNull String key) {
+            this.key = key;
+            int maxIterations = ConfigManager.INSTANCE.getLoopIterationBudget();
+            long maxNanos = ConfigManager.INSTANCE.getLoopTimeBudget() * 1_000_000L;
+            this.limited = (maxIterations > 0 || maxNanos > 0) && Bukkit.isPrimaryThread();
+            this.maxIterations = maxIterations > 0 ? maxIterations : Integer.MAX_VALUE;
+            this.deadline = limited && maxNanos > 0 ? System.nanoTime() + maxNanos : Long.MAX_VALUE;
+        }
+
+        /**
+         * 记录一次迭代
+         *
+         * @return 是否需要让出主线程
+         */
+        private boolean next() {
+            iterations++;
+            if (!limited) return false;
+            if (iterations >= maxIterations || System.nanoTime() >= deadline) {
+                ActionProfiler.recordLoop(key, iterations, true);
+                iterations = 0;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 循环结束或挂起
+         */
+        private void finish() {
+            if (iterations > 0) {
+                ActionProfiler.recordLoop(key, iterations, false);
+                iterations = 0;
+            }
+        }
     }
 
     /**
@@ -703,7 +974,13 @@ public abstract class BaseActionManager {
         }
         return parseCondition(
                 condition,
-                conditionScripts.computeIfAbsent(condition, (key) -> HookerManager.INSTANCE.getNashornHooker().compile(engine, key)),
+                conditionScripts.computeIfAbsent(condition, (key) -> {
+                    try {
+                        return ScriptWithSource.compile((Compilable) engine, key);
+                    } catch (ScriptException e) {
+                        throw new RuntimeException(e);
+                    }
+                }),
                 context
         );
     }
@@ -747,9 +1024,30 @@ public abstract class BaseActionManager {
         if (condition == null) {
             return Results.SUCCESS;
         }
+        if (conditionString == null || !ActionProfiler.isEnabled()) {
+            return evalCondition(conditionString, condition, context);
+        }
+        long start = System.nanoTime();
+        try {
+            return evalCondition(conditionString, condition, context);
+        } finally {
+            ActionProfiler.record(ActionProfiler.conditionKey(conditionString), start);
+        }
+    }
+
+    @NotNull
+    private ActionResult evalCondition(
+            @Nullable String conditionString,
+            @NotNull CompiledScript condition,
+            @NotNull ActionContext context
+    ) {
         Object result;
         try {
-            result = condition.eval(context.getBindings());
+            if (condition instanceof ScriptWithSource) {
+                result = ((ScriptWithSource) condition).eval(context);
+            } else {
+                result = condition.eval(context.getBindings());
+            }
             if (result == null) {
                 return Results.STOP;
             }
@@ -767,10 +1065,11 @@ public abstract class BaseActionManager {
             error.printStackTrace();
             return Results.STOP;
         }
-        if (result instanceof ActionResult) {
-            return (ActionResult) result;
-        } else if (result instanceof Boolean) {
+        // 大部分条件返回布尔值, 优先判断
+        if (result instanceof Boolean) {
             return Results.fromBoolean((Boolean) result);
+        } else if (result instanceof ActionResult) {
+            return (ActionResult) result;
         } else {
             return Results.STOP;
         }
@@ -915,14 +1214,110 @@ public abstract class BaseActionManager {
         if (consumer == null) return;
         BiFunction<ActionContext, String, CompletableFuture<ActionResult>> handler;
         if (asyncSafe) {
-            handler = (context, content) -> {
+            handler = (ImmediateActionHandler) (context, content) -> {
                 consumer.accept(context, content);
-                return CompletableFuture.completedFuture(Results.SUCCESS);
+                return Results.SUCCESS;
             };
         } else {
-            handler = (SyncActionHandler) (context, content) -> {
+            handler = (SyncImmediateActionHandler) (context, content) -> {
                 consumer.accept(context, content);
-                return CompletableFuture.completedFuture(Results.SUCCESS);
+                return Results.SUCCESS;
+            };
+        }
+        actions.put(id.toLowerCase(Locale.ROOT), handler);
+    }
+
+    /**
+     * 添加物品动作, 动作内容为常量时, 参数仅在动作编译时预处理一次
+     *
+     * @param ids      动作ID
+     * @param parser   参数预处理函数
+     * @param consumer 动作执行函数
+     */
+    public <T> void addConsumer(
+            @NotNull Collection<String> ids,
+            @NotNull Function<String, T> parser,
+            @Nullable BiConsumer<ActionContext, T> consumer
+    ) {
+        addConsumer(ids, true, parser, consumer);
+    }
+
+    /**
+     * 添加物品动作, 动作内容为常量时, 参数仅在动作编译时预处理一次
+     *
+     * @param ids       动作ID
+     * @param asyncSafe 动作是否可以异步执行
+     * @param parser    参数预处理函数
+     * @param consumer  动作执行函数
+     */
+    public <T> void addConsumer(
+            @NotNull Collection<String> ids,
+            boolean asyncSafe,
+            @NotNull Function<String, T> parser,
+            @Nullable BiConsumer<ActionContext, T> consumer
+    ) {
+        if (consumer == null) return;
+        for (String id : ids) {
+            addConsumer(id, asyncSafe, parser, consumer);
+        }
+    }
+
+    /**
+     * 添加物品动作, 动作内容为常量时, 参数仅在动作编译时预处理一次
+     *
+     * @param id       动作ID
+     * @param parser   参数预处理函数
+     * @param consumer 动作执行函数
+     */
+    public <T> void addConsumer(
+            @NotNull String id,
+            @NotNull Function<String, T> parser,
+            @Nullable BiConsumer<ActionContext, T> consumer
+    ) {
+        addConsumer(id, true, parser, consumer);
+    }
+
+    /**
+     * 添加物品动作, 动作内容为常量时, 参数仅在动作编译时预处理一次
+     *
+     * @param id        动作ID
+     * @param asyncSafe 动作是否可以异步执行
+     * @param parser    参数预处理函数
+     * @param consumer  动作执行函数
+     */
+    public <T> void addConsumer(
+            @NotNull String id,
+            boolean asyncSafe,
+            @NotNull Function<String, T> parser,
+            @Nullable BiConsumer<ActionContext, T> consumer
+    ) {
+        if (consumer == null) return;
+        BiFunction<ActionContext, String, CompletableFuture<ActionResult>> handler;
+        if (asyncSafe) {
+            handler = new PreparedActionHandler<T>() {
+                @Override
+                public T prepare(@NotNull String content) {
+                    return parser.apply(content);
+                }
+
+                @Override
+                public @NotNull ActionResult handlePrepared(@NotNull ActionContext context, T prepared) {
+                    consumer.accept(context, prepared);
+                    return Results.SUCCESS;
+                }
+            };
+        } else {
+            handler = new SyncPreparedActionHandler<T>() {
+                @Override
+                public T prepare(@NotNull String content) {
+                    return parser.apply(content);
+                }
+
+                @Override
+                public @NotNull ActionResult handlePrepared(@NotNull ActionContext context, T prepared) {
+                    consumer.accept(context, prepared);
+                    return Results.SUCCESS;
+                }
             };
         }
         actions.put(id.toLowerCase(Locale.ROOT), handler);
@@ -980,10 +1375,10 @@ public abstract class BaseActionManager {
      */
     protected void loadBasicActions() {
         // 向玩家发送消息
-        addConsumer("tell", (context, content) -> {
+        addConsumer("tell", BaseActionManager::color, (context, message) -> {
             Player player = context.getPlayer();
             if (player == null) return;
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', content));
+            player.sendMessage(message);
         });
         // 向玩家发送消息(不将&解析为颜色符号)
         addConsumer(Arrays.asList("tell-no-color", "tellNoColor"), (context, content) -> {
@@ -998,16 +1393,16 @@ public abstract class BaseActionManager {
             player.chat(content);
         });
         // 强制玩家发送消息(将&解析为颜色符号)
-        addConsumer(Arrays.asList("chat-with-color", "chatWithColor"), false, (context, content) -> {
+        addConsumer(Arrays.asList("chat-with-color", "chatWithColor"), false, BaseActionManager::color, (context, message) -> {
             Player player = context.getPlayer();
             if (player == null) return;
-            player.chat(ChatColor.translateAlternateColorCodes('&', content));
+            player.chat(message);
         });
         // 强制玩家执行指令
-        addConsumer(Arrays.asList("command", "player"), false, (context, content) -> {
+        addConsumer(Arrays.asList("command", "player"), false, BaseActionManager::color, (context, command) -> {
             Player player = context.getPlayer();
             if (player == null) return;
-            Bukkit.dispatchCommand(player, ChatColor.translateAlternateColorCodes('&', content));
+            Bukkit.dispatchCommand(player, command);
         });
         // 强制玩家执行指令(不将&解析为颜色符号)
         addConsumer(Arrays.asList("command-no-color", "commandNoColor"), false, (context, content) -> {
@@ -1016,74 +1411,50 @@ public abstract class BaseActionManager {
             Bukkit.dispatchCommand(player, content);
         });
         // 后台执行指令
-        addConsumer("console", false, (context, content) -> {
-            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), ChatColor.translateAlternateColorCodes('&', content));
+        addConsumer("console", false, BaseActionManager::color, (context, command) -> {
+            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
         });
         // 后台执行指令(不将&解析为颜色符号)
         addConsumer(Arrays.asList("console-no-color", "consoleNoColor"), false, (context, content) -> {
             Bukkit.dispatchCommand(Bukkit.getConsoleSender(), content);
         });
         // 公告
-        addConsumer("broadcast", (context, content) -> {
-            Bukkit.broadcastMessage(ChatColor.translateAlternateColorCodes('&', content));
+        addConsumer("broadcast", BaseActionManager::color, (context, message) -> {
+            Bukkit.broadcastMessage(message);
         });
         // 公告(不将&解析为颜色符号)
         addConsumer(Arrays.asList("broadcast-no-color", "broadcastNoColor"), (context, content) -> {
             Bukkit.broadcastMessage(content);
         });
         // 发送Title
-        addConsumer("title", (context, content) -> {
+        addConsumer("title", (content) -> new TitleArgs(color(content)), (context, args) -> {
             Player player = context.getPlayer();
             if (player == null) return;
-            ArrayList<String> args = StringUtils.split(ChatColor.translateAlternateColorCodes('&', content), ' ', '\\');
-            String title = getOrNull(args, 0);
-            String subtitle = getOrDefault(args, 1, "");
-            int fadeIn = getAndApply(args, 2, 10, StringsKt::toIntOrNull);
-            int stay = getAndApply(args, 3, 70, StringsKt::toIntOrNull);
-            int fadeOut = getAndApply(args, 4, 20, StringsKt::toIntOrNull);
-            player.sendTitle(title, subtitle, fadeIn, stay, fadeOut);
+            args.send(player);
         });
         // 发送Title(不将&解析为颜色符号)
-        addConsumer(Arrays.asList("title-no-color", "titleNoColor"), (context, content) -> {
+        addConsumer(Arrays.asList("title-no-color", "titleNoColor"), TitleArgs::new, (context, args) -> {
             Player player = context.getPlayer();
             if (player == null) return;
-            ArrayList<String> args = StringUtils.split(content, ' ', '\\');
-            String title = getOrNull(args, 0);
-            String subtitle = getOrDefault(args, 1, "");
-            int fadeIn = getAndApply(args, 2, 10, StringsKt::toIntOrNull);
-            int stay = getAndApply(args, 3, 70, StringsKt::toIntOrNull);
-            int fadeOut = getAndApply(args, 4, 20, StringsKt::toIntOrNull);
-            player.sendTitle(title, subtitle, fadeIn, stay, fadeOut);
+            args.send(player);
         });
         // 发送全体Title
-        addConsumer("broadcast-title", false, (context, content) -> {
-            ArrayList<String> args = StringUtils.split(ChatColor.translateAlternateColorCodes('&', content), ' ', '\\');
-            String title = getOrNull(args, 0);
-            String subtitle = getOrDefault(args, 1, "");
-            int fadeIn = getAndApply(args, 2, 10, StringsKt::toIntOrNull);
-            int stay = getAndApply(args, 3, 70, StringsKt::toIntOrNull);
-            int fadeOut = getAndApply(args, 4, 20, StringsKt::toIntOrNull);
+        addConsumer("broadcast-title", false, (content) -> new TitleArgs(color(content)), (context, args) -> {
             for (Player player : Bukkit.getOnlinePlayers()) {
-                player.sendTitle(title, subtitle, fadeIn, stay, fadeOut);
+                args.send(player);
             }
         });
         // 发送全体Title(不将&解析为颜色符号)
-        addConsumer("broadcast-title-no-color", false, (context, content) -> {
-            ArrayList<String> args = StringUtils.split(content, ' ', '\\');
-            String title = getOrNull(args, 0);
-            String subtitle = getOrDefault(args, 1, "");
-            int fadeIn = getAndApply(args, 2, 10, StringsKt::toIntOrNull);
-            int stay = getAndApply(args, 3, 70, StringsKt::toIntOrNull);
-            int fadeOut = getAndApply(args, 4, 20, StringsKt::toIntOrNull);
+        addConsumer("broadcast-title-no-color", false, TitleArgs::new, (context, args) -> {
             for (Player player : Bukkit.getOnlinePlayers()) {
-                player.sendTitle(title, subtitle, fadeIn, stay, fadeOut);
+                args.send(player);
             }
         });
         // 发送ActionBar
-        addConsumer("actionbar", (context, content) -> {
+        addConsumer("actionbar", BaseActionManager::color, (context, message) -> {
             Player player = context.getPlayer();
             if (player == null) return;
-            PlayerUtils.sendActionBar(player, ChatColor.translateAlternateColorCodes('&', content));
+            PlayerUtils.sendActionBar(player, message);
         });
         // 发送ActionBar(不将&解析为颜色符号)
         addConsumer(Arrays.asList("actionbar-no-color", "actionbarNoColor"), (context, content) -> {
@@ -1092,14 +1463,10 @@ public abstract class BaseActionManager {
             PlayerUtils.sendActionBar(player, content);
         });
         // 播放音乐
-        addConsumer("sound", (context, content) -> {
+        addConsumer("sound", SoundArgs::new, (context, args) -> {
             Player player = context.getPlayer();
             if (player == null) return;
-            String[] args = content.split(" ", 3);
-            String sound = getOrDefault(args, 0, "");
-            float volume = getAndApply(args, 1, 1F, StringsKt::toFloatOrNull);
-            float pitch = getAndApply(args, 2, 1F, StringsKt::toFloatOrNull);
-            player.playSound(player.getLocation(), sound, volume, pitch);
+            player.playSound(player.getLocation(), args.sound, args.volume, args.pitch);
         });
         // 给予玩家金钱
         addConsumer(Arrays.asList("give-money", "giveMoney"), (context, content) -> {
@@ -1397,4 +1764,52 @@ public abstract class BaseActionManager {
             return function.evalAsyncSafe(context);
         });
     }
+
+    /**
+     * 将&解析为颜色符号
+     */
+    @NotNull
+    private static String color(@NotNull String content) {
+        return ChatColor.translateAlternateColorCodes('&', content);
+    }
+
+    /**
+     * title 动作参数
+     */
+    private static final class TitleArgs {
+        private final String title;
+        private final String subtitle;
+        private final int fadeIn;
+        private final int stay;
+        private final int fadeOut;
+
+        private TitleArgs(@NotNull String content) {
+            ArrayList<String> args = StringUtils.split(content, ' ', '\\');
+            this.title = getOrNull(args, 0);
+            this.subtitle = getOrDefault(args, 1, "");
+            this.fadeIn = getAndApply(args, 2, 10, StringsKt::toIntOrNull);
+            this.stay = getAndApply(args, 3, 70, StringsKt::toIntOrNull);
+            this.fadeOut = getAndApply(args, 4, 20, StringsKt::toIntOrNull);
+        }
+
+        private void send(@NotNull Player player) {
+            player.sendTitle(title, subtitle, fadeIn, stay, fadeOut);
+        }
+    }
+
+    /**
+     * sound 动作参数
+     */
+    private static final class SoundArgs {
+        private final String sound;
+        private final float volume;
+        private final float pitch;
+
+        private SoundArgs(@NotNull String content) {
+            String[] args = content.split(" ", 3);
+            this.sound = getOrDefault(args, 0, "");
+            this.volume = getAndApply(args, 1, 1F, StringsKt::toFloatOrNull);
+            this.pitch = getAndApply(args, 2, 1F, StringsKt::toFloatOrNull);
+        }
+    }
 }
@@ -18,4 +18,13 @@ public class UserManager extends ConcurrentHashMap<UUID, User> {
         put(uuid, user);
         return user;
     }
+
+    /**
+     * 清空所有玩家的背包槽位状态缓存, 用于物品或物品动作重载后重新检查背包物品
+     */
+    public void resetInventoryCaches() {
+        for (User user : values()) {
+            user.getInventoryCache().reset();
+        }
+    }
 }
@@ -16,6 +16,8 @@ import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.NbtCompound;
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.neigeitems.utils.EntityPlayerUtils;
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.neigeitems.utils.PacketUtils;
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.neigeitems.utils.WorldUtils;
+import pers.neige.neigeitems.manager.UserManager;
+import pers.neige.neigeitems.user.User;
 import pers.neige.neigeitems.utils.ItemUtils;
 import pers.neige.neigeitems.utils.SchedulerUtils;
 
@@ -44,6 +46,7 @@ public class PacketHandler {
     }
 
     public static boolean handleSetSlotPacket(@NotNull UUID uuid, @NotNull Object packet) {
+        invalidateInventoryCache(uuid);
         Player player = Bukkit.getPlayer(uuid);
         if (player == null) return true;
         GameMode gameMode = player.getGameMode();
@@ -54,6 +57,7 @@ public class PacketHandler {
     }
 
     public static boolean handleWindowItemsPacket(@NotNull UUID uuid, @NotNull Object packet) {
+        invalidateInventoryCache(uuid);
         Player player = Bukkit.getPlayer(uuid);
         if (player == null) return true;
         GameMode gameMode = player.getGameMode();
@@ -70,6 +74,16 @@ public class PacketHandler {
         return new ItemPacketEvent(player, itemStack).call();
     }
 
+    /**
+     * 背包内容发生变动, 标记对应玩家的背包槽位状态缓存失效
+     */
+    private static void invalidateInventoryCache(@NotNull UUID uuid) {
+        User user = UserManager.INSTANCE.get(uuid);
+        if (user != null) {
+            user.getInventoryCache().invalidate();
+        }
+    }
+
     public static boolean handleEntityMetadataPacket(@NotNull UUID uuid, @NotNull Object packet) {
         Player player = Bukkit.getPlayer(uuid);
         if (player == null) return true;
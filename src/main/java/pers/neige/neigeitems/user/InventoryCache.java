@@ -0,0 +1,219 @@
+package pers.neige.neigeitems.user;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import pers.neige.neigeitems.utils.TimingWheel;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 玩家背包槽位状态缓存.
+ * 记录各槽位中NI物品的ID, hashCode, 过期时间及耐久, 供背包扫描任务跳过内容未发生变动的槽位.
+ * 背包相关事件及 SET_SLOT / WINDOW_ITEMS 数据包将标记缓存失效, 失效后下一tick重新完整扫描.
+ * 拥有过期时间的物品被记录时登记至时间轮, 到期后才将对应槽位标记为待处理.
+ * 除失效标记外, 缓存仅由背包扫描任务读写.
+ */
+public final class InventoryCache {
+    /**
+     * 玩家背包槽位数量
+     */
+    public static final int SLOT_COUNT = 41;
+    /**
+     * 无过期时间
+     */
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+    private static final int @NotNull [] EMPTY = new int[0];
+    /**
+     * 物品过期时间轮, 每个刻度对应一个游戏刻(50ms).
+     * 时间轮中的任务仅弱引用缓存, 玩家退出或缓存被替换后不会阻止缓存被回收.
+     */
+    private static final @NotNull TimingWheel<Expiry> expiries = new TimingWheel<>(50, System.currentTimeMillis());
+
+    private final @Nullable String @NotNull [] ids = new String[SLOT_COUNT];
+    private final int @NotNull [] hashCodes = new int[SLOT_COUNT];
+    private final long @NotNull [] itemTimes = new long[SLOT_COUNT];
+    private final int @NotNull [] durabilities = new int[SLOT_COUNT];
+    private final boolean @NotNull [] tickSlots = new boolean[SLOT_COUNT];
+    /**
+     * 各槽位已登记至时间轮的过期时间
+     */
+    private final long @NotNull [] scheduledTimes = new long[SLOT_COUNT];
+    /**
+     * 需要每tick处理的槽位(拥有tick动作)
+     */
+    private int @NotNull [] activeSlots = EMPTY;
+    /**
+     * 已到达过期时间, 待处理的槽位(按位记录)
+     */
+    private final @NotNull AtomicLong dueSlots = new AtomicLong();
+    /**
+     * 上次完整扫描时的手持槽位
+     */
+    private int heldSlot = -1;
+    /**
+     * 上次完整扫描时的tick
+     */
+    private long lastScanTick = 0;
+    /**
+     * 背包内容可能已发生变动
+     */
+    private volatile boolean dirty = true;
+    /**
+     * 已记录的槽位状态不再可信(物品或物品动作重载)
+     */
+    private volatile boolean reset = true;
+
+    public InventoryCache() {
+        Arrays.fill(scheduledTimes, NO_EXPIRY);
+    }
+
+    /**
+     * 推进物品过期时间轮, 将到期的槽位标记为待处理
+     *
+     * @param time 当前时间
+     */
+    public static void advanceExpiries(long time) {
+        expiries.advance(time, Expiry::fire);
+    }
+
+    /**
+     * 标记背包内容可能已发生变动, 下一tick将重新完整扫描
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * 清空已记录的槽位状态, 下一tick将重新完整扫描并重新检查所有物品
+     */
+    public void reset() {
+        reset = true;
+        dirty = true;
+    }
+
+    /**
+     * 判断本tick是否需要完整扫描, 需要时清除失效标记.
+     *
+     * @param heldSlot    当前手持槽位
+     * @param interval    完整扫描间隔(tick), 不大于0时每次都完整扫描
+     * @param currentTick 当前tick
+     * @return 是否需要完整扫描
+     */
+    public boolean beginScan(int heldSlot, int interval, long currentTick) {
+        if (reset) {
+            reset = false;
+            Arrays.fill(ids, null);
+        }
+        if (dirty || heldSlot != this.heldSlot || interval <= 0 || currentTick - lastScanTick >= interval) {
+            // 先清除标记再扫描, 扫描期间发生的变动将在下一tick重新扫描
+            dirty = false;
+            dueSlots.set(0);
+            this.heldSlot = heldSlot;
+            lastScanTick = currentTick;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 检查槽位状态是否与记录一致
+     */
+    public boolean matches(int slot, @NotNull String id, int hashCode, long itemTime, int durability) {
+        return Objects.equals(ids[slot], id)
+                && hashCodes[slot] == hashCode
+                && itemTimes[slot] == itemTime
+                && durabilities[slot] == durability;
+    }
+
+    /**
+     * 记录槽位状态, 物品拥有过期时间时登记至时间轮
+     *
+     * @param time 当前时间
+     */
+    public void record(int slot, @NotNull String id, int hashCode, long itemTime, int durability, boolean tick, long time) {
+        ids[slot] = id;
+        hashCodes[slot] = hashCode;
+        itemTimes[slot] = itemTime;
+        durabilities[slot] = durability;
+        tickSlots[slot] = tick;
+        if (itemTime == NO_EXPIRY) return;
+        if (time >= itemTime) {
+            // 已过期但未被回收(过期事件被取消等), 下一tick继续处理
+            markDue(slot);
+        } else if (scheduledTimes[slot] != itemTime) {
+            scheduledTimes[slot] = itemTime;
+            expiries.schedule(itemTime, new Expiry(this, slot, itemTime));
+        }
+    }
+
+    /**
+     * 清除槽位记录(槽位中不是NI物品)
+     */
+    public void clear(int slot) {
+        ids[slot] = null;
+        tickSlots[slot] = false;
+    }
+
+    /**
+     * 完整扫描结束后根据槽位记录重建需要每tick处理的槽位
+     */
+    public void finishScan() {
+        int count = 0;
+        int[] slots = new int[SLOT_COUNT];
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if (ids[slot] != null && tickSlots[slot]) {
+                slots[count++] = slot;
+            }
+        }
+        activeSlots = count == 0 ? EMPTY : Arrays.copyOf(slots, count);
+    }
+
+    /**
+     * 获取需要每tick处理的槽位
+     */
+    public int @NotNull [] getActiveSlots() {
+        return activeSlots;
+    }
+
+    /**
+     * 获取并清空已到达过期时间的槽位
+     *
+     * @return 按位记录的槽位
+     */
+    public long pollDueSlots() {
+        return dueSlots.getAndSet(0);
+    }
+
+    private void markDue(int slot) {
+        long bit = 1L << slot;
+        dueSlots.getAndAccumulate(bit, (prev, value) -> prev | value);
+    }
+
+    /**
+     * 时间轮中登记的过期任务
+     */
+    private static final class Expiry {
+        private final @NotNull WeakReference<InventoryCache> cache;
+        private final int slot;
+        private final long itemTime;
+
+        private Expiry(@NotNull InventoryCache cache, int slot, long itemTime) {
+            this.cache = new WeakReference<>(cache);
+            this.slot = slot;
+            this.itemTime = itemTime;
+        }
+
+        private void fire() {
+            InventoryCache cache = this.cache.get();
+            // 缓存已被回收(玩家已退出)
+            if (cache == null) return;
+            // 槽位中的物品已变动时, 变动后的物品会重新登记
+            if (cache.ids[slot] != null && cache.itemTimes[slot] == itemTime) {
+                cache.markDue(slot);
+            }
+        }
+    }
+}
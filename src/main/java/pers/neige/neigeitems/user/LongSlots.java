@@ -0,0 +1,43 @@
+package pers.neige.neigeitems.user;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 以整数ID为下标的 long 槽位数组.
+ * 读取无锁且不产生对象分配, 写入时加锁, 仅在ID超出当前容量时扩容.
+ */
+final class LongSlots {
+    private static final int MIN_CAPACITY = 8;
+    private volatile @NotNull AtomicLongArray values;
+
+    LongSlots(int capacity) {
+        this.values = new AtomicLongArray(Math.max(capacity, MIN_CAPACITY));
+    }
+
+    /**
+     * 读取槽位, 未写入过的槽位返回0
+     */
+    long get(int id) {
+        AtomicLongArray values = this.values;
+        return id < values.length() ? values.get(id) : 0;
+    }
+
+    /**
+     * 写入槽位
+     */
+    synchronized void set(int id, long value) {
+        AtomicLongArray values = this.values;
+        if (id >= values.length()) {
+            // 扩容在锁内进行, 不会丢失其他线程的写入
+            AtomicLongArray grown = new AtomicLongArray(Math.max(id + 1, values.length() * 2));
+            for (int index = 0; index < values.length(); index++) {
+                grown.set(index, values.get(index));
+            }
+            this.values = grown;
+            values = grown;
+        }
+        values.set(id, value);
+    }
+}
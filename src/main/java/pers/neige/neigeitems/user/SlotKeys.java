@@ -0,0 +1,84 @@
+package pers.neige.neigeitems.user;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 冷却组及tick组ID注册表.
+ * 将字符串形式的组ID映射为从0开始的连续整数, 作为 User 中冷却/tick槽位的下标.
+ * 物品动作在加载时完成注册, 运行时直接通过整数ID读写, 无需拼接字符串及查询哈希表.
+ * 注册表不会删除已注册的ID, 因此仅应注册加载时确定的组ID, 运行时动态生成的组ID应通过 findCooldown 查询.
+ */
+public final class SlotKeys {
+    private static final @NotNull Registry COOLDOWN = new Registry();
+    private static final @NotNull Registry TICK = new Registry();
+
+    private SlotKeys() {
+    }
+
+    /**
+     * 获取冷却组对应的整数ID, 不存在时进行注册
+     *
+     * @param key 冷却组ID
+     * @return 整数ID
+     */
+    public static int cooldown(@NotNull String key) {
+        return COOLDOWN.intern(key);
+    }
+
+    /**
+     * 获取已注册的冷却组对应的整数ID, 不进行注册
+     *
+     * @param key 冷却组ID
+     * @return 整数ID, 未注册时返回-1
+     */
+    public static int findCooldown(@NotNull String key) {
+        return COOLDOWN.find(key);
+    }
+
+    /**
+     * 获取tick组对应的整数ID, 不存在时进行注册
+     *
+     * @param group tick组ID
+     * @return 整数ID
+     */
+    public static int tick(@NotNull String group) {
+        return TICK.intern(group);
+    }
+
+    /**
+     * 获取已注册的冷却组数量
+     */
+    public static int cooldownSize() {
+        return COOLDOWN.size();
+    }
+
+    /**
+     * 获取已注册的tick组数量
+     */
+    public static int tickSize() {
+        return TICK.size();
+    }
+
+    private static final class Registry {
+        private final @NotNull ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private final @NotNull AtomicInteger counter = new AtomicInteger();
+
+        private int intern(@NotNull String key) {
+            Integer id = ids.get(key);
+            if (id != null) return id;
+            return ids.computeIfAbsent(key, (ignored) -> counter.getAndIncrement());
+        }
+
+        private int find(@NotNull String key) {
+            Integer id = ids.get(key);
+            return id == null ? -1 : id;
+        }
+
+        private int size() {
+            return counter.get();
+        }
+    }
+}
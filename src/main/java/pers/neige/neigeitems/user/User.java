@@ -19,8 +19,26 @@ public class User {
     private final ArrayDeque<SignCatcher> signCatchers = new ArrayDeque<>();
     @NotNull
     private final Map<String, Object> metadata = new ConcurrentHashMap<>();
+    /**
+     * 各冷却组的冷却结束时间
+     */
+    @NotNull
+    private final LongSlots cooldowns = new LongSlots(SlotKeys.cooldownSize());
+    /**
+     * 未在加载时注册的冷却组(脚本等动态传入的冷却组ID)的冷却结束时间
+     */
+    @NotNull
+    private final Map<String, Long> dynamicCooldowns = new ConcurrentHashMap<>();
+    /**
+     * 各tick组下次可触发的tick
+     */
+    @NotNull
+    private final LongSlots ticks = new LongSlots(SlotKeys.tickSize());
+    /**
+     * 背包槽位状态缓存
+     */
     @NotNull
-    private final Map<String, Long> cooldown = new ConcurrentHashMap<>();
+    private final InventoryCache inventoryCache = new InventoryCache();
 
     public User(
             @NotNull UUID uuid
@@ -82,6 +100,11 @@ public class User {
         return metadata;
     }
 
+    @NotNull
+    public InventoryCache getInventoryCache() {
+        return inventoryCache;
+    }
+
     /**
      * 检测冷却状态.<br>
      * 冷却完成则重新设置冷却并返回0.<br>
@@ -92,13 +115,36 @@ public class User {
      * @return 剩余冷却时间
      */
     public long checkCooldown(@NotNull String key, long cooldown) {
+        int id = cooldownSlot(key);
+        if (id >= 0) return checkCooldown(id, cooldown);
+        if (cooldown <= 0) return 0;
+        long time = System.currentTimeMillis();
+        long lastTime = dynamicCooldowns.getOrDefault(key, 0L);
+        if (lastTime > time) {
+            return lastTime - time;
+        } else {
+            dynamicCooldowns.put(key, time + cooldown);
+            return 0;
+        }
+    }
+
+    /**
+     * 检测冷却状态.<br>
+     * 冷却完成则重新设置冷却并返回0.<br>
+     * 冷却未完成则返回剩余时间.<br>
+     *
+     * @param id       冷却组整数ID(通过 SlotKeys.cooldown 获取)
+     * @param cooldown 冷却刷新时间
+     * @return 剩余冷却时间
+     */
+    public long checkCooldown(int id, long cooldown) {
         if (cooldown <= 0) return 0;
         long time = System.currentTimeMillis();
-        long lastTime = this.cooldown.getOrDefault(key, 0L);
+        long lastTime = cooldowns.get(id);
         if (lastTime > time) {
             return lastTime - time;
         } else {
-            this.cooldown.put(key, time + cooldown);
+            cooldowns.set(id, time + cooldown);
             return 0;
         }
     }
@@ -111,9 +157,29 @@ public class User {
      * @return 剩余冷却时间
      */
     public long getCooldown(@NotNull String key, long cooldown) {
+        int id = cooldownSlot(key);
+        if (id >= 0) return getCooldown(id, cooldown);
+        if (cooldown <= 0) return 0;
+        long time = System.currentTimeMillis();
+        long lastTime = dynamicCooldowns.getOrDefault(key, 0L);
+        if (lastTime > time) {
+            return lastTime - time;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * 返回剩余冷却时间.
+     *
+     * @param id       冷却组整数ID(通过 SlotKeys.cooldown 获取)
+     * @param cooldown 冷却刷新时间
+     * @return 剩余冷却时间
+     */
+    public long getCooldown(int id, long cooldown) {
         if (cooldown <= 0) return 0;
         long time = System.currentTimeMillis();
-        long lastTime = this.cooldown.getOrDefault(key, 0L);
+        long lastTime = cooldowns.get(id);
         if (lastTime > time) {
             return lastTime - time;
         } else {
@@ -128,7 +194,61 @@ public class User {
      * @param cooldown 冷却刷新时间
      */
     public void setCooldown(@NotNull String key, long cooldown) {
+        int id = cooldownSlot(key);
+        if (id >= 0) {
+            setCooldown(id, cooldown);
+        } else {
+            dynamicCooldowns.put(key, System.currentTimeMillis() + cooldown);
+        }
+    }
+
+    /**
+     * 设置进入冷却状态.
+     *
+     * @param id       冷却组整数ID(通过 SlotKeys.cooldown 获取)
+     * @param cooldown 冷却刷新时间
+     */
+    public void setCooldown(int id, long cooldown) {
         long time = System.currentTimeMillis();
-        this.cooldown.put(key, time + cooldown);
+        cooldowns.set(id, time + cooldown);
+    }
+
+    /**
+     * 获取冷却组对应的槽位.
+     * 冷却组未在加载时注册时返回-1, 此时冷却结束时间记录于 dynamicCooldowns, 避免动态冷却组ID被永久注册.
+     *
+     * @param key 冷却组ID
+     * @return 槽位, 未注册时返回-1
+     */
+    private int cooldownSlot(@NotNull String key) {
+        int id = SlotKeys.findCooldown(key);
+        if (id >= 0 && !dynamicCooldowns.isEmpty()) {
+            // 冷却组在重载后完成注册, 将已记录的冷却结束时间迁移至槽位
+            Long time = dynamicCooldowns.remove(key);
+            if (time != null && time > cooldowns.get(id)) {
+                cooldowns.set(id, time);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * 获取tick组下次可触发的tick.
+     *
+     * @param id tick组整数ID(通过 SlotKeys.tick 获取)
+     * @return 下次可触发的tick(参见 TickInventory.currentTick)
+     */
+    public long getTick(int id) {
+        return ticks.get(id);
+    }
+
+    /**
+     * 设置tick组下次可触发的tick.
+     *
+     * @param id   tick组整数ID(通过 SlotKeys.tick 获取)
+     * @param tick 下次可触发的tick(参见 TickInventory.currentTick)
+     */
+    public void setTick(int id, long tick) {
+        ticks.set(id, tick);
     }
 }
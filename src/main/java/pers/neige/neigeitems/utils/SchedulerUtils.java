@@ -54,6 +54,7 @@ public class SchedulerUtils {
 
     /**
      * 在主线程执行一段代码, 如果当前正处于主线程则直接执行, 如果不处在主线程则调用 runTask.
+     * 插件通过 {@link SyncTaskQueue#configure} 启用主线程任务队列后, 改为放入队列统一执行.
      *
      * @param plugin 注册任务的插件.
      * @param task   执行的代码.
@@ -64,6 +65,8 @@ public class SchedulerUtils {
     ) {
         if (Bukkit.isPrimaryThread()) {
             task.run();
+        } else if (SyncTaskQueue.isEnabled(plugin)) {
+            SyncTaskQueue.submit(plugin, task);
         } else {
             Bukkit.getScheduler().runTask(plugin, task);
         }
@@ -0,0 +1,281 @@
+package pers.neige.neigeitems.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 预编译的节点文本.
+ * 文本仅在编译时逐字符扫描一次, 得到由普通文本与节点组成的不可变节点树, 后续解析直接遍历节点树.
+ * 不含嵌套的节点在编译时即完成类型与参数拆分.
+ */
+public final class SectionTemplate {
+    /**
+     * 节点文本分隔符
+     */
+    private static final String TYPE_SEPARATOR = "::";
+
+    /**
+     * 由 String(普通文本) 及 Section(节点) 组成
+     */
+    private final @NotNull Object[] parts;
+
+    private SectionTemplate(@NotNull Object[] parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * 编译文本
+     *
+     * @param text   待编译文本
+     * @param head   节点起始标识
+     * @param tail   节点终止标识
+     * @param escape 转义符
+     * @return 编译结果
+     */
+    @NotNull
+    public static SectionTemplate compile(
+            @NotNull String text,
+            char head,
+            char tail,
+            char escape
+    ) {
+        // 缓存未闭合的节点
+        ArrayDeque<Builder> builders = new ArrayDeque<>();
+        // 顶层文本
+        Builder result = new Builder();
+        // 表示前一个字符是不是转义符
+        boolean lastIsEscape = false;
+        for (int index = 0; index < text.length(); index++) {
+            char c = text.charAt(index);
+            // 当前字符是不是起始标识
+            boolean isHead = c == head;
+            // 当前字符是不是终止标识
+            boolean isTail = c == tail;
+            // 当前字符是不是转义符
+            boolean isEscape = c == escape;
+            // 当前为节点起始标识且前一字符不是转义符, 代表节点的起始
+            if (isHead && !lastIsEscape) {
+                builders.addLast(new Builder());
+                // 当前为节点终止标识且前一字符不是转义符
+            } else if (isTail && !lastIsEscape) {
+                // 前面有节点起始标识
+                if (!builders.isEmpty()) {
+                    Section section = builders.removeLast().toSection(head, tail);
+                    Builder parent = builders.peekLast();
+                    // 存在父节点则为嵌套节点, 否则为顶级节点
+                    (parent != null ? parent : result).add(section);
+                } else {
+                    result.append(c);
+                }
+                // 字符不为节点的起始或终止
+            } else {
+                Builder builder = builders.isEmpty() ? result : builders.peekLast();
+                // 如果前一字符为转义符, 理应判断当前字符是否需要转义
+                // 需要转义则吞掉转义符, 不需转义则将转义符视作普通反斜杠处理
+                if (!isHead && !isTail && !isEscape && lastIsEscape) {
+                    builder.append(escape);
+                }
+                // 如果当前字符不为转义符, 直接填入字符
+                if (!isEscape || lastIsEscape) {
+                    builder.append(c);
+                }
+            }
+            // 进行转义符记录
+            lastIsEscape = isEscape && !lastIsEscape;
+        }
+        // 遍历结束后仍存在未闭合节点, 说明文本中存在冗余节点起始标识, 应将该标识符视作普通文本处理
+        for (Builder builder : builders) {
+            result.append(head);
+            result.addAll(builder);
+        }
+        return new SectionTemplate(result.toParts());
+    }
+
+    /**
+     * 文本中是否不包含任何节点
+     */
+    public boolean isStatic() {
+        return parts.length == 0 || (parts.length == 1 && parts[0] instanceof String);
+    }
+
+    /**
+     * 对文本进行解析
+     *
+     * @param transform 解析函数, 传入去掉首尾标识的节点内容, 返回null代表保留原文本
+     * @return 解析值
+     */
+    @NotNull
+    public String evaluate(@NotNull Function<String, @Nullable String> transform) {
+        if (parts.length == 0) return "";
+        if (parts.length == 1 && parts[0] instanceof String) return (String) parts[0];
+        StringBuilder builder = new StringBuilder();
+        for (Object part : parts) {
+            if (part instanceof String) {
+                builder.append((String) part);
+            } else {
+                builder.append(((Section) part).evaluate(transform));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 对文本进行解析
+     *
+     * @param handler 节点处理器
+     * @return 解析值
+     */
+    @NotNull
+    public String evaluate(@NotNull Handler handler) {
+        if (parts.length == 0) return "";
+        if (parts.length == 1 && parts[0] instanceof String) return (String) parts[0];
+        StringBuilder builder = new StringBuilder();
+        for (Object part : parts) {
+            if (part instanceof String) {
+                builder.append((String) part);
+            } else {
+                builder.append(((Section) part).evaluate(handler));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 节点处理器
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * 处理节点
+         *
+         * @param text 节点内容(已经去掉首尾标识)
+         * @param type 即时声明节点类型, 私有节点调用时为null
+         * @param args 即时声明节点参数, 私有节点调用时为null
+         * @return 解析值, 返回null代表保留原文本
+         */
+        @Nullable
+        String handle(@NotNull String text, @Nullable String type, @Nullable List<String> args);
+    }
+
+    /**
+     * 节点
+     */
+    private static final class Section {
+        private final char head;
+        private final char tail;
+        /**
+         * 节点内容, 内容中存在嵌套节点时需要先行解析
+         */
+        private final @NotNull SectionTemplate content;
+        /**
+         * 不存在嵌套节点时的节点内容
+         */
+        private final @Nullable String text;
+        /**
+         * 不存在嵌套节点时的即时声明节点类型
+         */
+        private final @Nullable String type;
+        /**
+         * 不存在嵌套节点时的即时声明节点参数
+         */
+        private final @Nullable List<String> args;
+
+        private Section(char head, char tail, @NotNull SectionTemplate content) {
+            this.head = head;
+            this.tail = tail;
+            this.content = content;
+            if (content.isStatic()) {
+                this.text = content.evaluate((Function<String, String>) it -> it);
+                int index = text.indexOf(TYPE_SEPARATOR);
+                if (index != -1) {
+                    this.type = text.substring(0, index);
+                    this.args = Collections.unmodifiableList(StringUtils.split(text.substring(index + 2), '_', '\\'));
+                } else {
+                    this.type = null;
+                    this.args = null;
+                }
+            } else {
+                this.text = null;
+                this.type = null;
+                this.args = null;
+            }
+        }
+
+        @NotNull
+        private String evaluate(@NotNull Function<String, @Nullable String> transform) {
+            String text = this.text != null ? this.text : content.evaluate(transform);
+            String result = transform.apply(text);
+            return result != null ? result : head + text + tail;
+        }
+
+        @NotNull
+        private String evaluate(@NotNull Handler handler) {
+            String result;
+            String text = this.text;
+            if (text != null) {
+                result = handler.handle(text, type, args);
+            } else {
+                text = content.evaluate(handler);
+                int index = text.indexOf(TYPE_SEPARATOR);
+                if (index != -1) {
+                    result = handler.handle(text, text.substring(0, index), StringUtils.split(text.substring(index + 2), '_', '\\'));
+                } else {
+                    result = handler.handle(text, null, null);
+                }
+            }
+            return result != null ? result : head + text + tail;
+        }
+    }
+
+    /**
+     * 编译过程中用于缓存节点内容
+     */
+    private static final class Builder {
+        private final @NotNull List<Object> parts = new ArrayList<>();
+        private final @NotNull StringBuilder literal = new StringBuilder();
+
+        private void append(char c) {
+            literal.append(c);
+        }
+
+        private void add(@NotNull Section section) {
+            flush();
+            parts.add(section);
+        }
+
+        private void addAll(@NotNull Builder builder) {
+            for (Object part : builder.parts) {
+                if (part instanceof String) {
+                    literal.append((String) part);
+                } else {
+                    add((Section) part);
+                }
+            }
+            literal.append(builder.literal);
+        }
+
+        private void flush() {
+            if (literal.length() > 0) {
+                parts.add(literal.toString());
+                literal.setLength(0);
+            }
+        }
+
+        @NotNull
+        private Object[] toParts() {
+            flush();
+            return parts.toArray();
+        }
+
+        @NotNull
+        private Section toSection(char head, char tail) {
+            return new Section(head, tail, new SectionTemplate(toParts()));
+        }
+    }
+}
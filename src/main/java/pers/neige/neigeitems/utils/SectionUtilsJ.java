@@ -3,10 +3,30 @@ package pers.neige.neigeitems.utils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 public class SectionUtilsJ {
+    /**
+     * 节点模板缓存上限, 超出后按 second-chance 策略淘汰近期未使用的模板
+     */
+    private static final int TEMPLATE_CACHE_SIZE = 8192;
+    /**
+     * 默认标识符下的节点模板缓存.
+     * 仅缓存重复出现的文本(配置中的常驻文本), 解析结果等仅出现一次的动态文本不会进入缓存.
+     */
+    private static final ConcurrentHashMap<String, CachedTemplate> templates = new ConcurrentHashMap<>();
+    /**
+     * 仅出现过一次的文本, 再次出现时才进入模板缓存, 超出上限后清空
+     */
+    private static final ConcurrentHashMap<String, Boolean> seen = new ConcurrentHashMap<>();
+    /**
+     * 是否有线程正在淘汰模板
+     */
+    private static final AtomicBoolean evicting = new AtomicBoolean();
+
     @NotNull
     static String parse(
             @NotNull String text,
@@ -15,75 +35,99 @@ public class SectionUtilsJ {
             char escape,
             Function<String, @Nullable String> transform
     ) {
-        // 缓存待解析节点
-        ArrayDeque<StringBuilder> stringBuilders = new ArrayDeque<>();
-        // 储存解析结果
-        StringBuilder result = new StringBuilder();
-        char[] chars = text.toCharArray();
-        // 表示前一个字符是不是转义符
-        boolean lastIsEscape = false;
-        // 遍历
-        for (char c : chars) {
-            // 当前字符是不是起始标识
-            boolean isHead = c == head;
-            // 当前字符是不是终止标识
-            boolean isTail = c == tail;
-            // 当前字符是不是转义符
-            boolean isEscape = c == escape;
-            // 当前为节点起始标识且前一字符不是转义符, 代表节点的起始
-            if (isHead && !lastIsEscape) {
-                // 添加一个新的StringBuilder, 用于缓存当前节点文本
-                stringBuilders.addLast(new StringBuilder());
-                // 当前为节点终止标识且前一字符不是转义符
-            } else if (isTail && !lastIsEscape) {
-                // 前面有节点起始标识
-                if (!stringBuilders.isEmpty()) {
-                    String string = stringBuilders.removeLast().toString();
-                    String parseResult = transform.apply(string);
-                    if (parseResult == null) parseResult = head + string + tail;
-                    StringBuilder builder = stringBuilders.peekLast();
-                    // 还不止一个
-                    if (builder != null) {
-                        // 证明这是一个嵌套节点, 解析当前内容, append进父节点的待解析文本里, 移除当前节点的缓存
-                        builder.append(parseResult);
-                        // 只有一个
+        // 不存在节点起始标识及转义符, 解析结果必然与原文本一致
+        if (text.indexOf(head) == -1 && text.indexOf(escape) == -1) return text;
+        return compile(text, head, tail, escape).evaluate(transform);
+    }
+
+    @NotNull
+    static String parse(
+            @NotNull String text,
+            @NotNull SectionTemplate.Handler handler
+    ) {
+        if (text.indexOf('<') == -1 && text.indexOf('\\') == -1) return text;
+        return compile(text).evaluate(handler);
+    }
+
+    /**
+     * 获取文本对应的节点模板(使用默认标识符 < > \), 同一文本仅编译一次
+     *
+     * @param text 待编译文本
+     * @return 节点模板
+     */
+    @NotNull
+    public static SectionTemplate compile(@NotNull String text) {
+        CachedTemplate cached = templates.get(text);
+        if (cached != null) {
+            if (!cached.referenced) cached.referenced = true;
+            return cached.template;
+        }
+        SectionTemplate template = SectionTemplate.compile(text, '<', '>', '\\');
+        // 首次出现的文本仅做记录, 不进入缓存
+        if (seen.remove(text) == null) {
+            if (seen.size() >= TEMPLATE_CACHE_SIZE) {
+                seen.clear();
+            }
+            seen.put(text, Boolean.TRUE);
+            return template;
+        }
+        if (templates.size() >= TEMPLATE_CACHE_SIZE) {
+            evict();
+        }
+        // 并发编译同一文本时结果一致, 后写入者覆盖即可
+        templates.put(text, new CachedTemplate(template));
+        return template;
+    }
+
+    /**
+     * 淘汰近期未使用的模板: 清除被访问标记, 移除没有标记的模板, 直至移除缓存上限的1/4.
+     * 同一时间仅由一个线程执行, 其余线程不等待.
+     */
+    private static void evict() {
+        if (!evicting.compareAndSet(false, true)) return;
+        try {
+            int target = TEMPLATE_CACHE_SIZE / 4;
+            int removed = 0;
+            // 最多遍历两轮, 第二轮时第一轮清除的标记已不再保护模板
+            for (int round = 0; round < 2 && removed < target; round++) {
+                Iterator<CachedTemplate> iterator = templates.values().iterator();
+                while (iterator.hasNext() && removed < target) {
+                    CachedTemplate cached = iterator.next();
+                    if (cached.referenced) {
+                        cached.referenced = false;
                     } else {
-                        // 证明当前节点是一个顶级节点, 解析当前内容, append进结果文本, 移除节点缓存
-                        result.append(parseResult);
+                        iterator.remove();
+                        removed++;
                     }
-                } else {
-                    // 因为已经检查过, 当前字符不被转义, 且不为反斜杠, 所以可以直接append
-                    result.append(c);
-                }
-                // 字符不为节点的起始或终止
-            } else {
-                // 如果stringBuilders不为空, 说明当前仍在解析进行节点识别, 应将字符填入节点缓存
-                // 如果stringBuilders为空, 说明当前处于顶层, 应直接填入result
-                StringBuilder stringBuilder = stringBuilders.isEmpty() ? result : stringBuilders.peekLast();
-                // 如果前一字符为转义符, 理应判断当前字符是否需要转义
-                // 需要转义则吞掉转义符, 不需转义则将转义符视作普通反斜杠处理
-                if (!isHead && !isTail && !isEscape && lastIsEscape) {
-                    stringBuilder.append(escape);
-                }
-                // 如果当前字符不为转义符, 直接填入字符
-                if (!isEscape || lastIsEscape) {
-                    stringBuilder.append(c);
                 }
             }
-            // 进行转义符记录
-            lastIsEscape = isEscape && !lastIsEscape;
+        } finally {
+            evicting.set(false);
         }
-        // 遍历结束后stringBuilders不为空, 说明文本中存在冗余节点起始标识
-        // 对于此种情况, 应将该标识符视作普通文本处理
-        if (!stringBuilders.isEmpty()) {
-            // 遍历stringBuilders
-            for (StringBuilder stringBuilder : stringBuilders) {
-                // 填入节点起始标识
-                result.append(head);
-                // 填入文本
-                result.append(stringBuilder);
-            }
+    }
+
+    @NotNull
+    private static SectionTemplate compile(
+            @NotNull String text,
+            char head,
+            char tail,
+            char escape
+    ) {
+        if (head == '<' && tail == '>' && escape == '\\') {
+            return compile(text);
+        }
+        return SectionTemplate.compile(text, head, tail, escape);
+    }
+
+    private static final class CachedTemplate {
+        private final @NotNull SectionTemplate template;
+        /**
+         * 上次淘汰后是否被访问过
+         */
+        private volatile boolean referenced;
+
+        private CachedTemplate(@NotNull SectionTemplate template) {
+            this.template = template;
         }
-        return result.toString();
     }
 }
@@ -0,0 +1,180 @@
+package pers.neige.neigeitems.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import pers.neige.neigeitems.NeigeItems;
+import pers.neige.neigeitems.annotation.Awake;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * 主线程任务队列.
+ * 非主线程提交的主线程任务进入无锁队列, 由每tick执行一次的重复任务统一执行, 避免为每个任务单独创建 BukkitTask.
+ * 可配置每tick的执行时间上限, 超出上限的任务顺延至下一tick执行.
+ * 队列需由插件通过 {@link #configure} 自行启用, 队列空闲时重复任务自动取消, 有新任务时再重新启动.
+ */
+public final class SyncTaskQueue {
+    /**
+     * 各插件对应的任务队列
+     */
+    private static final @NotNull ConcurrentHashMap<Plugin, SyncTaskQueue> queues = new ConcurrentHashMap<>();
+    /**
+     * 已启用任务队列的插件及对应的每tick执行时间上限(毫秒, 0代表不限制)
+     */
+    private static final @NotNull ConcurrentHashMap<Plugin, Long> budgets = new ConcurrentHashMap<>();
+
+    private final @NotNull Plugin plugin;
+    private final @NotNull ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    /**
+     * 已提交但尚未执行的任务数量
+     */
+    private final @NotNull AtomicInteger pending = new AtomicInteger();
+    private volatile @Nullable BukkitTask drainTask;
+
+    private SyncTaskQueue(@NotNull Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 启用或关闭插件的主线程任务队列.
+     *
+     * @param plugin  对应插件.
+     * @param enabled 是否启用.
+     * @param budget  每tick执行队列任务的时间上限(毫秒), 0代表不限制.
+     */
+    public static void configure(
+            @NotNull Plugin plugin,
+            boolean enabled,
+            long budget
+    ) {
+        if (enabled) {
+            budgets.put(plugin, budget);
+        } else {
+            // 已提交的任务仍会执行完毕
+            budgets.remove(plugin);
+        }
+    }
+
+    /**
+     * 插件是否启用了主线程任务队列.
+     *
+     * @param plugin 对应插件.
+     */
+    public static boolean isEnabled(@NotNull Plugin plugin) {
+        return budgets.containsKey(plugin);
+    }
+
+    /**
+     * 关闭插件的主线程任务队列, 取消重复任务并立即执行剩余任务.
+     * 插件卸载时调用, 避免重新加载后沿用已被 Bukkit 取消的重复任务.
+     *
+     * @param plugin 对应插件.
+     */
+    public static void shutdown(@NotNull Plugin plugin) {
+        budgets.remove(plugin);
+        SyncTaskQueue queue = queues.remove(plugin);
+        if (queue == null) return;
+        synchronized (queue) {
+            BukkitTask task = queue.drainTask;
+            if (task != null) {
+                task.cancel();
+                queue.drainTask = null;
+            }
+        }
+        Runnable task;
+        while ((task = queue.tasks.poll()) != null) {
+            queue.pending.decrementAndGet();
+            queue.run(task);
+        }
+    }
+
+    @Awake(lifeCycle = Awake.LifeCycle.DISABLE)
+    private static void disable() {
+        shutdown(NeigeItems.getInstance());
+    }
+
+    /**
+     * 提交一个主线程任务, 任务将于下一tick执行.
+     *
+     * @param plugin 注册任务的插件.
+     * @param task   执行的代码.
+     */
+    public static void submit(
+            @NotNull Plugin plugin,
+            @NotNull Runnable task
+    ) {
+        // 插件已卸载, 交由 Bukkit 处理(抛出异常)
+        if (!plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, task);
+            return;
+        }
+        queues.computeIfAbsent(plugin, SyncTaskQueue::new).offer(task);
+    }
+
+    private void offer(@NotNull Runnable task) {
+        tasks.offer(task);
+        pending.incrementAndGet();
+        if (drainTask == null) {
+            synchronized (this) {
+                if (drainTask == null) {
+                    drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 0, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * 队列空闲时取消重复任务.
+     * 取消后再次检查队列, 避免遗漏取消期间提交(且看到旧的重复任务而未重新启动)的任务.
+     */
+    private synchronized void stopIfIdle() {
+        BukkitTask task = drainTask;
+        if (task == null || pending.get() > 0) return;
+        task.cancel();
+        drainTask = null;
+        if (pending.get() > 0) {
+            drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 0, 1);
+        }
+    }
+
+    private void run(@NotNull Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable error) {
+            plugin.getLogger().log(Level.WARNING, "主线程任务执行异常", error);
+        }
+    }
+
+    /**
+     * 执行队列中的任务.
+     * 仅执行本次开始前已提交的任务, 避免异步线程持续提交任务导致主线程无法退出.
+     */
+    private void drain() {
+        int count = pending.get();
+        // 空闲一整个tick后取消重复任务
+        if (count <= 0) {
+            stopIfIdle();
+            return;
+        }
+        long budget = budgets.getOrDefault(plugin, 0L) * 1_000_000L;
+        long deadline = budget > 0 ? System.nanoTime() + budget : Long.MAX_VALUE;
+        int executed = 0;
+        Runnable task;
+        try {
+            while (executed < count && (task = tasks.poll()) != null) {
+                executed++;
+                run(task);
+                // 超出时间上限, 剩余任务顺延至下一tick
+                if (System.nanoTime() >= deadline) break;
+            }
+        } finally {
+            pending.addAndGet(-executed);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package pers.neige.neigeitems.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮.
+ * 按到期时间登记任务, 推进时仅处理到期刻度所在桶中的任务, 无需逐个比较所有任务的到期时间.
+ * 共4层, 每层64个桶, 第0层每个桶对应一个刻度, 超出最高层范围的任务进入溢出列表, 最高层转完一圈时重新分配.
+ *
+ * @param <T> 任务类型
+ */
+public final class TimingWheel<T> {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    /**
+     * 单次推进跨越的刻度超过该值时(如系统时间被调整), 直接重新分配所有任务, 不再逐刻度推进
+     */
+    private static final long MAX_STEPS = (long) WHEEL_SIZE * WHEEL_SIZE;
+
+    /**
+     * 每个刻度的毫秒数
+     */
+    private final long tickMillis;
+    @SuppressWarnings("unchecked")
+    private final @NotNull List<Entry<T>>[][] buckets = new List[LEVELS][WHEEL_SIZE];
+    private @NotNull List<Entry<T>> overflow = new ArrayList<>();
+    /**
+     * 已到期但尚未处理的任务
+     */
+    private @NotNull List<Entry<T>> expired = new ArrayList<>();
+    /**
+     * 当前刻度
+     */
+    private long currentTick;
+    private int size = 0;
+
+    /**
+     * @param tickMillis 每个刻度的毫秒数
+     * @param now        当前时间(毫秒)
+     */
+    public TimingWheel(long tickMillis, long now) {
+        this.tickMillis = tickMillis;
+        this.currentTick = now / tickMillis;
+    }
+
+    /**
+     * 登记任务, 任务不会早于到期时间被处理
+     *
+     * @param time  到期时间(毫秒)
+     * @param value 任务
+     */
+    public synchronized void schedule(long time, @NotNull T value) {
+        time = Math.max(time, 0);
+        // 向上取整至刻度, 避免在到期时间前的同一刻度内提前触发
+        long tick = time / tickMillis;
+        if (tick * tickMillis < time) tick++;
+        place(new Entry<>(tick, value));
+        size++;
+    }
+
+    /**
+     * 推进至当前时间, 处理所有到期任务
+     *
+     * @param now      当前时间(毫秒)
+     * @param consumer 到期任务处理器
+     */
+    public void advance(long now, @NotNull Consumer<T> consumer) {
+        List<Entry<T>> fired;
+        synchronized (this) {
+            long target = now / tickMillis;
+            if (target - currentTick > MAX_STEPS) {
+                List<Entry<T>> entries = drainAll();
+                currentTick = target;
+                entries.forEach(this::place);
+            } else {
+                while (currentTick < target) {
+                    currentTick++;
+                    cascade();
+                    List<Entry<T>> bucket = buckets[0][(int) (currentTick & WHEEL_MASK)];
+                    if (bucket != null && !bucket.isEmpty()) {
+                        expired.addAll(bucket);
+                        bucket.clear();
+                    }
+                }
+            }
+            if (expired.isEmpty()) return;
+            fired = expired;
+            expired = new ArrayList<>();
+            size -= fired.size();
+        }
+        // 在锁外处理, 处理器中可以重新登记任务
+        for (Entry<T> entry : fired) {
+            consumer.accept(entry.value);
+        }
+    }
+
+    /**
+     * 获取已登记且尚未到期的任务数量
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 当前刻度跨越高层桶的边界时, 将对应高层桶中的任务重新分配至低层
+     */
+    private void cascade() {
+        if ((currentTick & WHEEL_MASK) != 0) return;
+        // 自高层向低层依次分配, 保证任务在到期前落入第0层
+        int top = 1;
+        while (top < LEVELS && ((currentTick >> (WHEEL_BITS * top)) & WHEEL_MASK) == 0) {
+            top++;
+        }
+        if (top == LEVELS) {
+            List<Entry<T>> entries = overflow;
+            overflow = new ArrayList<>();
+            entries.forEach(this::place);
+            top = LEVELS - 1;
+        }
+        for (int level = top; level >= 1; level--) {
+            List<Entry<T>> bucket = buckets[level][(int) ((currentTick >> (WHEEL_BITS * level)) & WHEEL_MASK)];
+            if (bucket == null || bucket.isEmpty()) continue;
+            List<Entry<T>> entries = new ArrayList<>(bucket);
+            bucket.clear();
+            entries.forEach(this::place);
+        }
+    }
+
+    /**
+     * 根据到期刻度将任务放入对应层的桶中
+     */
+    private void place(@NotNull Entry<T> entry) {
+        long deadline = entry.deadline;
+        if (deadline <= currentTick) {
+            expired.add(entry);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * (level + 1);
+            // 到期刻度与当前刻度处于同一个上层桶中, 放入本层
+            if ((deadline >> shift) == (currentTick >> shift)) {
+                int index = (int) ((deadline >> (WHEEL_BITS * level)) & WHEEL_MASK);
+                List<Entry<T>> bucket = buckets[level][index];
+                if (bucket == null) {
+                    bucket = new ArrayList<>();
+                    buckets[level][index] = bucket;
+                }
+                bucket.add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private @NotNull List<Entry<T>> drainAll() {
+        List<Entry<T>> entries = new ArrayList<>(expired);
+        expired.clear();
+        for (List<Entry<T>>[] level : buckets) {
+            for (List<Entry<T>> bucket : level) {
+                if (bucket == null) continue;
+                entries.addAll(bucket);
+                bucket.clear();
+            }
+        }
+        entries.addAll(overflow);
+        overflow.clear();
+        return entries;
+    }
+
+    private static final class Entry<T> {
+        private final long deadline;
+        private final @NotNull T value;
+
+        private Entry(long deadline, @NotNull T value) {
+            this.deadline = deadline;
+            this.value = value;
+        }
+    }
+}
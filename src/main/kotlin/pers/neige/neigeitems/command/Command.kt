@@ -71,6 +71,7 @@ object Command {
             .registerAndRecord(List.list)
             .registerAndRecord(MM.mm)
             .registerAndRecord(Parse.parse)
+            .registerAndRecord(Profile.profile)
             .registerAndRecord(Reload.reload)
             .registerAndRecord(Save.save)
             .registerAndRecord(Save.cover)
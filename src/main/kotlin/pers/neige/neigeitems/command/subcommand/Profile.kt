@@ -0,0 +1,139 @@
+package pers.neige.neigeitems.command.subcommand
+
+import com.mojang.brigadier.arguments.StringArgumentType.getString
+import com.mojang.brigadier.arguments.StringArgumentType.word
+import com.mojang.brigadier.builder.LiteralArgumentBuilder
+import org.bukkit.command.CommandSender
+import pers.neige.neigeitems.action.ActionProfiler
+import pers.neige.neigeitems.command.CommandUtils.argument
+import pers.neige.neigeitems.command.CommandUtils.literal
+import pers.neige.neigeitems.command.arguments.IntegerArgumentType
+import pers.neige.neigeitems.command.arguments.IntegerArgumentType.getInteger
+import pers.neige.neigeitems.manager.ConfigManager
+import pers.neige.neigeitems.task.TickInventory
+import pers.neige.neigeitems.utils.LangUtils.getLang
+import pers.neige.neigeitems.utils.LangUtils.sendLang
+import java.util.*
+
+/**
+ * ni profile指令
+ */
+object Profile {
+    val profile: LiteralArgumentBuilder<CommandSender> =
+        // ni profile
+        literal<CommandSender>("profile").then(
+            // ni profile start
+            literal<CommandSender>("start").executes { context ->
+                ActionProfiler.start()
+                context.source.sendLang("Messages.profileStarted")
+                1
+            }
+        ).then(
+            // ni profile stop
+            literal<CommandSender>("stop").executes { context ->
+                ActionProfiler.stop()
+                context.source.sendLang("Messages.profileStopped")
+                1
+            }
+        ).then(
+            // ni profile dump
+            literal<CommandSender>("dump").executes { context ->
+                dump(context.source)
+                1
+            }.then(
+                // ni profile dump (排序方式)
+                argument<CommandSender, String>("sort", word()).executes { context ->
+                    dump(context.source, getString(context, "sort"))
+                    1
+                }.suggests { _, builder ->
+                    ActionProfiler.Sort.values().forEach {
+                        val name = it.name.lowercase(Locale.getDefault())
+                        if (name.startsWith(builder.remaining.lowercase(Locale.getDefault()))) {
+                            builder.suggest(name)
+                        }
+                    }
+                    builder.buildFuture()
+                }.then(
+                    // ni profile dump (排序方式) (条数)
+                    argument<CommandSender, Int>("limit", IntegerArgumentType.positiveInteger()).executes { context ->
+                        dump(context.source, getString(context, "sort"), getInteger(context, "limit"))
+                        1
+                    }
+                )
+            )
+        )
+
+    private fun dump(
+        sender: CommandSender,
+        sortName: String = "total",
+        limit: Int = 10
+    ) {
+        val sort = ActionProfiler.Sort.match(sortName) ?: let {
+            sender.sendLang(
+                "Messages.invalidProfileSort", mapOf(
+                    "{sort}" to sortName,
+                    "{sorts}" to ActionProfiler.Sort.values().joinToString { it.name.lowercase(Locale.getDefault()) }
+                )
+            )
+            return
+        }
+        val startTime = ActionProfiler.getStartTime()
+        if (startTime == 0L) {
+            sender.sendLang("Messages.profileNotStarted")
+            return
+        }
+        val snapshots = ActionProfiler.top(sort, limit)
+        val state = getLang(if (ActionProfiler.isEnabled()) "Messages.profileRecording" else "Messages.profileFinished")
+        sender.sendLang(
+            "Messages.profileHeader", mapOf(
+                "{state}" to (state ?: ""),
+                "{time}" to ((System.currentTimeMillis() - startTime) / 1000).toString(),
+                "{sort}" to sort.name.lowercase(Locale.getDefault())
+            )
+        )
+        if (ConfigManager.tickShards > 1 || ConfigManager.tickBudget > 0) {
+            // 背包扫描积压情况
+            sender.sendLang(
+                "Messages.profileBacklog", mapOf(
+                    "{backlog}" to TickInventory.backlogSize.toString(),
+                    "{deferred}" to TickInventory.deferredCount.toString()
+                )
+            )
+        }
+        if (snapshots.isEmpty()) {
+            sender.sendLang("Messages.profileEmpty")
+            return
+        }
+        snapshots.forEachIndexed { index, snapshot ->
+            if (snapshot.count == 0L) {
+                // 仅记录了循环次数
+                sender.sendLang(
+                    "Messages.profileIterations", mapOf(
+                        "{index}" to (index + 1).toString(),
+                        "{key}" to snapshot.key,
+                        "{iterations}" to snapshot.iterations.toString(),
+                        "{yields}" to snapshot.yields.toString()
+                    )
+                )
+                return@forEachIndexed
+            }
+            sender.sendLang(
+                "Messages.profileEntry", mapOf(
+                    "{index}" to (index + 1).toString(),
+                    "{key}" to snapshot.key,
+                    "{count}" to snapshot.count.toString(),
+                    "{total}" to snapshot.totalNanos.toMillis(),
+                    "{avg}" to snapshot.avgNanos.toMicros(),
+                    "{p99}" to snapshot.p99Nanos.toMicros(),
+                    "{main}" to snapshot.mainNanos.toMillis(),
+                    "{mainCount}" to snapshot.mainCount.toString(),
+                    "{async}" to snapshot.asyncNanos.toMillis()
+                )
+            )
+        }
+    }
+
+    private fun Long.toMillis(): String = String.format("%.2f", this / 1_000_000.0)
+
+    private fun Long.toMicros(): String = String.format("%.1f", this / 1_000.0)
+}
@@ -75,14 +75,27 @@ object Reload {
                 // ItemManager初始化的时候会将引用的全局节点写入ItemGenerator
                 // 而全局节点由SectionManager加载
                 // 所以SectionManager应该在ItemManager之前重载
-                SectionManager.reload()
-                debug("节点重载耗时: ${System.currentTimeMillis() - time}ms")
-                time = System.currentTimeMillis()
+                // 节点与物品的重载需要与物品文件监听触发的增量重载互斥
+                synchronized(ItemManager) {
+                    if (ConfigManager.incrementalItemReload) {
+                        val changedSections = SectionManager.reloadChanged()
+                        debug("节点重载耗时: ${System.currentTimeMillis() - time}ms")
+                        time = System.currentTimeMillis()
 
-                debug("加载耗时大于1ms的物品将被提示:")
-                ItemManager.reload()
-                debug("物品重载耗时: ${System.currentTimeMillis() - time}ms")
-                time = System.currentTimeMillis()
+                        val changedIds = ItemManager.reloadChanged(changedSections)
+                        debug("物品增量重载耗时: ${System.currentTimeMillis() - time}ms, 重建物品数: ${changedIds.size}")
+                        time = System.currentTimeMillis()
+                    } else {
+                        SectionManager.reload()
+                        debug("节点重载耗时: ${System.currentTimeMillis() - time}ms")
+                        time = System.currentTimeMillis()
+
+                        debug("加载耗时大于1ms的物品将被提示:")
+                        ItemManager.reload()
+                        debug("物品重载耗时: ${System.currentTimeMillis() - time}ms")
+                        time = System.currentTimeMillis()
+                    }
+                }
             }
 
             if (type == null || reloadType == PluginReloadEvent.Type.SCRIPT) {
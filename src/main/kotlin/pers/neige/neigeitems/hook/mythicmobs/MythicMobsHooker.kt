@@ -388,11 +388,8 @@ abstract class MythicMobsHooker {
                         offsetYString = itemPack.offsetYString
                         angleType = itemPack.angleType
                     }
-                    // 重复amount次
-                    repeat(amount) {
-                        // 加载物品掉落信息
-                        dropItems.addAll(itemPack.getItemStacks(player, data))
-                    }
+                    // 重复amount次, 加载物品掉落信息
+                    dropItems.addAll(itemPack.getItemStacks(player, data, amount))
                 }
             }
         }
@@ -105,6 +105,18 @@ abstract class NashornHooker {
         vararg args: Any
     ): Any?
 
+    /**
+     * 调用一个js函数对象, 返回函数返回值
+     *
+     * @param function 待调用函数(由脚本返回的函数对象)
+     * @param args 传入函数的参数
+     * @return 返回值
+     */
+    abstract fun call(
+        function: Any,
+        vararg args: Any?
+    ): Any?
+
     /**
      * 检测引擎中是否包含对应函数
      *
@@ -28,6 +28,13 @@ class LegacyNashornHookerImpl : NashornHooker() {
         return newObject.callMember(function, *args)
     }
 
+    override fun call(
+        function: Any,
+        vararg args: Any?
+    ): Any? {
+        return (function as ScriptObjectMirror).call(null, *args)
+    }
+
     override fun isFunction(engine: ScriptEngine, func: Any?): Boolean {
         return func is ScriptObjectMirror && func.isFunction
     }
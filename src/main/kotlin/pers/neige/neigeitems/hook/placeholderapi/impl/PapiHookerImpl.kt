@@ -1,6 +1,7 @@
 package pers.neige.neigeitems.hook.placeholderapi.impl
 
 import me.clip.placeholderapi.PlaceholderAPIPlugin
+import me.clip.placeholderapi.expansion.PlaceholderExpansion as PapiExpansion
 import org.bukkit.Bukkit
 import org.bukkit.OfflinePlayer
 import pers.neige.neigeitems.hook.placeholderapi.PapiHooker
@@ -10,16 +11,24 @@ import java.util.*
 /**
  * 高版本PlaceholderAPI挂钩
  *
- * @constructor 启用高版本PlaceholderAPI挂钩
+ * @property expansionGetter 根据小写标识符获取papi扩展
+ * @constructor 根据指定的papi扩展获取方式启用高版本PlaceholderAPI挂钩
  */
-class PapiHookerImpl : PapiHooker() {
-    private val localExpansionManager
-        get() = (Bukkit.getPluginManager().getPlugin("PlaceholderAPI") as PlaceholderAPIPlugin).localExpansionManager
-
-    init {
+class PapiHookerImpl(
+    private val expansionGetter: (String) -> PapiExpansion?
+) : PapiHooker() {
+    /**
+     * 启用高版本PlaceholderAPI挂钩
+     */
+    constructor() : this({ localExpansionManager.getExpansion(it) }) {
         localExpansionManager
     }
 
+    private companion object {
+        private val localExpansionManager
+            get() = (Bukkit.getPluginManager().getPlugin("PlaceholderAPI") as PlaceholderAPIPlugin).localExpansionManager
+    }
+
     override fun papi(player: OfflinePlayer?, text: String): String {
         val chars = text.toCharArray()
         val builder = StringBuilder(text.length)
@@ -86,7 +95,7 @@ class PapiHookerImpl : PapiHooker() {
                 continue
             }
 
-            val placeholder = localExpansionManager.getExpansion(lowercaseIdentifierString)
+            val placeholder = expansionGetter(lowercaseIdentifierString)
             if (placeholder == null) {
                 builder.append('%').append(identifierString)
 
@@ -185,7 +194,7 @@ class PapiHookerImpl : PapiHooker() {
                 continue
             }
 
-            val placeholder = localExpansionManager.getExpansion(lowercaseIdentifierString)
+            val placeholder = expansionGetter(lowercaseIdentifierString)
             if (placeholder == null) {
                 builder.append('%').append(identifierString)
 
@@ -259,7 +268,7 @@ class PapiHookerImpl : PapiHooker() {
                 continue
             }
 
-            val placeholder = localExpansionManager.getExpansion(lowercaseIdentifierString)
+            val placeholder = expansionGetter(lowercaseIdentifierString)
             if (placeholder == null) {
                 i++
                 continue
@@ -272,7 +281,7 @@ class PapiHookerImpl : PapiHooker() {
     }
 
     override fun request(player: OfflinePlayer, identifier: String, parameters: String): String {
-        val placeholder = localExpansionManager.getExpansion(identifier.lowercase(Locale.getDefault()))
+        val placeholder = expansionGetter(identifier.lowercase(Locale.getDefault()))
         if (placeholder != null) {
             val replacement = placeholder.onRequest(player, parameters)
             if (replacement != null) {
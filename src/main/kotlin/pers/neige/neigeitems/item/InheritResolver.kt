@@ -0,0 +1,114 @@
+package pers.neige.neigeitems.item
+
+import org.bukkit.configuration.ConfigurationSection
+import org.bukkit.configuration.MemorySection
+import org.bukkit.configuration.file.YamlConfiguration
+import org.slf4j.LoggerFactory
+import pers.neige.neigeitems.manager.ItemManager
+import pers.neige.neigeitems.utils.ConfigUtils.clone
+import pers.neige.neigeitems.utils.ConfigUtils.coverWith
+import pers.neige.neigeitems.utils.ConfigUtils.loadGlobalSections
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 物品继承解析器
+ * 同一解析器中, 每个模板仅进行一次继承及全局节点加载, 后续使用直接复制解析结果.
+ * 解析器线程安全, 可用于并行构建物品生成器.
+ *
+ * @param originConfigGetter 用于根据模板ID获取模板原始配置
+ * @constructor 构建物品继承解析器
+ */
+class InheritResolver(
+    private val originConfigGetter: (String) -> ConfigurationSection? = { ItemManager.getOriginConfig(it) }
+) {
+    private companion object {
+        @JvmStatic
+        private val logger = LoggerFactory.getLogger(InheritResolver::class.java.simpleName)
+    }
+
+    /**
+     * 已解析的模板(经过继承和全局节点调用, 保留globalsections)
+     */
+    private val templates = ConcurrentHashMap<String, ConfigurationSection>()
+
+    /**
+     * 对物品配置进行继承解析
+     *
+     * @param originConfigSection 物品原始配置
+     * @return 继承后的配置
+     */
+    fun resolve(originConfigSection: ConfigurationSection): ConfigurationSection {
+        return inherit(YamlConfiguration(), originConfigSection, ArrayList())
+    }
+
+    /**
+     * 获取解析后的模板副本
+     *
+     * @param id 模板ID
+     * @param path 当前继承路径, 用于检测循环继承
+     * @return 解析后的模板副本, 模板不存在或存在循环继承时返回null
+     */
+    private fun getTemplate(id: String, path: MutableList<String>): ConfigurationSection? {
+        templates[id]?.let { return it.clone() }
+        if (path.contains(id)) {
+            logger.warn("物品继承存在循环引用, 已跳过: {} -> {}", path.joinToString(" -> "), id)
+            return null
+        }
+        val origin = originConfigGetter(id) ?: return null
+        path.add(id)
+        val template = try {
+            loadGlobalSections(inherit(YamlConfiguration(), origin, path), false)
+        } finally {
+            path.removeAt(path.lastIndex)
+        }
+        return (templates.putIfAbsent(id, template) ?: template).clone()
+    }
+
+    private fun inherit(
+        configSection: ConfigurationSection, originConfigSection: ConfigurationSection, path: MutableList<String>
+    ): ConfigurationSection {
+        // 检测进行全局继承/部分继承
+        when (val inheritInfo = originConfigSection.get("inherit")) {
+            is MemorySection -> {
+                /**
+                 * 指定多个ID, 进行部分继承
+                 * @variable key String 要进行继承的节点ID
+                 * @variable value String 用于获取继承值的模板ID
+                 */
+                inheritInfo.getKeys(true).forEach { key ->
+                    // 获取模板ID
+                    val id = inheritInfo.get(key)
+                    // 检测当前键是否为末级键
+                    if (id is String) {
+                        // 获取模板, 如果存在对应模板且模板存在对应键, 进行继承
+                        getTemplate(id, path)?.let { realConfig ->
+                            if (realConfig.contains(key)) {
+                                configSection.set(key, realConfig.get(key))
+                            }
+                        }
+                    }
+                }
+            }
+
+            is String -> {
+                // 仅指定单个模板ID，进行全局继承
+                getTemplate(inheritInfo, path)?.let { realConfig ->
+                    configSection.coverWith(realConfig)
+                }
+            }
+
+            is List<*> -> {
+                // 顺序继承, 按顺序进行覆盖式继承
+                for (templateId in inheritInfo) {
+                    // 逐个获取模板, 进行模板覆盖
+                    getTemplate(templateId as String, path)?.let { realConfig ->
+                        configSection.coverWith(realConfig)
+                    }
+                }
+            }
+        }
+        // 覆盖物品配置
+        configSection.coverWith(originConfigSection)
+        return configSection.clone()
+    }
+}
@@ -5,6 +5,7 @@ import org.bukkit.inventory.ItemStack
 import pers.neige.neigeitems.event.ItemExpirationEvent
 import pers.neige.neigeitems.manager.ConfigManager
 import pers.neige.neigeitems.manager.ItemManager
+import pers.neige.neigeitems.user.SlotKeys
 import pers.neige.neigeitems.utils.ItemUtils.getName
 import pers.neige.neigeitems.utils.LangUtils.sendLang
 import pers.neige.neigeitems.utils.PlayerUtils.checkCooldown
@@ -13,6 +14,11 @@ import pers.neige.neigeitems.utils.PlayerUtils.checkCooldown
  * 物品检测器, 用于回收过期物品并更新旧版物品
  */
 object ItemCheck {
+    /**
+     * 背包检查冷却组
+     */
+    private val checkInventoryCooldown = SlotKeys.cooldown("ni:check_inv")
+
     /**
      * 检查物品
      *
@@ -47,6 +53,6 @@ object ItemCheck {
      */
     fun Player.couldCheckInventory(): Boolean {
         if (!ConfigManager.checkInventory) return false
-        return checkCooldown("ni:check_inv", 1000) <= 0
+        return checkCooldown(checkInventoryCooldown, 1000) <= 0
     }
 }
\ No newline at end of file
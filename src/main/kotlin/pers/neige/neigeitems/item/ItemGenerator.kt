@@ -6,42 +6,90 @@ import org.bukkit.Bukkit
 import org.bukkit.Material
 import org.bukkit.OfflinePlayer
 import org.bukkit.configuration.ConfigurationSection
-import org.bukkit.configuration.MemorySection
 import org.bukkit.configuration.file.YamlConfiguration
 import org.bukkit.inventory.ItemStack
 import org.slf4j.LoggerFactory
 import pers.neige.neigeitems.action.ActionContext
 import pers.neige.neigeitems.action.container.ActionContainer
 import pers.neige.neigeitems.config.ConfigReader
+import pers.neige.neigeitems.config.ConfigTemplate
 import pers.neige.neigeitems.event.ItemGenerateEvent
 import pers.neige.neigeitems.manager.ActionManager
 import pers.neige.neigeitems.manager.ConfigManager
 import pers.neige.neigeitems.manager.ConfigManager.debug
 import pers.neige.neigeitems.manager.HookerManager
-import pers.neige.neigeitems.manager.ItemManager
+import pers.neige.neigeitems.section.CompiledSections
 import pers.neige.neigeitems.utils.ConfigUtils.clone
-import pers.neige.neigeitems.utils.ConfigUtils.coverWith
 import pers.neige.neigeitems.utils.ConfigUtils.loadGlobalSections
 import pers.neige.neigeitems.utils.ConfigUtils.saveToString
 import pers.neige.neigeitems.utils.ConfigUtils.toStringMap
 import pers.neige.neigeitems.utils.ItemUtils.asCraftCopy
 import pers.neige.neigeitems.utils.ItemUtils.copy
+import pers.neige.neigeitems.utils.ItemUtils.getNbt
 import pers.neige.neigeitems.utils.ItemUtils.getNbtOrNull
 import pers.neige.neigeitems.utils.ItemUtils.isCraftItem
+import pers.neige.neigeitems.utils.ItemUtils.saveToSafe
 import pers.neige.neigeitems.utils.LangUtils.sendLang
+import pers.neige.neigeitems.utils.SchedulerUtils
 import pers.neige.neigeitems.utils.SectionUtils.parseSection
 import java.util.*
+import java.util.concurrent.Callable
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
 
 /**
  * 物品生成器
  *
  * @property itemConfig 物品基础配置
+ * @param inheritResolver 物品继承解析器, 批量构建时共享同一解析器以复用模板解析结果
  * @constructor 根据物品基础配置构建物品生成器
  */
-class ItemGenerator(val itemConfig: ItemConfig) {
+class ItemGenerator @JvmOverloads constructor(
+    val itemConfig: ItemConfig,
+    inheritResolver: InheritResolver = InheritResolver()
+) {
     companion object {
         @JvmStatic
         private val logger = LoggerFactory.getLogger(ItemGenerator::class.java.simpleName)
+
+        /**
+         * 批量生成物品使用的线程池, 首次使用时创建
+         */
+        val generatePool: ForkJoinPool by lazy {
+            val classLoader = ItemGenerator::class.java.classLoader
+            ForkJoinPool(Runtime.getRuntime().availableProcessors(), { pool ->
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool).also {
+                    it.name = "NeigeItems-ItemGenerate-${it.poolIndex}"
+                    // 保证脚本引擎等依赖上下文类加载器的组件正常工作
+                    it.contextClassLoader = classLoader
+                }
+            }, null, false)
+        }
+
+        /**
+         * 当前线程能否进行并行批量生成.
+         * 主线程中并行生成会导致物品生成事件及post-generate动作脱离主线程, 因此仅在非主线程中进行并行生成.
+         */
+        @JvmStatic
+        fun canGenerateParallel(): Boolean {
+            return ConfigManager.parallelItemGenerate && !Bukkit.isPrimaryThread()
+        }
+
+        /**
+         * 在批量生成线程池中并行执行任务
+         *
+         * @param amount 任务数量
+         * @param task 任务内容, 传入任务索引
+         * @return 按任务索引排列的执行结果
+         */
+        @JvmStatic
+        fun <T> generateParallel(amount: Int, task: (Int) -> T): List<T> {
+            val tasks = ArrayList<ForkJoinTask<T>>(amount)
+            for (index in 0 until amount) {
+                tasks.add(generatePool.submit(Callable { task(index) }))
+            }
+            return tasks.map { it.join() }
+        }
     }
 
     /**
@@ -58,16 +106,13 @@ class ItemGenerator(val itemConfig: ItemConfig) {
      * 获取物品解析后配置(经过继承和全局节点调用)
      */
     val configSection = loadGlobalSections(
-        inherit(
-            YamlConfiguration() as ConfigurationSection,
-            itemConfig.configSection ?: YamlConfiguration() as ConfigurationSection
-        )
+        inheritResolver.resolve(itemConfig.configSection ?: YamlConfiguration() as ConfigurationSection)
     )
 
     /**
-     * 获取物品节点配置
+     * 获取物品节点配置(预编译节点池)
      */
-    val sections = configSection.getConfigurationSection("sections")
+    val sections: ConfigurationSection? = configSection.getConfigurationSection("sections")?.let { CompiledSections(it) }
 
     /**
      * 获取物品是否需要更新
@@ -96,7 +141,10 @@ class ItemGenerator(val itemConfig: ItemConfig) {
     } else null
 
     val eventActions: ActionContainer =
-        ActionContainer(ActionManager, "event", configSection.getConfigurationSection("event"))
+        ActionContainer(ActionManager, "event", configSection.getConfigurationSection("event")).also { container ->
+            // 以物品ID作为性能分析记录键
+            container.triggers.values.forEach { it.setProfileKey(id) }
+        }
 
     /**
      * 获取物品静态配置
@@ -116,6 +164,18 @@ class ItemGenerator(val itemConfig: ItemConfig) {
         it.set("event", null)
     }.saveToString()
 
+    /**
+     * 获取去除静态配置的物品配置模板, 生成物品时仅对包含节点调用的部分进行解析
+     */
+    private val configTemplate = ConfigTemplate.compile(configStringNoSection)
+
+    /**
+     * 获取物品输出是否完全确定.
+     * 配置中不存在节点调用且不存在 post-generate 动作时, 未指定指向数据的生成结果仅与配置本身有关(物品时限除外),
+     * 此时仅构建一次原型物品, 后续生成直接复制原型物品.
+     */
+    val isStaticOutput = configTemplate.isStatic && !eventActions.triggers.containsKey("post-generate")
+
     /**
      * 获取解析后物品配置文本哈希值
      */
@@ -129,6 +189,13 @@ class ItemGenerator(val itemConfig: ItemConfig) {
 
     private val originStaticItemStack = load(static) ?: ItemStack(Material.STONE).asCraftCopy()
 
+    /**
+     * 原型物品, 物品输出完全确定时于首次生成时构建
+     */
+    private val prototype: Prototype? by lazy {
+        if (isStaticOutput) buildPrototype() else null
+    }
+
     private fun load(
         config: ConfigReader?,
         base: ItemStack? = null,
@@ -234,70 +301,56 @@ class ItemGenerator(val itemConfig: ItemConfig) {
      */
     val staticItemStack get() = originStaticItemStack.copy()
 
-    private fun inherit(
-        configSection: ConfigurationSection, originConfigSection: ConfigurationSection
-    ): ConfigurationSection {
-        // 检测进行全局继承/部分继承
-        when (val inheritInfo = originConfigSection.get("inherit")) {
-            is MemorySection -> {
-                /**
-                 * 指定多个ID, 进行部分继承
-                 * @variable key String 要进行继承的节点ID
-                 * @variable value String 用于获取继承值的模板ID
-                 */
-                inheritInfo.getKeys(true).forEach { key ->
-                    // 获取模板ID
-                    val id = inheritInfo.get(key)
-                    // 检测当前键是否为末级键
-                    if (id is String) {
-                        // 获取模板
-                        val currentSection = ItemManager.getOriginConfig(id)
-                        // 如果存在对应模板且模板存在对应键, 进行继承
-                        if (currentSection != null) {
-                            val realConfig = loadGlobalSections(
-                                inherit(
-                                    (YamlConfiguration() as ConfigurationSection), currentSection
-                                ), false
-                            )
-                            if (realConfig.contains(key)) {
-                                configSection.set(key, realConfig.get(key))
-                            }
-                        }
-                    }
-                }
-            }
-
-            is String -> {
-                // 仅指定单个模板ID，进行全局继承
-                ItemManager.getOriginConfig(inheritInfo)?.let { inheritConfigSection ->
-                    val realConfig = loadGlobalSections(
-                        inherit(
-                            (YamlConfiguration() as ConfigurationSection), inheritConfigSection
-                        ), false
-                    )
-                    configSection.coverWith(realConfig)
+    /**
+     * 构建原型物品
+     *
+     * @return 原型物品, 材质无效时返回null, 交由常规流程发送提示
+     */
+    private fun buildPrototype(): Prototype? {
+        val configSection = ConfigReader.parse(configTemplate.evaluate { it })
+        val material = HookerManager.getMaterial(configSection.getString("material"))
+        if (material == null && !hasStaticMaterial) return null
+        val itemStack = staticItemStack
+        if (itemStack.type != Material.AIR) {
+            load(configSection, itemStack, material, HashMap<String, String>())
+        }
+        var itemTime: Long? = null
+        configSection.getConfig("options")?.let { optionsConfig ->
+            for (key in optionsConfig.keySet()) {
+                when (key.lowercase()) {
+                    "itemtime", "item-time" -> itemTime = optionsConfig.getLong(key, 0)
                 }
             }
+        }
+        return Prototype(itemStack, itemTime)
+    }
 
-            is List<*> -> {
-                // 顺序继承, 按顺序进行覆盖式继承
-                for (templateId in inheritInfo) {
-                    // 逐个获取模板
-                    ItemManager.getOriginConfig(templateId as String)?.let { currentSection ->
-                        val realConfig = loadGlobalSections(
-                            inherit(
-                                (YamlConfiguration() as ConfigurationSection), currentSection
-                            ), false
-                        )
-                        // 进行模板覆盖
-                        configSection.coverWith(realConfig)
-                    }
+    /**
+     * 复制原型物品, 并重新计算物品时限
+     */
+    private fun generate(
+        prototype: Prototype, player: OfflinePlayer?, cache: MutableMap<String, String>
+    ): ItemStack {
+        val itemStack = prototype.itemStack.copy()
+        val itemTime = prototype.itemTime
+        if (itemTime != null && itemStack.type != Material.AIR) {
+            val itemTag = itemStack.getNbt()
+            itemTag.getCompound("NeigeItems")?.let { neigeItems ->
+                if (neigeItems.contains("itemTime")) {
+                    neigeItems.putLong("itemTime", System.currentTimeMillis() + (itemTime * 1000))
+                    itemTag.saveToSafe(itemStack)
                 }
             }
         }
-        // 覆盖物品配置
-        configSection.coverWith(originConfigSection)
-        return configSection.clone()
+        // 模板中不存在节点调用, 重新求值即可得到独立的配置副本, 避免监听器修改原型配置
+        val config = configTemplate.evaluate { it }
+        // Debug信息
+        if (debug) {
+            logger.info(config.toString())
+            sections?.let { logger.info(sections.saveToString("sections")) }
+        }
+        // 触发一下物品生成事件
+        return callGenerateEvent(player, itemStack, cache, ConfigReader.parse(config)).itemStack
     }
 
     /**
@@ -316,6 +369,68 @@ class ItemGenerator(val itemConfig: ItemConfig) {
         )
     }
 
+    /**
+     * 批量生成物品, 各物品独立进行节点解析.
+     * 非主线程中调用且开启 ItemGenerate.parallel 时, 在批量生成线程池中并行生成.
+     *
+     * @param player 用于解析内容的玩家
+     * @param data 指向数据
+     * @param amount 生成数量
+     * @return 生成的物品, 生成失败的物品不计入结果
+     */
+    fun getItemStacks(player: OfflinePlayer?, data: String?, amount: Int): List<ItemStack> {
+        return getItemStacks(player, data?.parseObject<HashMap<String, String>>(), amount)
+    }
+
+    /**
+     * 批量生成物品, 各物品独立进行节点解析.
+     * 非主线程中调用且开启 ItemGenerate.parallel 时, 在批量生成线程池中并行生成.
+     *
+     * @param player 用于解析内容的玩家
+     * @param data 指向数据, 每个物品使用独立副本
+     * @param amount 生成数量
+     * @return 生成的物品, 生成失败的物品不计入结果
+     */
+    fun getItemStacks(player: OfflinePlayer?, data: Map<String, String>?, amount: Int): List<ItemStack> {
+        if (amount <= 0) return emptyList()
+        val itemStacks = ArrayList<ItemStack>(amount)
+        if (amount > 1 && canGenerateParallel()) {
+            generateParallel(amount) {
+                getItemStack(player, data?.let { HashMap(it) })
+            }.forEach { itemStack ->
+                itemStack?.let { itemStacks.add(it) }
+            }
+        } else {
+            repeat(amount) {
+                getItemStack(player, data?.let { HashMap(it) })?.let { itemStacks.add(it) }
+            }
+        }
+        return itemStacks
+    }
+
+    /**
+     * 触发物品生成事件.
+     * 开启 ItemGenerate.syncEvent 时, 在主线程中构建并触发事件.
+     */
+    private fun callGenerateEvent(
+        player: OfflinePlayer?,
+        itemStack: ItemStack,
+        cache: MutableMap<String, String>,
+        configSection: ConfigReader
+    ): ItemGenerateEvent {
+        if (ConfigManager.syncGenerateEvent && !Bukkit.isPrimaryThread()) {
+            var event: ItemGenerateEvent? = null
+            SchedulerUtils.syncAndGet {
+                ItemGenerateEvent(id, player, itemStack, cache, configSection, sections).also { event = it }.call()
+            }
+            // 事件已在主线程中构建(即使监听器抛出异常)时不再重复触发, 仅在任务未能执行时于当前线程触发
+            event?.let { return it }
+        }
+        val event = ItemGenerateEvent(id, player, itemStack, cache, configSection, sections)
+        event.call()
+        return event
+    }
+
     /**
      * 生成物品, 生成失败则返回null
      *
@@ -326,16 +441,20 @@ class ItemGenerator(val itemConfig: ItemConfig) {
     fun getItemStack(player: OfflinePlayer?, data: MutableMap<String, String>?): ItemStack? {
         // 加载缓存
         val cache = data ?: HashMap<String, String>()
+        // 输出完全确定且未指定指向数据, 直接复制原型物品
+        if (cache.isEmpty()) {
+            prototype?.let { return generate(it, player, cache) }
+        }
         // 获取私有节点配置
         val sections = this.sections
-        // 对文本化配置进行全局节点解析
-        val configString = configStringNoSection.parseSection(cache, player, sections)
+        // 对配置模板进行节点解析
+        val config = configTemplate.evaluate { it.parseSection(cache, player, sections) }
         // Debug信息
         if (debug) {
-            logger.info(configString)
+            logger.info(config.toString())
             sections?.let { logger.info(sections.saveToString("sections")) }
         }
-        val configSection = ConfigReader.parse(configString)
+        val configSection = ConfigReader.parse(config)
 
         // 构建物品
         // 获取材质
@@ -346,28 +465,34 @@ class ItemGenerator(val itemConfig: ItemConfig) {
             // 空物品检测
             if (itemStack.type == Material.AIR) {
                 // 触发一下物品生成事件
-                val event = ItemGenerateEvent(id, player, itemStack, cache, configSection, sections)
-                event.call()
-                return event.itemStack
+                return callGenerateEvent(player, itemStack, cache, configSection).itemStack
             }
             // 加载物品配置
             load(configSection, itemStack, material, cache)
             // 触发一下物品生成事件
-            val event = ItemGenerateEvent(id, player, itemStack, cache, configSection, sections)
-            event.call()
-            val params = hashMapOf(
-                "id" to id,
-                "item" to this
-            )
-            val context = ActionContext(
-                player?.player,
-                params,
-                params,
-                event.itemStack,
-                event.itemStack.getNbtOrNull(),
-                event.cache
-            )
-            eventActions.run("post-generate", context)
+            val event = callGenerateEvent(player, itemStack, cache, configSection)
+            eventActions.triggers["post-generate"]?.let { trigger ->
+                val params = hashMapOf(
+                    "id" to id,
+                    "item" to this
+                )
+                val context = ActionContext(
+                    player?.player,
+                    params,
+                    params,
+                    event.itemStack,
+                    event.itemStack.getNbtOrNull(),
+                    event.cache
+                )
+                // 不会修改物品且无需主线程的动作交由批量生成线程池执行, 避免阻塞主线程
+                if (ConfigManager.asyncPostGenerate && trigger.isAsyncPure && Bukkit.isPrimaryThread()) {
+                    // 上下文在主线程中构建, 需标记为异步, 否则动作执行时将切回主线程
+                    context.isSync = false
+                    generatePool.execute { trigger.run(context) }
+                } else {
+                    trigger.run(context)
+                }
+            }
             return event.itemStack
         } else {
             Bukkit.getConsoleSender().sendLang(
@@ -378,4 +503,12 @@ class ItemGenerator(val itemConfig: ItemConfig) {
         }
         return null
     }
+
+    /**
+     * 原型物品
+     *
+     * @property itemStack 原型物品
+     * @property itemTime 物品时限(秒), 未配置时为null
+     */
+    private class Prototype(val itemStack: ItemStack, val itemTime: Long?)
 }
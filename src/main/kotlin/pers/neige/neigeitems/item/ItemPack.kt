@@ -175,6 +175,27 @@ class ItemPack(
         )
     }
 
+    /**
+     * 重复获取物品, 各次获取相互独立.
+     * 非主线程中调用且开启 ItemGenerate.parallel 时并行获取.
+     *
+     * @param player 用于解析内容的玩家
+     * @param data 指向数据
+     * @param amount 重复次数
+     * @return 物品
+     */
+    fun getItemStacks(player: OfflinePlayer?, data: String?, amount: Int): List<ItemStack> {
+        if (amount <= 0) return ArrayList()
+        if (amount == 1 || !ItemGenerator.canGenerateParallel()) {
+            return ArrayList<ItemStack>().also { itemStacks ->
+                repeat(amount) {
+                    itemStacks.addAll(getItemStacks(player, data))
+                }
+            }
+        }
+        return ItemGenerator.generateParallel(amount) { getItemStacks(player, data) }.flatten()
+    }
+
     /**
      * 获取物品
      *
@@ -366,11 +387,7 @@ class ItemPack(
                     // 随机生成, 那疯狂造就完事儿了
                     when {
                         ItemManager.hasItem(id) -> {
-                            repeat(amount) {
-                                ItemManager.getItemStack(id, player, data)?.let { itemStack ->
-                                    itemStacks.add(itemStack)
-                                }
-                            }
+                            itemStacks.addAll(ItemManager.getItemStacks(id, player, data, amount))
                         }
                         // 对于其他物品, 这个配置项不代表是否随机生成, 代表物品是否合并
                         else -> {
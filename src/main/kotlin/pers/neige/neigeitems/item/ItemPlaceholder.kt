@@ -21,10 +21,15 @@ import java.util.function.BiFunction
  */
 object ItemPlaceholder {
     /**
-     * 1.20.5+ 版本起, Mojang献祭了自己的亲妈, 换来了物品格式的改动.
+     * 服务端版本信息, 置于内部对象中延迟加载, 使物品变量解析可以脱离服务端调用.
      */
-    @JvmStatic
-    private val MOJANG_MOTHER_DEAD = CbVersion.v1_20_R4.isSupport
+    private object Version {
+        /**
+         * 1.20.5+ 版本起, Mojang献祭了自己的亲妈, 换来了物品格式的改动.
+         */
+        @JvmField
+        val MOJANG_MOTHER_DEAD = CbVersion.v1_20_R4.isSupport
+    }
 
     /**
      * 获取物品变量附属
@@ -48,7 +53,7 @@ object ItemPlaceholder {
      */
     fun itemParse(itemStack: ItemStack) {
         if (NbtUtils.isCraftItemStack(itemStack)) {
-            if (MOJANG_MOTHER_DEAD) {
+            if (Version.MOJANG_MOTHER_DEAD) {
                 HookerManager.nmsHooker.editNameAndLoreAfterMojangMotherDead(itemStack, this::parse)
             } else {
                 val nbt = itemStack.getNbtOrNull() ?: return
@@ -1,9 +1,13 @@
 package pers.neige.neigeitems.item.action
 
+import org.bukkit.Bukkit
 import org.bukkit.configuration.ConfigurationSection
 import pers.neige.neigeitems.action.Action
 import pers.neige.neigeitems.action.ActionContext
+import pers.neige.neigeitems.action.ActionProfiler
+import pers.neige.neigeitems.action.ActionType
 import pers.neige.neigeitems.manager.ActionManager
+import pers.neige.neigeitems.user.SlotKeys
 import pers.neige.neigeitems.utils.SchedulerUtils
 
 /**
@@ -29,6 +33,16 @@ class ActionTrigger(val id: String, val type: String, val config: ConfigurationS
      */
     val group: String = config.getString("group") ?: "${type}_$id"
 
+    /**
+     * 冷却组对应的整数ID
+     */
+    val cooldownId: Int = SlotKeys.cooldown("ni:$group")
+
+    /**
+     * tick组对应的整数ID
+     */
+    val tickId: Int = SlotKeys.tick(group)
+
     /**
      * 获取物品消耗信息
      */
@@ -49,6 +63,14 @@ class ActionTrigger(val id: String, val type: String, val config: ConfigurationS
      */
     val sync: Action = ActionManager.compile(config.get("sync"))
 
+    init {
+        actions.profileKey = ActionProfiler.key(id, type, "actions")
+        async.profileKey = ActionProfiler.key(id, type, "async")
+        sync.profileKey = ActionProfiler.key(id, type, "sync")
+        consume?.pre?.profileKey = ActionProfiler.key(id, type, "consume-pre")
+        consume?.deny?.profileKey = ActionProfiler.key(id, type, "consume-deny")
+    }
+
     /**
      * 运行异步物品动作
      *
@@ -57,10 +79,45 @@ class ActionTrigger(val id: String, val type: String, val config: ConfigurationS
     fun run(
         context: ActionContext
     ) {
+        if (runInline(context)) return
         async(context)
         sync(context)
     }
 
+    /**
+     * 触发器动作能否在当前线程内同步执行完毕(无需调度任务, 不存在挂起)
+     *
+     * @param context 动作上下文
+     */
+    fun isInline(
+        context: ActionContext
+    ): Boolean {
+        return if (Bukkit.isPrimaryThread()) {
+            actions.type == ActionType.NULL && async.type == ActionType.NULL && sync.canEvalSync(context)
+        } else {
+            sync.type == ActionType.NULL && actions.canEvalSync(context) && async.canEvalSync(context)
+        }
+    }
+
+    /**
+     * 触发器动作能在当前线程内同步执行完毕时, 直接执行触发器动作
+     *
+     * @param context 动作上下文
+     * @return 是否已经执行
+     */
+    fun runInline(
+        context: ActionContext
+    ): Boolean {
+        if (!isInline(context)) return false
+        if (Bukkit.isPrimaryThread()) {
+            sync.eval(context)
+        } else {
+            actions.eval(context)
+            async.eval(context)
+        }
+        return true
+    }
+
     /**
      * 运行异步物品动作
      *
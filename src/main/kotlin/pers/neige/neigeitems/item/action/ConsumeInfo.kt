@@ -2,6 +2,7 @@ package pers.neige.neigeitems.item.action
 
 import org.bukkit.configuration.ConfigurationSection
 import pers.neige.neigeitems.action.Action
+import pers.neige.neigeitems.action.ActionContext
 import pers.neige.neigeitems.manager.ActionManager
 
 /**
@@ -14,4 +15,13 @@ class ConsumeInfo(config: ConfigurationSection) {
     val condition: String? = config.getString("condition")
     val amount: String? = config.getString("amount")
     val deny: Action = ActionManager.compile(config.get("deny"))
+
+    /**
+     * 消耗相关动作能否在当前线程内同步执行完毕
+     *
+     * @param context 动作上下文
+     */
+    fun isInline(context: ActionContext): Boolean {
+        return pre.canEvalSync(context) && deny.canEvalSync(context)
+    }
 }
\ No newline at end of file
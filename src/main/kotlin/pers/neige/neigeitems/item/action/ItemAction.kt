@@ -37,6 +37,16 @@ class ItemAction(val id: String, val config: ConfigurationSection) {
      */
     var hasShiftRightAction = false
 
+    /**
+     * tick类动作触发器, 按 ItemActionType.getTickIndex 排列
+     */
+    val tickTriggers = arrayOfNulls<ActionTrigger>(ItemActionType.TICK_COUNT)
+
+    /**
+     * 该物品拥有的tick类动作触发器掩码, 按 ItemActionType.getTickBit 记录
+     */
+    var tickMask = 0L
+
     init {
         // 加载动作触发器
         config.getKeys(false).forEach { trigger ->
@@ -56,6 +66,13 @@ class ItemAction(val id: String, val config: ConfigurationSection) {
         if (triggers.contains("shift_right") || triggers.contains("shift_all")) {
             hasShiftRightAction = true
         }
+        triggers.forEach { (key, trigger) ->
+            val type = ItemActionType.matchType(key) ?: return@forEach
+            if (type.isTick && trigger != null) {
+                tickTriggers[type.tickIndex] = trigger
+                tickMask = tickMask or type.tickBit
+            }
+        }
     }
 
     /**
@@ -8,6 +8,7 @@ import pers.neige.neigeitems.item.ItemDurability
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.NbtCompound
 import pers.neige.neigeitems.manager.ActionManager
 import pers.neige.neigeitems.utils.ItemUtils.isNiItem
+import pers.neige.neigeitems.utils.ItemUtils.peekNiId
 
 object BlockBreakListener {
     @JvmStatic
@@ -19,8 +20,10 @@ object BlockBreakListener {
         val itemStack = player.inventory.itemInMainHand
         // 空检测
         if (itemStack.type == Material.AIR) return
+        // 快速获取NI物品ID, 不构建NI物品信息(不是NI物品就停止操作)
+        val id = itemStack.peekNiId() ?: return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack.isNiItem() ?: return
+        val itemInfo = itemStack.isNiItem(id) ?: return
         // NI物品数据
         val neigeItems: NbtCompound = itemInfo.neigeItems
 
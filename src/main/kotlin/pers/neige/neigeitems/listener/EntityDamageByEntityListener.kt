@@ -13,6 +13,7 @@ import pers.neige.neigeitems.item.action.ItemActionType
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.NbtCompound
 import pers.neige.neigeitems.manager.ActionManager
 import pers.neige.neigeitems.utils.ItemUtils.isNiItem
+import pers.neige.neigeitems.utils.ItemUtils.peekNiId
 
 object EntityDamageByEntityListener {
     @JvmStatic
@@ -23,8 +24,10 @@ object EntityDamageByEntityListener {
         val player = event.damager as Player
         // 获取凶器
         val itemStack = player.inventory.itemInMainHand
+        // 快速获取NI物品ID, 不构建NI物品信息(不是NI物品就停止操作)
+        val id = itemStack.peekNiId() ?: return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack.isNiItem() ?: return
+        val itemInfo = itemStack.isNiItem(id) ?: return
         // NI物品数据
         val neigeItems: NbtCompound = itemInfo.neigeItems
 
@@ -54,8 +57,10 @@ object EntityDamageByEntityListener {
             // 空检测及类型检测
             if (itemStack.type != Material.SHIELD) return
         }
+        // 快速获取NI物品ID, 不构建NI物品信息(不是NI物品就停止操作)
+        val id = itemStack.peekNiId() ?: return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack.isNiItem() ?: return
+        val itemInfo = itemStack.isNiItem(id) ?: return
         // NI物品数据
         val neigeItems: NbtCompound = itemInfo.neigeItems
 
@@ -97,8 +102,11 @@ object EntityDamageByEntityListener {
         event: EntityDamageByEntityEvent,
         key: String
     ) {
+        // 快速获取NI物品ID, 不是NI物品或没有对应物品动作就停止操作
+        val id = itemStack.peekNiId() ?: return
+        if (!ActionManager.hasAction(id, key)) return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack.isNiItem() ?: return
+        val itemInfo = itemStack.isNiItem(id) ?: return
 
         // 执行物品动作
         ActionManager.killListener(player, itemStack, itemInfo, event, key)
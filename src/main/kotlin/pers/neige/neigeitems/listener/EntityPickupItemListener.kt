@@ -5,9 +5,12 @@ import org.bukkit.entity.Player
 import org.bukkit.event.EventPriority
 import org.bukkit.event.entity.EntityPickupItemEvent
 import pers.neige.neigeitems.annotation.Listener
+import pers.neige.neigeitems.item.action.ItemActionType
 import pers.neige.neigeitems.manager.ActionManager
 import pers.neige.neigeitems.manager.ConfigManager
+import pers.neige.neigeitems.manager.UserManager
 import pers.neige.neigeitems.utils.ItemUtils.isNiItem
+import pers.neige.neigeitems.utils.ItemUtils.peekNiId
 import pers.neige.neigeitems.utils.PlayerUtils.getMetadataEZ
 import pers.neige.neigeitems.utils.PlayerUtils.sendActionBar
 
@@ -48,8 +51,11 @@ object EntityPickupItemListener {
         if (player !is Player) return
         // 获取拾取物品
         val itemStack = event.item.itemStack
+        // 快速获取NI物品ID, 不是NI物品或没有对应物品动作就停止操作
+        val id = itemStack.peekNiId() ?: return
+        if (!ActionManager.hasAction(id, ItemActionType.PICK.type)) return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack.isNiItem() ?: return
+        val itemInfo = itemStack.isNiItem(id) ?: return
 
         try {
             if (itemStack.amount != 0 && itemStack.type != Material.AIR) {
@@ -67,4 +73,11 @@ object EntityPickupItemListener {
             event.isCancelled = true
         }
     }
+
+    @JvmStatic
+    @Listener(eventPriority = EventPriority.MONITOR)
+    private fun invalidate(event: EntityPickupItemEvent) {
+        // 背包内容发生变动, 标记背包槽位状态缓存失效
+        UserManager.INSTANCE[event.entity.uniqueId]?.inventoryCache?.invalidate()
+    }
 }
\ No newline at end of file
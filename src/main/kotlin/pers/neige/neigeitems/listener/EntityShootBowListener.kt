@@ -10,6 +10,7 @@ import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.NbtCompound
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.internal.annotation.CbVersion
 import pers.neige.neigeitems.manager.ActionManager
 import pers.neige.neigeitems.utils.ItemUtils.isNiItem
+import pers.neige.neigeitems.utils.ItemUtils.peekNiId
 import pers.neige.neigeitems.utils.ListenerUtils
 
 object EntityShootBowListener {
@@ -23,8 +24,10 @@ object EntityShootBowListener {
         if (player !is Player) return
         // 获取弓
         val itemStack = event.bow
+        // 快速获取NI物品ID, 不构建NI物品信息(不是NI物品就停止操作)
+        val id = itemStack.peekNiId() ?: return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack?.isNiItem() ?: return
+        val itemInfo = itemStack?.isNiItem(id) ?: return
         // NI物品数据
         val neigeItems: NbtCompound = itemInfo.neigeItems
 
@@ -48,8 +51,10 @@ object EntityShootBowListener {
                 if (player !is Player) return@registerListener
                 // 获取箭
                 val itemStack = event.consumable
+                // 快速获取NI物品ID, 不构建NI物品信息(不是NI物品就停止操作)
+                val id = itemStack.peekNiId() ?: return@registerListener
                 // 获取NI物品信息(不是NI物品就停止操作)
-                val itemInfo = itemStack?.isNiItem() ?: return@registerListener
+                val itemInfo = itemStack?.isNiItem(id) ?: return@registerListener
                 // NI物品数据
                 val neigeItems: NbtCompound = itemInfo.neigeItems
 
@@ -4,8 +4,11 @@ import org.bukkit.entity.Player
 import org.bukkit.event.EventPriority
 import org.bukkit.event.inventory.InventoryClickEvent
 import pers.neige.neigeitems.annotation.Listener
+import pers.neige.neigeitems.item.action.ItemActionType
 import pers.neige.neigeitems.manager.ActionManager
+import pers.neige.neigeitems.manager.UserManager
 import pers.neige.neigeitems.utils.ItemUtils.isNiItem
+import pers.neige.neigeitems.utils.ItemUtils.peekNiId
 
 object InventoryClickListener {
     @JvmStatic
@@ -16,8 +19,11 @@ object InventoryClickListener {
         if (player !is Player) return
         // 获取点击物品
         val itemStack = event.cursor
+        // 快速获取NI物品ID, 不是NI物品或没有对应物品动作就停止操作
+        val id = itemStack.peekNiId() ?: return
+        if (!ActionManager.hasAction(id, ItemActionType.CLICK.type)) return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack?.isNiItem() ?: return
+        val itemInfo = itemStack?.isNiItem(id) ?: return
 
         // 执行物品动作
         ActionManager.clickListener(player, itemStack, itemInfo, event)
@@ -31,10 +37,20 @@ object InventoryClickListener {
         if (player !is Player) return
         // 获取点击物品
         val itemStack = event.currentItem
+        // 快速获取NI物品ID, 不是NI物品或没有对应物品动作就停止操作
+        val id = itemStack.peekNiId() ?: return
+        if (!ActionManager.hasAction(id, ItemActionType.BECLICKED.type)) return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack?.isNiItem() ?: return
+        val itemInfo = itemStack?.isNiItem(id) ?: return
 
         // 执行物品动作
         ActionManager.beClickedListener(player, itemStack, itemInfo, event)
     }
+
+    @JvmStatic
+    @Listener(eventPriority = EventPriority.MONITOR)
+    private fun invalidate(event: InventoryClickEvent) {
+        // 背包内容可能发生变动, 标记背包槽位状态缓存失效
+        UserManager.INSTANCE[event.whoClicked.uniqueId]?.inventoryCache?.invalidate()
+    }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import pers.neige.neigeitems.annotation.Listener
 import pers.neige.neigeitems.item.ItemCheck
 import pers.neige.neigeitems.item.ItemCheck.couldCheckInventory
 import pers.neige.neigeitems.utils.ItemUtils.isNiItem
+import pers.neige.neigeitems.utils.ItemUtils.peekNiId
 
 object InventoryOpenListener {
     @JvmStatic
@@ -17,8 +18,10 @@ object InventoryOpenListener {
         // 如果允许检测物品过期
         if (player.couldCheckInventory()) {
             inventory.contents.forEach { itemStack ->
+                // 快速获取NI物品ID, 不构建NI物品信息
+                val id = itemStack.peekNiId() ?: return@forEach
                 // 获取NI物品信息(不是NI物品就停止操作)
-                val itemInfo = itemStack?.isNiItem()
+                val itemInfo = itemStack?.isNiItem(id)
                 if (itemInfo != null) {
                     // 检测物品过期, 检测物品更新
                     ItemCheck.checkItem(player, itemStack, itemInfo)
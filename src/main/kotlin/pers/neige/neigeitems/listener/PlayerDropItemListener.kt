@@ -6,7 +6,9 @@ import org.bukkit.event.player.PlayerDropItemEvent
 import pers.neige.neigeitems.annotation.Listener
 import pers.neige.neigeitems.item.ItemCheck
 import pers.neige.neigeitems.manager.ActionManager
+import pers.neige.neigeitems.manager.UserManager
 import pers.neige.neigeitems.utils.ItemUtils.isNiItem
+import pers.neige.neigeitems.utils.ItemUtils.peekNiId
 
 object PlayerDropItemListener {
     @JvmStatic
@@ -16,8 +18,10 @@ object PlayerDropItemListener {
         val player = event.player
         // 获取掉落物品
         val itemStack = event.itemDrop.itemStack
+        // 快速获取NI物品ID, 不构建NI物品信息(不是NI物品就停止操作)
+        val id = itemStack.peekNiId() ?: return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack.isNiItem() ?: return
+        val itemInfo = itemStack.isNiItem(id) ?: return
 
         try {
             // 检测物品过期, 检测物品更新
@@ -39,4 +43,11 @@ object PlayerDropItemListener {
             event.itemDrop.itemStack = itemStack
         }
     }
+
+    @JvmStatic
+    @Listener(eventPriority = EventPriority.MONITOR)
+    private fun invalidate(event: PlayerDropItemEvent) {
+        // 背包内容发生变动, 标记背包槽位状态缓存失效
+        UserManager.INSTANCE[event.player.uniqueId]?.inventoryCache?.invalidate()
+    }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import pers.neige.neigeitems.annotation.Listener
 import pers.neige.neigeitems.item.ItemDurability
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.NbtCompound
 import pers.neige.neigeitems.utils.ItemUtils.isNiItem
+import pers.neige.neigeitems.utils.ItemUtils.peekNiId
 
 object PlayerInteractEntityListener {
     @JvmStatic
@@ -18,8 +19,10 @@ object PlayerInteractEntityListener {
             EquipmentSlot.HAND -> player.inventory.itemInMainHand
             else -> player.inventory.itemInOffHand
         }
+        // 快速获取NI物品ID, 不构建NI物品信息(不是NI物品就停止操作)
+        val id = itemStack.peekNiId() ?: return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack.isNiItem() ?: return
+        val itemInfo = itemStack.isNiItem(id) ?: return
         // NI物品数据
         val neigeItems: NbtCompound = itemInfo.neigeItems
 
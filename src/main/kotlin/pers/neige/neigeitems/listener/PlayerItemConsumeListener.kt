@@ -8,6 +8,7 @@ import pers.neige.neigeitems.item.ItemDurability
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.NbtCompound
 import pers.neige.neigeitems.manager.ActionManager
 import pers.neige.neigeitems.utils.ItemUtils.isNiItem
+import pers.neige.neigeitems.utils.ItemUtils.peekNiId
 import pers.neige.neigeitems.utils.ItemUtils.saveToSafe
 
 object PlayerItemConsumeListener {
@@ -18,8 +19,10 @@ object PlayerItemConsumeListener {
         val player = event.player
         // 获取手持物品
         val itemStack = event.item
+        // 快速获取NI物品ID, 不构建NI物品信息(不是NI物品就停止操作)
+        val id = itemStack.peekNiId() ?: return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack.isNiItem() ?: return
+        val itemInfo = itemStack.isNiItem(id) ?: return
         // 物品NBT
         val itemTag: NbtCompound = itemInfo.itemTag
         // NI物品数据
@@ -6,6 +6,7 @@ import pers.neige.neigeitems.annotation.Listener
 import pers.neige.neigeitems.item.ItemDurability
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.NbtCompound
 import pers.neige.neigeitems.utils.ItemUtils.isNiItem
+import pers.neige.neigeitems.utils.ItemUtils.peekNiId
 
 object PlayerItemDamageListener {
     @JvmStatic
@@ -15,8 +16,10 @@ object PlayerItemDamageListener {
         val player = event.player
         // 获取消耗耐久物品
         val itemStack = event.item
+        // 快速获取NI物品ID, 不构建NI物品信息(不是NI物品就停止操作)
+        val id = itemStack.peekNiId() ?: return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack.isNiItem() ?: return
+        val itemInfo = itemStack.isNiItem(id) ?: return
         // NI物品数据
         val neigeItems: NbtCompound = itemInfo.neigeItems
 
@@ -32,8 +35,10 @@ object PlayerItemDamageListener {
         val player = event.player
         // 获取消耗耐久物品
         val itemStack = event.item
+        // 快速获取NI物品ID, 不构建NI物品信息(不是NI物品就停止操作)
+        val id = itemStack.peekNiId() ?: return
         // 获取NI物品信息(不是NI物品就停止操作)
-        val itemInfo = itemStack.isNiItem() ?: return
+        val itemInfo = itemStack.isNiItem(id) ?: return
         // 物品NBT
         val itemTag: NbtCompound = itemInfo.itemTag
         // NI物品数据
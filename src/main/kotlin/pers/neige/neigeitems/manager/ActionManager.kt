@@ -24,20 +24,22 @@ import pers.neige.neigeitems.action.impl.StringAction
 import pers.neige.neigeitems.action.result.Results
 import pers.neige.neigeitems.event.ItemActionEvent
 import pers.neige.neigeitems.item.ItemInfo
+import pers.neige.neigeitems.item.action.ActionTrigger
 import pers.neige.neigeitems.item.action.ItemAction
 import pers.neige.neigeitems.item.action.ItemActionType
 import pers.neige.neigeitems.manager.ConfigManager.config
+import pers.neige.neigeitems.task.TickInventory
 import pers.neige.neigeitems.utils.ActionUtils.consume
 import pers.neige.neigeitems.utils.ActionUtils.isCoolDown
 import pers.neige.neigeitems.utils.ConfigUtils
 import pers.neige.neigeitems.utils.ConfigUtils.getMap
-import pers.neige.neigeitems.utils.PlayerUtils.getMetadataEZ
-import pers.neige.neigeitems.utils.PlayerUtils.setMetadataEZ
+import pers.neige.neigeitems.utils.SectionUtils.getItemSection
 import pers.neige.neigeitems.utils.SectionUtils.parseItemSection
 import pers.neige.neigeitems.utils.SectionUtils.parseSection
 import java.io.File
 import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ConcurrentHashMap
+import java.util.function.Function
 
 /**
  * 用于管理所有物品动作、所有拥有物品动作的物品及相关动作、监听相关事件做到动作触发
@@ -70,35 +72,35 @@ object ActionManager : BaseActionManager(NeigeItems.getInstance()) {
         functions.clear()
         loadItemActions()
         loadFunctions()
+        UserManager.INSTANCE.resetInventoryCaches()
     }
 
-    override fun runAction(
+    override fun parseContent(
         action: StringAction, context: ActionContext
-    ): CompletableFuture<ActionResult> {
+    ): String {
+        action.constantContent?.let { return it }
         // 解析物品变量
         val itemStack = context.itemStack
-        val content = let {
-            val nbt = context.nbt
-            val cache = (context.params?.get("cache") ?: context.global) as? MutableMap<String, String>
-            val sections = context.params?.get("sections") as? ConfigurationSection
-            if (itemStack != null && nbt != null) {
-                action.content.parseItemSection(
-                    itemStack, nbt, context.data, context.player, cache, sections
-                )
-            } else {
-                action.content.parseSection(
-                    cache, context.player, sections
-                )
-            }
-        }
-        // 尝试加载物品动作, 返回执行结果
-        action.handler?.let { handler ->
-            return handler.apply(context, content)
+        val nbt = context.nbt
+        val cache = (context.params?.get("cache") ?: context.global) as? MutableMap<String, String>
+        val sections = context.params?.get("sections") as? ConfigurationSection
+        return if (itemStack != null && nbt != null) {
+            action.template.evaluate(Function {
+                it.getItemSection(itemStack, nbt, context.data, context.player, cache, sections)
+            })
+        } else {
+            action.template.parseSection(cache, context.player, sections)
         }
+    }
+
+    override fun runUnregisteredAction(
+        action: StringAction, context: ActionContext
+    ): CompletableFuture<ActionResult> {
         // 尝试加载物品编辑函数, 返回执行结果
+        val itemStack = context.itemStack
         val player = context.player
         if (itemStack != null && player != null) {
-            ItemEditorManager.runEditorWithResult(action.key, content, itemStack, player)
+            ItemEditorManager.runEditorWithResult(action.key, parseContent(action, context), itemStack, player)
         }
         return CompletableFuture.completedFuture(Results.SUCCESS)
     }
@@ -279,39 +281,46 @@ object ActionManager : BaseActionManager(NeigeItems.getInstance()) {
         // 获取消耗信息
         val consume = basicTrigger?.consume ?: allTrigger?.consume
         val data = itemInfo.data
+        // 动作上下文, 动作全部于当前线程内同步执行完毕时复用上下文
+        val context = ActionContext.acquire(player, itemStack, itemTag, data, event)
         // 用于存储整个动作执行过程中的全局变量
-        val global = HashMap<String, Any?>()
-        // 动作上下文
-        val context = ActionContext(player, global, null, itemStack, itemTag, data, event)
-        // 如果物品需要消耗
-        if (consume != null) {
-            // 预执行动作
-            consume.pre.eval(context)
-            // 检测条件
-            consume.condition?.let {
-                // 不满足条件就爬
-                if (parseCondition(it, context).type == ResultType.STOP) {
+        val global = context.global
+        val inline = basicTrigger?.isInline(context) != false
+                && allTrigger?.isInline(context) != false
+                && consume?.isInline(context) != false
+        try {
+            // 如果物品需要消耗
+            if (consume != null) {
+                // 预执行动作
+                consume.pre.eval(context)
+                // 检测条件
+                consume.condition?.let {
+                    // 不满足条件就爬
+                    if (parseCondition(it, context).type == ResultType.STOP) {
+                        // 跑一下deny动作
+                        consume.deny.eval(context)
+                        // 爬
+                        return
+                    }
+                }
+                // 获取待消耗数量
+                val amount: Int = consume.amount?.parseItemSection(
+                    itemStack, itemInfo, player, global as? MutableMap<String, String>, null
+                )?.toIntOrNull() ?: 1
+                // 消耗物品
+                if (!itemStack.consume(player, amount, itemTag, neigeItems)) {
                     // 跑一下deny动作
                     consume.deny.eval(context)
-                    // 爬
+                    // 数量不足
                     return
                 }
             }
-            // 获取待消耗数量
-            val amount: Int = consume.amount?.parseItemSection(
-                itemStack, itemInfo, player, global as? MutableMap<String, String>, null
-            )?.toIntOrNull() ?: 1
-            // 消耗物品
-            if (!itemStack.consume(player, amount, itemTag, neigeItems)) {
-                // 跑一下deny动作
-                consume.deny.eval(context)
-                // 数量不足
-                return
-            }
+            // 执行动作
+            basicTrigger?.run(context)
+            allTrigger?.run(context)
+        } finally {
+            if (inline) context.release()
         }
-        // 执行动作
-        basicTrigger?.run(context)
-        allTrigger?.run(context)
     }
 
     /**
@@ -343,6 +352,17 @@ object ActionManager : BaseActionManager(NeigeItems.getInstance()) {
         )
     }
 
+    /**
+     * 判断物品是否拥有对应触发器的物品动作
+     *
+     * @param id 物品ID
+     * @param key 触发器
+     * @return 是否拥有对应物品动作
+     */
+    fun hasAction(id: String, key: String): Boolean {
+        return itemActions[id]?.triggers?.get(key) != null
+    }
+
     /**
      * 拾取物品
      */
@@ -503,42 +523,47 @@ object ActionManager : BaseActionManager(NeigeItems.getInstance()) {
             event.isCancelled = true
         }
         val data = itemInfo.data
+        // 动作上下文, 动作全部于当前线程内同步执行完毕时复用上下文
+        val context = ActionContext.acquire(player, itemStack, itemTag, data, event)
         // 用于存储整个动作执行过程中的全局变量
-        val global = HashMap<String, Any?>()
-        // 动作上下文
-        val context = ActionContext(player, global, null, itemStack, itemTag, data, event)
-        if (consumeItem) {
-            // 获取物品消耗信息
-            val consume = trigger.consume
-            // 如果该物品需要被消耗
-            if (consume != null) {
-                // 预执行动作
-                consume.pre.eval(context)
-                // 检测条件
-                consume.condition?.let {
-                    // 不满足条件就爬
-                    if (parseCondition(it, context).type == ResultType.STOP) {
+        val global = context.global
+        val inline = trigger.isInline(context) && (!consumeItem || trigger.consume?.isInline(context) != false)
+        try {
+            if (consumeItem) {
+                // 获取物品消耗信息
+                val consume = trigger.consume
+                // 如果该物品需要被消耗
+                if (consume != null) {
+                    // 预执行动作
+                    consume.pre.eval(context)
+                    // 检测条件
+                    consume.condition?.let {
+                        // 不满足条件就爬
+                        if (parseCondition(it, context).type == ResultType.STOP) {
+                            // 跑一下deny动作
+                            consume.deny.eval(context)
+                            // 爬
+                            return
+                        }
+                    }
+                    // 获取待消耗数量
+                    val amount: Int = consume.amount?.parseItemSection(
+                        itemStack, itemInfo, player, global as? MutableMap<String, String>, null
+                    )?.toIntOrNull() ?: 1
+                    // 消耗物品
+                    if (!itemStack.consume(player, amount, itemTag, neigeItems, giveLater)) {
                         // 跑一下deny动作
                         consume.deny.eval(context)
-                        // 爬
+                        // 数量不足
                         return
                     }
                 }
-                // 获取待消耗数量
-                val amount: Int = consume.amount?.parseItemSection(
-                    itemStack, itemInfo, player, global as? MutableMap<String, String>, null
-                )?.toIntOrNull() ?: 1
-                // 消耗物品
-                if (!itemStack.consume(player, amount, itemTag, neigeItems, giveLater)) {
-                    // 跑一下deny动作
-                    consume.deny.eval(context)
-                    // 数量不足
-                    return
-                }
             }
+            // 执行动作
+            trigger.run(context)
+        } finally {
+            if (inline) context.release()
         }
-        // 执行动作
-        trigger.run(context)
     }
 
     /**
@@ -552,28 +577,48 @@ object ActionManager : BaseActionManager(NeigeItems.getInstance()) {
         val itemAction = itemActions[id] ?: let { return }
         // 获取基础触发器, 没有对应物品动作就停止判断
         val trigger = itemAction.triggers[key] ?: return
+        tick(player, itemStack, itemInfo, trigger, ItemActionType.matchType(key))
+    }
 
+    /**
+     * tick动作, 根据预先构建的tick触发器索引查找触发器, 无需拼接触发器名称
+     *
+     * @param itemAction 物品动作
+     * @param type tick类触发类型
+     */
+    fun tick(
+        player: Player, itemStack: ItemStack, itemInfo: ItemInfo, itemAction: ItemAction, type: ItemActionType
+    ) {
+        // 没有对应物品动作就停止判断
+        if (itemAction.tickMask and type.tickBit == 0L) return
+        val trigger = itemAction.tickTriggers[type.tickIndex] ?: return
+        tick(player, itemStack, itemInfo, trigger, type)
+    }
+
+    private fun tick(
+        player: Player, itemStack: ItemStack, itemInfo: ItemInfo, trigger: ActionTrigger, type: ItemActionType?
+    ) {
         val itemTag = itemInfo.itemTag
 
-        // 检测冷却
+        // 检测冷却(以实际经过的tick计算, 与背包扫描频率无关), User尚未初始化时无法记录冷却, 不进行触发
+        val user = UserManager.INSTANCE[player.uniqueId] ?: return
+        val currentTick = TickInventory.currentTick
+        // 如果仍处于冷却时间
+        if (user.getTick(trigger.tickId) > currentTick) return
         val tick = trigger.tick?.parseItemSection(itemStack, itemInfo, player)?.toLongOrNull() ?: 10
-        // 如果冷却存在且大于0
-        if (tick > 0) {
-            // 获取上次使用时间
-            val lastTick = player.getMetadataEZ("TICK-${trigger.group}", 0.toLong()) as Long
-            // 如果仍处于冷却时间
-            if (lastTick > 0) {
-                player.setMetadataEZ("TICK-${trigger.group}", lastTick - 1)
-                return
-            }
-        }
-        val type = ItemActionType.matchType(key)
         // 没有对应物品动作或事件中止就停止判断
         if (type != null && !ItemActionEvent(player, itemStack, itemInfo, type, trigger).call()) {
             return
         }
-        player.setMetadataEZ("TICK-${trigger.group}", tick)
+        // 记录下次可触发的tick, 触发后间隔tick次再次触发
+        user.setTick(trigger.tickId, if (tick > 0) currentTick + tick + 1 else 0)
+        // 动作上下文, 动作全部于当前线程内同步执行完毕时复用上下文
+        val context = ActionContext.acquire(player, itemStack, itemTag, itemInfo.data, null)
         // 执行动作
-        trigger.run(ActionContext(player, HashMap(), null, itemStack, itemTag, itemInfo.data))
+        if (trigger.runInline(context)) {
+            context.release()
+        } else {
+            trigger.run(context)
+        }
     }
 }
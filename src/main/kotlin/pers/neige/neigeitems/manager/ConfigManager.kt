@@ -6,9 +6,11 @@ import org.bukkit.Bukkit
 import org.bukkit.event.EventPriority
 import pers.neige.neigeitems.NeigeItems
 import pers.neige.neigeitems.annotation.Awake
+import pers.neige.neigeitems.task.ItemFileWatcher
 import pers.neige.neigeitems.utils.ConfigUtils.getFileOrNull
 import pers.neige.neigeitems.utils.ConfigUtils.loadConfig
 import pers.neige.neigeitems.utils.ConfigUtils.saveResourceNotWarn
+import pers.neige.neigeitems.utils.SyncTaskQueue
 import java.io.File
 
 /**
@@ -24,10 +26,23 @@ object ConfigManager {
     var updateCheck = config.getBoolean("Main.UpdateCheck", true)
     var newDataFormat = config.getBoolean("Main.NewDataFormat", false)
     var comboInterval = config.getLong("ItemAction.comboInterval", 500)
+    var loopIterationBudget = config.getInt("ItemAction.loopIterationBudget", 0)
+    var loopTimeBudget = config.getLong("ItemAction.loopTimeBudget", 0)
     var removeNBTWhenGive = config.getBoolean("ItemOwner.removeNBTWhenGive")
     var language = config.getString("Language", "zh_cn")!!
     var forceSync = config.getBoolean("ItemDurability.forceSync", false)
     var checkInventory = config.getBoolean("ItemCheck.checkInventory", true)
+    var fullScanInterval = config.getInt("ItemCheck.fullScanInterval", 20)
+    var tickShards = config.getInt("ItemCheck.tickShards", 1)
+    var tickBudget = config.getLong("ItemCheck.tickBudget", 0)
+    var parallelItemLoading = config.getBoolean("ItemLoading.parallel", false)
+    var incrementalItemReload = config.getBoolean("ItemLoading.incremental", false)
+    var watchItemFiles = config.getBoolean("ItemLoading.watch", false)
+    var parallelItemGenerate = config.getBoolean("ItemGenerate.parallel", true)
+    var syncGenerateEvent = config.getBoolean("ItemGenerate.syncEvent", false)
+    var asyncPostGenerate = config.getBoolean("ItemGenerate.asyncPostGenerate", false)
+    var syncTaskQueue = config.getBoolean("Scheduler.syncQueue", true)
+    var syncTaskQueueBudget = config.getLong("Scheduler.syncQueueBudget", 0)
 
     /**
      * 加载默认配置文件
@@ -76,10 +91,23 @@ object ConfigManager {
         updateCheck = config.getBoolean("Main.UpdateCheck", true)
         newDataFormat = config.getBoolean("Main.NewDataFormat", false)
         comboInterval = config.getLong("ItemAction.comboInterval", 500)
+        loopIterationBudget = config.getInt("ItemAction.loopIterationBudget", 0)
+        loopTimeBudget = config.getLong("ItemAction.loopTimeBudget", 0)
         removeNBTWhenGive = config.getBoolean("ItemOwner.removeNBTWhenGive")
         language = config.getString("Language", "zh_cn")!!
         forceSync = config.getBoolean("ItemDurability.forceSync", false)
         checkInventory = config.getBoolean("ItemCheck.checkInventory", true)
+        fullScanInterval = config.getInt("ItemCheck.fullScanInterval", 20)
+        tickShards = config.getInt("ItemCheck.tickShards", 1)
+        tickBudget = config.getLong("ItemCheck.tickBudget", 0)
+        parallelItemLoading = config.getBoolean("ItemLoading.parallel", false)
+        incrementalItemReload = config.getBoolean("ItemLoading.incremental", false)
+        watchItemFiles = config.getBoolean("ItemLoading.watch", false)
+        parallelItemGenerate = config.getBoolean("ItemGenerate.parallel", true)
+        syncGenerateEvent = config.getBoolean("ItemGenerate.syncEvent", false)
+        asyncPostGenerate = config.getBoolean("ItemGenerate.asyncPostGenerate", false)
+        syncTaskQueue = config.getBoolean("Scheduler.syncQueue", true)
+        syncTaskQueueBudget = config.getLong("Scheduler.syncQueueBudget", 0)
     }
 
     /**
@@ -90,6 +118,10 @@ object ConfigManager {
         NeigeItems.getInstance().loadConfig()
         // 重新加载配置项
         loadConfig()
+        // 按需启动物品文件监听
+        ItemFileWatcher.reload()
+        // 按配置启用主线程任务队列
+        SyncTaskQueue.configure(NeigeItems.getInstance(), syncTaskQueue, syncTaskQueueBudget)
     }
 
     /**
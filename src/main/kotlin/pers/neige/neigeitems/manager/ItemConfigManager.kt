@@ -2,11 +2,17 @@ package pers.neige.neigeitems.manager
 
 import org.bukkit.configuration.file.YamlConfiguration
 import org.bukkit.plugin.java.JavaPlugin
+import org.slf4j.LoggerFactory
 import pers.neige.neigeitems.NeigeItems
+import pers.neige.neigeitems.item.InheritResolver
 import pers.neige.neigeitems.item.ItemConfig
+import pers.neige.neigeitems.item.ItemGenerator
+import pers.neige.neigeitems.utils.ConfigUtils.clone
 import pers.neige.neigeitems.utils.ConfigUtils.getAllFiles
 import java.io.File
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ForkJoinPool
+import java.util.zip.CRC32
 
 /**
  * 物品加载是分两段进行的, 先加载全部基础配置, 再逐个进行继承和全局节点加载
@@ -15,6 +21,11 @@ import java.util.concurrent.ConcurrentHashMap
  * @constructor 构建物品配置管理器
  */
 open class ItemConfigManager(val plugin: JavaPlugin = NeigeItems.getInstance(), val dir: String = "Items") {
+    private companion object {
+        @JvmStatic
+        private val logger = LoggerFactory.getLogger(ItemConfigManager::class.java.simpleName)
+    }
+
     /**
      * 获取全部物品文件
      */
@@ -25,6 +36,16 @@ open class ItemConfigManager(val plugin: JavaPlugin = NeigeItems.getInstance(),
      */
     protected val itemConfigs: ConcurrentHashMap<String, ItemConfig> = ConcurrentHashMap<String, ItemConfig>()
 
+    /**
+     * 获取<物品文件-文件指纹>对应map, 用于增量重载时判断文件是否发生变动
+     */
+    private val fingerprints = HashMap<File, FileFingerprint>()
+
+    /**
+     * 获取<物品文件-文件中的全部物品ID>对应map
+     */
+    private val fileItemIds = HashMap<File, List<String>>()
+
     /**
      * 获取全部物品ID(已排序)
      */
@@ -47,30 +68,178 @@ open class ItemConfigManager(val plugin: JavaPlugin = NeigeItems.getInstance(),
         for (file: File in files) {
             // 仅加载.yml文件
             if (!file.name.endsWith(".yml")) continue
-            // 将文件中所有的有效 %xxx_xxx% 替换为 <papi::xxx_xxx>
-            HookerManager.papiHooker?.let {
-                val text = file.readText()
-                if (it.hasPapi(text)) {
-                    file.writeText(it.toSection(text))
-                }
+            loadItemConfigs(file)
+        }
+    }
+
+    /**
+     * 加载单个文件中的物品配置
+     *
+     * @param file 物品文件
+     * @return 文件中的全部物品ID
+     */
+    private fun loadItemConfigs(file: File): List<String> {
+        // 将文件中所有的有效 %xxx_xxx% 替换为 <papi::xxx_xxx>
+        HookerManager.papiHooker?.let {
+            val text = file.readText()
+            if (it.hasPapi(text)) {
+                file.writeText(it.toSection(text))
             }
-            val config = YamlConfiguration.loadConfiguration(file)
-            config.getKeys(false).forEach { id ->
-                itemConfigs[id] = ItemConfig(id, file, config)
+        }
+        val config = YamlConfiguration.loadConfiguration(file)
+        val ids = ArrayList<String>()
+        config.getKeys(false).forEach { id ->
+            itemConfigs[id] = ItemConfig(id, file, config)
+            ids.add(id)
+        }
+        fingerprints[file] = FileFingerprint.of(file)
+        fileItemIds[file] = ids
+        return ids
+    }
+
+    /**
+     * 卸载单个文件中的物品配置
+     *
+     * @param file 物品文件
+     * @return 文件中的全部物品ID
+     */
+    private fun unloadItemConfigs(file: File): List<String> {
+        fingerprints.remove(file)
+        val ids = fileItemIds.remove(file) ?: return emptyList()
+        ids.forEach { id ->
+            // 同ID物品可能已被其他文件覆盖
+            if (itemConfigs[id]?.file == file) {
+                itemConfigs.remove(id)
             }
         }
+        return ids
     }
 
     /**
      * 重载物品配置
      */
+    @Synchronized
     fun reloadItemConfigs() {
         files.clear()
         itemConfigs.clear()
+        fingerprints.clear()
+        fileItemIds.clear()
         files.addAll(getAllFiles(plugin, dir))
         loadItemConfigs()
     }
 
+    /**
+     * 增量重载物品配置, 仅重新加载发生变动(新增/删除/内容改变)的物品文件.
+     * 文件修改时间及大小均未改变时视为未变动, 否则进一步比对文件内容哈希.
+     *
+     * @return 发生变动的文件中的全部物品ID(包括变动前与变动后)
+     */
+    @Synchronized
+    fun reloadChangedItemConfigs(): MutableSet<String> {
+        val changedIds = HashSet<String>()
+        val currentFiles = getAllFiles(plugin, dir)
+        val currentFileSet = HashSet(currentFiles)
+        // 卸载已删除的文件
+        ArrayList(fileItemIds.keys).forEach { file ->
+            if (!currentFileSet.contains(file)) {
+                changedIds.addAll(unloadItemConfigs(file))
+            }
+        }
+        for (file in currentFiles) {
+            // 仅加载.yml文件
+            if (!file.name.endsWith(".yml")) continue
+            val oldFingerprint = fingerprints[file]
+            if (oldFingerprint != null && oldFingerprint.lastModified == file.lastModified() && oldFingerprint.length == file.length()) continue
+            val fingerprint = FileFingerprint.of(file)
+            // 仅修改时间变动, 内容未变
+            if (oldFingerprint != null && oldFingerprint.hash == fingerprint.hash) {
+                fingerprints[file] = fingerprint
+                continue
+            }
+            changedIds.addAll(unloadItemConfigs(file))
+            changedIds.addAll(loadItemConfigs(file))
+        }
+        files.clear()
+        files.addAll(currentFiles)
+        return changedIds
+    }
+
+    /**
+     * 根据物品基础配置构建物品生成器.
+     * 同一批次的物品共享继承解析器, 每个模板仅解析一次.
+     * ConfigManager.parallelItemLoading 开启时在独立的 ForkJoinPool 中并行构建.
+     * 构建过程不访问物品管理器本身, 以免在物品管理器初始化期间造成类初始化死锁.
+     *
+     * @param itemConfigs 待构建的物品基础配置, 默认为当前全部物品基础配置
+     * @return 构建完成的物品生成器
+     */
+    protected fun loadItemGenerators(
+        itemConfigs: Collection<ItemConfig> = ArrayList(this.itemConfigs.values)
+    ): ConcurrentHashMap<String, ItemGenerator> {
+        val start = System.currentTimeMillis()
+        val inheritResolver = InheritResolver { id -> this.itemConfigs[id]?.configSection?.clone() }
+        val generators = ConcurrentHashMap<String, ItemGenerator>(itemConfigs.size * 4 / 3 + 1)
+        if (ConfigManager.parallelItemLoading && itemConfigs.size > 1) {
+            val classLoader = javaClass.classLoader
+            val pool = ForkJoinPool(Runtime.getRuntime().availableProcessors(), { pool ->
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool).also {
+                    // 保证脚本引擎等依赖上下文类加载器的组件正常工作
+                    it.contextClassLoader = classLoader
+                }
+            }, null, false)
+            try {
+                pool.submit {
+                    itemConfigs.parallelStream().forEach { itemConfig ->
+                        loadItemGenerator(itemConfig, inheritResolver, generators)
+                    }
+                }.get()
+            } finally {
+                pool.shutdown()
+            }
+        } else {
+            for (itemConfig in itemConfigs) {
+                loadItemGenerator(itemConfig, inheritResolver, generators)
+            }
+        }
+        if (ConfigManager.debug) {
+            logger.info("物品加载完毕, 共 {} 个, 耗时: {}ms", generators.size, System.currentTimeMillis() - start)
+            val staticOutputIds = generators.values.filter { it.isStaticOutput }.map { it.id }.sorted()
+            if (staticOutputIds.isNotEmpty()) {
+                logger.info(
+                    "其中 {} 个物品输出完全确定, 将复用原型物品: {}", staticOutputIds.size, staticOutputIds.joinToString(", ")
+                )
+            }
+        }
+        return generators
+    }
+
+    /**
+     * 构建单个物品生成器, 构建失败时仅跳过当前物品
+     *
+     * @param itemConfig 物品基础配置
+     * @param inheritResolver 物品继承解析器
+     * @param generators 存储构建结果
+     */
+    private fun loadItemGenerator(
+        itemConfig: ItemConfig,
+        inheritResolver: InheritResolver,
+        generators: MutableMap<String, ItemGenerator>
+    ) {
+        val time = System.currentTimeMillis()
+        try {
+            generators[itemConfig.id] = ItemGenerator(itemConfig, inheritResolver)
+        } catch (error: Throwable) {
+            logger.error("物品-{}-加载失败", itemConfig.id, error)
+            return
+        }
+        if (ConfigManager.debug) {
+            val current = System.currentTimeMillis() - time
+            if (current > 1) {
+                logger.info("  物品-{}-加载耗时: {}ms", itemConfig.id, current)
+            }
+        }
+    }
+
     fun files(): ArrayList<File> {
         return files
     }
@@ -82,4 +251,23 @@ open class ItemConfigManager(val plugin: JavaPlugin = NeigeItems.getInstance(),
     fun itemIdsRaw(): List<String> {
         return itemIdsRaw
     }
-}
\ No newline at end of file
+
+    /**
+     * 物品文件指纹
+     *
+     * @property lastModified 文件修改时间
+     * @property length 文件大小
+     * @property hash 文件内容哈希
+     */
+    private class FileFingerprint(val lastModified: Long, val length: Long, val hash: Long) {
+        companion object {
+            fun of(file: File): FileFingerprint {
+                val lastModified = file.lastModified()
+                val bytes = file.readBytes()
+                val crc = CRC32()
+                crc.update(bytes)
+                return FileFingerprint(lastModified, bytes.size.toLong(), crc.value)
+            }
+        }
+    }
+}
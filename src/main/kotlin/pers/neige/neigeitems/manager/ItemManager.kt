@@ -6,14 +6,12 @@ import org.bukkit.configuration.ConfigurationSection
 import org.bukkit.configuration.file.YamlConfiguration
 import org.bukkit.entity.Player
 import org.bukkit.inventory.ItemStack
-import org.slf4j.LoggerFactory
 import pers.neige.neigeitems.event.ItemUpdateEvent
 import pers.neige.neigeitems.item.ItemConfig
 import pers.neige.neigeitems.item.ItemGenerator
 import pers.neige.neigeitems.item.ItemInfo
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.NbtUtils
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.internal.annotation.CbVersion
-import pers.neige.neigeitems.manager.ConfigManager.debug
 import pers.neige.neigeitems.manager.HookerManager.nmsHooker
 import pers.neige.neigeitems.utils.ConfigUtils.clone
 import pers.neige.neigeitems.utils.ConfigUtils.getFileOrCreate
@@ -35,12 +33,21 @@ import java.util.concurrent.ConcurrentHashMap
  * @constructor 构建物品管理器
  */
 object ItemManager : ItemConfigManager(), IItemManager {
-    private val logger = LoggerFactory.getLogger(ItemManager::class.java.simpleName)
-
     /**
      * 获取所有物品生成器
      */
-    private val items: ConcurrentHashMap<String, ItemGenerator> = ConcurrentHashMap<String, ItemGenerator>()
+    @Volatile
+    private var items: ConcurrentHashMap<String, ItemGenerator> = ConcurrentHashMap<String, ItemGenerator>()
+
+    /**
+     * 获取<模板ID-继承该模板的物品ID>对应map
+     */
+    private var inheritDependents: Map<String, Set<String>> = emptyMap()
+
+    /**
+     * 获取<全局节点ID/全局节点文件名-调用该全局节点的物品ID>对应map
+     */
+    private var sectionDependents: Map<String, Set<String>> = emptyMap()
 
     /**
      * 获取物品总数
@@ -57,20 +64,40 @@ object ItemManager : ItemConfigManager(), IItemManager {
     }
 
     /**
-     * 初始化所有物品生成器
+     * 初始化所有物品生成器.
+     * 所有物品生成器构建完毕后整体替换当前物品生成器, 构建过程中旧的物品生成器仍然可用.
      */
     private fun loadItems() {
-        var time = System.currentTimeMillis()
+        items = loadItemGenerators()
+        loadDependencies()
+    }
+
+    /**
+     * 根据物品原始配置构建物品依赖索引
+     */
+    private fun loadDependencies() {
+        val inheritDependents = HashMap<String, MutableSet<String>>()
+        val sectionDependents = HashMap<String, MutableSet<String>>()
         for ((id, itemConfig) in itemConfigs) {
-            items[id] = ItemGenerator(itemConfig)
-            if (debug) {
-                val current = System.currentTimeMillis() - time
-                if (current > 1) {
-                    logger.info("  物品-{}-加载耗时: {}ms", id, current)
+            val configSection = itemConfig.configSection ?: continue
+            when (val inheritInfo = configSection.get("inherit")) {
+                is ConfigurationSection -> inheritInfo.getKeys(true).forEach { key ->
+                    (inheritInfo.get(key) as? String)?.let {
+                        inheritDependents.getOrPut(it) { HashSet() }.add(id)
+                    }
                 }
-                time = System.currentTimeMillis()
+
+                is String -> inheritDependents.getOrPut(inheritInfo) { HashSet() }.add(id)
+                is List<*> -> inheritInfo.forEach {
+                    if (it is String) inheritDependents.getOrPut(it) { HashSet() }.add(id)
+                }
+            }
+            configSection.getStringList("globalsections").forEach {
+                sectionDependents.getOrPut(it) { HashSet() }.add(id)
             }
         }
+        this.inheritDependents = inheritDependents
+        this.sectionDependents = sectionDependents
     }
 
     /**
@@ -86,10 +113,44 @@ object ItemManager : ItemConfigManager(), IItemManager {
     /**
      * 重载物品管理器
      */
+    @Synchronized
     override fun reload() {
         reloadItemConfigs()
-        items.clear()
         loadItems()
+        UserManager.INSTANCE.resetInventoryCaches()
+    }
+
+    /**
+     * 增量重载物品管理器.
+     * 仅重建所在文件发生变动的物品, 调用了变动全局节点的物品, 以及直接或间接继承上述物品的物品.
+     * 重建完毕后整体替换当前物品生成器.
+     *
+     * @param changedSections 内容发生变动的全局节点ID及全局节点文件名
+     * @return 重建的物品ID
+     */
+    @Synchronized
+    fun reloadChanged(changedSections: Collection<String> = emptySet()): Set<String> {
+        val changedIds = reloadChangedItemConfigs()
+        loadDependencies()
+        val sectionDependents = sectionDependents
+        changedSections.forEach { section ->
+            sectionDependents[section]?.let { changedIds.addAll(it) }
+        }
+        // 沿继承关系向下查找所有受影响的物品
+        val inheritDependents = inheritDependents
+        val queue = ArrayDeque(changedIds)
+        while (queue.isNotEmpty()) {
+            inheritDependents[queue.removeFirst()]?.forEach {
+                if (changedIds.add(it)) queue.addLast(it)
+            }
+        }
+        if (changedIds.isEmpty()) return changedIds
+        val newItems = ConcurrentHashMap(items)
+        changedIds.forEach { newItems.remove(it) }
+        newItems.putAll(loadItemGenerators(changedIds.mapNotNull { itemConfigs[it] }))
+        items = newItems
+        UserManager.INSTANCE.resetInventoryCaches()
+        return changedIds
     }
 
     /**
@@ -189,6 +250,19 @@ object ItemManager : ItemConfigManager(), IItemManager {
         return items[id]?.getItemStack(player, data)
     }
 
+    /**
+     * 批量生成物品, 各物品独立进行节点解析
+     *
+     * @param id 物品ID
+     * @param player 用于解析物品的玩家
+     * @param data 用于解析物品的指向数据
+     * @param amount 生成数量
+     * @return 生成的物品, 物品不存在时返回空列表
+     */
+    fun getItemStacks(id: String, player: OfflinePlayer?, data: String?, amount: Int): List<ItemStack> {
+        return items[id]?.getItemStacks(player, data, amount) ?: emptyList()
+    }
+
 
     /**
      * 是否存在对应ID的物品
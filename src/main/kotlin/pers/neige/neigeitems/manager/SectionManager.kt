@@ -6,6 +6,7 @@ import pers.neige.neigeitems.section.SectionParser
 import pers.neige.neigeitems.section.impl.*
 import pers.neige.neigeitems.utils.ConfigUtils.getAllFiles
 import pers.neige.neigeitems.utils.ConfigUtils.loadConfiguration
+import pers.neige.neigeitems.utils.ConfigUtils.saveToString
 import pers.neige.neigeitems.utils.SchedulerUtils.syncLater
 import java.io.File
 import java.util.concurrent.ConcurrentHashMap
@@ -36,6 +37,13 @@ object SectionManager {
      */
     val sectionParsers = ConcurrentHashMap<String, SectionParser>()
 
+    /**
+     * 节点解析器版本, 每次注册解析器时自增, 用于使预编译节点重新绑定解析器
+     */
+    @Volatile
+    var parserVersion = 0
+        private set
+
     init {
         // 加载全部全局节点
         loadGlobalSections()
@@ -50,6 +58,7 @@ object SectionManager {
      */
     fun loadParser(sectionParser: SectionParser) {
         sectionParsers[sectionParser.id] = sectionParser
+        parserVersion++
     }
 
     /**
@@ -66,6 +75,26 @@ object SectionManager {
         loadBasicParser()
     }
 
+    /**
+     * 重载节点管理器, 并返回内容发生变动的全局节点ID及全局节点文件名
+     *
+     * @return 内容发生变动的全局节点ID及全局节点文件名
+     */
+    fun reloadChanged(): Set<String> {
+        val oldSectionMap = HashMap(globalSectionMap)
+        reload()
+        val changed = HashSet<String>()
+        for (fileName in oldSectionMap.keys + globalSectionMap.keys) {
+            val oldConfig = oldSectionMap[fileName]
+            val newConfig = globalSectionMap[fileName]
+            if (oldConfig != null && newConfig != null && oldConfig.saveToString(fileName) == newConfig.saveToString(fileName)) continue
+            changed.add(fileName)
+            oldConfig?.let { changed.addAll(it.getKeys(false)) }
+            newConfig?.let { changed.addAll(it.getKeys(false)) }
+        }
+        return changed
+    }
+
     /**
      * 检测替换PAPI变量
      */
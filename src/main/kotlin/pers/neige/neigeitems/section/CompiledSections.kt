@@ -0,0 +1,93 @@
+package pers.neige.neigeitems.section
+
+import org.bukkit.OfflinePlayer
+import org.bukkit.configuration.ConfigurationSection
+import org.bukkit.configuration.MemoryConfiguration
+import org.slf4j.LoggerFactory
+import pers.neige.neigeitems.manager.SectionManager
+import pers.neige.neigeitems.utils.SectionUtils.parseSection
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 预编译节点池, 每个物品生成器持有一个.
+ * 内容与原节点配置一致, 额外缓存 节点ID-预绑定解析器 对应表,
+ * 调用私有节点时无需重复进行 contains/getConfigurationSection/解析器查找.
+ *
+ * @param sections 原节点配置
+ * @constructor 复制原节点配置并构建节点池
+ */
+class CompiledSections(sections: ConfigurationSection) : MemoryConfiguration() {
+    private companion object {
+        @JvmStatic
+        private val logger = LoggerFactory.getLogger(CompiledSections::class.java.simpleName)
+
+        /**
+         * 代表节点池中不存在对应节点
+         */
+        @JvmStatic
+        private val ABSENT = Entry(-1, null)
+    }
+
+    /**
+     * 节点ID-预编译节点
+     */
+    private val entries = ConcurrentHashMap<String, Entry>()
+
+    init {
+        for ((key, value) in sections.getValues(false)) {
+            set(key, value)
+        }
+    }
+
+    /**
+     * 获取节点对应的求值器, 求值时会将解析值存入缓存
+     *
+     * @param id 节点ID
+     * @return 求值器, 节点池中不存在对应节点时返回null
+     */
+    fun getEvaluator(id: String): SectionEvaluator? {
+        val version = SectionManager.parserVersion
+        var entry = entries[id]
+        // 解析器发生变动后需重新绑定
+        if (entry == null || (entry !== ABSENT && entry.version != version)) {
+            entry = compile(id, version)
+            entries[id] = entry
+        }
+        return entry.evaluator
+    }
+
+    private fun compile(id: String, version: Int): Entry {
+        if (!contains(id)) return ABSENT
+        val section = getConfigurationSection(id)
+        // 简单节点
+        if (section == null) {
+            val text = getString(id) ?: return ABSENT
+            return Entry(version, SectionEvaluator { cache, player, sections ->
+                val result = text.parseSection(cache, player, sections)
+                cache?.put(id, result)
+                result
+            })
+        }
+        // 空类型(可能是多层节点)
+        val type = section.getString("type") ?: return Entry(version, SectionEvaluator { _, _, _ -> null })
+        val parser = SectionManager.sectionParsers[type] ?: return Entry(version, SectionEvaluator { _, _, _ ->
+            logger.info("{} 拥有未知节点类型 {}", id, type)
+            null
+        })
+        val evaluator = parser.compile(section) ?: SectionEvaluator { cache, player, sections ->
+            parser.onRequest(section, cache, player, sections)
+        }
+        return Entry(version, SectionEvaluator { cache, player, sections ->
+            // 空返回值(只有解析出错才允许返回空值)
+            val result = evaluator.evaluate(cache, player, sections)
+            if (result == null) {
+                logger.info("{} 节点 {} 无法获取解析值", type, id)
+            } else {
+                cache?.put(id, result)
+            }
+            result
+        })
+    }
+
+    private class Entry(val version: Int, val evaluator: SectionEvaluator?)
+}
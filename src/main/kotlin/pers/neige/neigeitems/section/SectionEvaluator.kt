@@ -0,0 +1,23 @@
+package pers.neige.neigeitems.section
+
+import org.bukkit.OfflinePlayer
+import org.bukkit.configuration.ConfigurationSection
+
+/**
+ * 预编译的私有节点求值器, 由 SectionParser.compile 生成, 可重复调用
+ */
+fun interface SectionEvaluator {
+    /**
+     * 获取节点解析值
+     *
+     * @param cache 解析值缓存
+     * @param player 待解析玩家
+     * @param sections 节点池
+     * @return 解析值(只有解析出错才允许返回空值)
+     */
+    fun evaluate(
+        cache: MutableMap<String, String>?,
+        player: OfflinePlayer?,
+        sections: ConfigurationSection?
+    ): String?
+}
@@ -30,6 +30,17 @@ abstract class SectionParser {
         return null
     }
 
+    /**
+     * 将私有节点预编译为可复用的求值器, 由物品生成器在加载时调用.
+     * 返回null代表不进行预编译, 每次求值时将调用 onRequest(data, cache, player, sections)
+     *
+     * @param data 节点内容
+     * @return 求值器
+     */
+    open fun compile(data: ConfigurationSection): SectionEvaluator? {
+        return null
+    }
+
     /**
      * 用于即时节点解析
      * @param args 节点参数
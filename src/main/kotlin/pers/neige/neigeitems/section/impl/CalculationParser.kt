@@ -2,8 +2,10 @@ package pers.neige.neigeitems.section.impl
 
 import org.bukkit.OfflinePlayer
 import org.bukkit.configuration.ConfigurationSection
+import pers.neige.neigeitems.calculate.CompiledFormula
+import pers.neige.neigeitems.calculate.FormulaParser
+import pers.neige.neigeitems.section.SectionEvaluator
 import pers.neige.neigeitems.section.SectionParser
-import pers.neige.neigeitems.utils.ScriptUtils.calculate
 import pers.neige.neigeitems.utils.ScriptUtils.toRoundingMode
 import pers.neige.neigeitems.utils.SectionUtils.parseSection
 
@@ -19,12 +21,14 @@ object CalculationParser : SectionParser() {
         player: OfflinePlayer?,
         sections: ConfigurationSection?
     ): String? {
+        val formula = data.getString("formula")
         return handler(
             cache,
             player,
             sections,
             true,
-            data.getString("formula"),
+            formula,
+            formula?.let { FormulaParser.compileScriptTemplate(it) },
             data.getString("fixed"),
             data.getString("min"),
             data.getString("max"),
@@ -32,6 +36,19 @@ object CalculationParser : SectionParser() {
         )
     }
 
+    override fun compile(data: ConfigurationSection): SectionEvaluator {
+        val formula = data.getString("formula")
+        // 公式中的节点预编译为变量槽, 无法编译时每次解析后再计算
+        val template = formula?.let { FormulaParser.compileScriptTemplate(it) }
+        val fixed = data.getString("fixed")
+        val min = data.getString("min")
+        val max = data.getString("max")
+        val mode = data.getString("mode")
+        return SectionEvaluator { cache, player, sections ->
+            handler(cache, player, sections, true, formula, template, fixed, min, max, mode)
+        }
+    }
+
     override fun onRequest(
         args: List<String>,
         cache: MutableMap<String, String>?,
@@ -44,6 +61,7 @@ object CalculationParser : SectionParser() {
             sections,
             false,
             args.getOrNull(0),
+            null,
             args.getOrNull(1),
             args.getOrNull(2),
             args.getOrNull(3),
@@ -57,6 +75,7 @@ object CalculationParser : SectionParser() {
      * @param sections 节点池
      * @param parse 是否对参数进行节点解析
      * @param formulaString 公式文本
+     * @param template 预编译公式
      * @param fixedString 取整位数文本
      * @param minString 最小值文本
      * @param maxString 最大值文本
@@ -69,30 +88,37 @@ object CalculationParser : SectionParser() {
         sections: ConfigurationSection?,
         parse: Boolean,
         formulaString: String?,
+        template: CompiledFormula?,
         fixedString: String?,
         minString: String?,
         maxString: String?,
         roundingMode: String?
     ): String? {
         try {
-            // 加载公式
-            formulaString?.parseSection(parse, cache, player, sections)?.let { formula ->
-                // 计算结果
-                var result = formula.calculate()
-                // 获取大小范围
-                minString?.parseSection(parse, cache, player, sections)?.toDoubleOrNull()?.let { min ->
-                    result = min.coerceAtLeast(result)
-                }
-                maxString?.parseSection(parse, cache, player, sections)?.toDoubleOrNull()?.let { max ->
-                    result = max.coerceAtMost(result)
-                }
-                // 获取取整位数
-                val fixed = fixedString?.parseSection(parse, cache, player, sections)?.toIntOrNull() ?: 0
-                // 获取取整模式
-                val mode = roundingMode.toRoundingMode()
-                // 加载结果
-                return result.toBigDecimal().setScale(fixed, mode).toString()
+            // 计算结果, 简单算术表达式直接使用预编译公式计算, 其余情况交由脚本引擎处理
+            var result = when {
+                template == null -> formulaString?.parseSection(parse, cache, player, sections)?.let {
+                    FormulaParser.calculateScript(it)
+                } ?: return null
+
+                template.slotCount == 0 -> template.evaluate()
+                else -> template.evaluate(Array(template.slotCount) {
+                    template.getSlot(it).parseSection(cache, player, sections)
+                })
+            }
+            // 获取大小范围
+            minString?.parseSection(parse, cache, player, sections)?.toDoubleOrNull()?.let { min ->
+                result = min.coerceAtLeast(result)
+            }
+            maxString?.parseSection(parse, cache, player, sections)?.toDoubleOrNull()?.let { max ->
+                result = max.coerceAtMost(result)
             }
+            // 获取取整位数
+            val fixed = fixedString?.parseSection(parse, cache, player, sections)?.toIntOrNull() ?: 0
+            // 获取取整模式
+            val mode = roundingMode.toRoundingMode()
+            // 加载结果
+            return result.toBigDecimal().setScale(fixed, mode).toString()
         } catch (error: Throwable) {
             error.printStackTrace()
         }
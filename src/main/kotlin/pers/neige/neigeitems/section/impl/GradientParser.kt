@@ -2,6 +2,7 @@ package pers.neige.neigeitems.section.impl
 
 import org.bukkit.OfflinePlayer
 import org.bukkit.configuration.ConfigurationSection
+import pers.neige.neigeitems.section.SectionEvaluator
 import pers.neige.neigeitems.section.SectionParser
 import pers.neige.neigeitems.utils.ColorUtils
 import pers.neige.neigeitems.utils.SectionUtils.parseSection
@@ -31,6 +32,16 @@ object GradientParser : SectionParser() {
         )
     }
 
+    override fun compile(data: ConfigurationSection): SectionEvaluator {
+        val colorStart = data.getString("colorStart")
+        val colorEnd = data.getString("colorEnd")
+        val step = data.getString("step")
+        val text = data.getString("text")
+        return SectionEvaluator { cache, player, sections ->
+            handler(cache, player, sections, true, colorStart, colorEnd, step, text)
+        }
+    }
+
     override fun onRequest(
         args: List<String>,
         cache: MutableMap<String, String>?,
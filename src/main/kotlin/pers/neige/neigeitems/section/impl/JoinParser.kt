@@ -3,6 +3,7 @@ package pers.neige.neigeitems.section.impl
 import org.bukkit.OfflinePlayer
 import org.bukkit.configuration.ConfigurationSection
 import pers.neige.neigeitems.script.CompiledScript
+import pers.neige.neigeitems.section.SectionEvaluator
 import pers.neige.neigeitems.section.SectionParser
 import pers.neige.neigeitems.utils.SectionUtils.parseSection
 import java.util.concurrent.ConcurrentHashMap
@@ -34,11 +35,44 @@ object JoinParser : SectionParser() {
             data.getString("postfix"),
             data.getString("limit"),
             data.getString("truncated"),
-            data.getString("transform"),
+            data.getString("transform")?.let { getTransform(it) },
             data.getString("shuffled")
         )
     }
 
+    override fun compile(data: ConfigurationSection): SectionEvaluator {
+        val list = data.getStringList("list")
+        val separator = data.getString("separator")
+        val prefix = data.getString("prefix")
+        val postfix = data.getString("postfix")
+        val limit = data.getString("limit")
+        val truncated = data.getString("truncated")
+        val rawTransform = data.getString("transform")
+        // 首次求值时再编译脚本, 避免脚本错误影响物品加载
+        val transform by lazy(LazyThreadSafetyMode.PUBLICATION) { rawTransform?.let { getTransform(it) } }
+        val shuffled = data.getString("shuffled")
+        return SectionEvaluator { cache, player, sections ->
+            handler(cache, player, sections, list, separator, prefix, postfix, limit, truncated, transform, shuffled)
+        }
+    }
+
+    /**
+     * 获取操作函数对应的已编译脚本
+     *
+     * @param transform 操作函数文本
+     * @return 已编译脚本
+     */
+    private fun getTransform(transform: String): CompiledScript {
+        return compiledScripts.computeIfAbsent(transform) {
+            CompiledScript(
+                """
+                function main() {
+                    $it
+                }""".trimIndent()
+            )
+        }
+    }
+
     /**
      * @param cache 解析值缓存
      * @param player 待解析玩家
@@ -49,7 +83,7 @@ object JoinParser : SectionParser() {
      * @param rawPostfix 后缀
      * @param rawLimit 长度限制
      * @param rawTruncated 删节符号
-     * @param rawTransform 操作函数
+     * @param transform 操作函数
      * @param rawShuffled 是否乱序
      * @return 解析值
      */
@@ -63,7 +97,7 @@ object JoinParser : SectionParser() {
         rawPostfix: String?,
         rawLimit: String?,
         rawTruncated: String?,
-        rawTransform: String?,
+        transform: CompiledScript?,
         rawShuffled: String?
     ): String? {
         // 如果待操作列表存在, 进行后续操作
@@ -84,18 +118,6 @@ object JoinParser : SectionParser() {
             }
             // 获取删节符号
             val truncated = rawTruncated?.parseSection(cache, player, sections)
-            // 获取操作函数
-            val transform = rawTransform?.let {
-                compiledScripts.computeIfAbsent(it) {
-                    CompiledScript(
-                        """
-                        function main() {
-                            $it
-                        }""".trimIndent()
-                    )
-                }
-            }
-
             // 开始构建结果
             val result = StringBuilder()
             // 添加前缀
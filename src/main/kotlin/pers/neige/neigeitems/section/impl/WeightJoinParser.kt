@@ -3,8 +3,9 @@ package pers.neige.neigeitems.section.impl
 import org.bukkit.OfflinePlayer
 import org.bukkit.configuration.ConfigurationSection
 import pers.neige.neigeitems.script.CompiledScript
+import pers.neige.neigeitems.section.SectionEvaluator
 import pers.neige.neigeitems.section.SectionParser
-import pers.neige.neigeitems.utils.SamplingUtils.weight
+import pers.neige.neigeitems.utils.SamplingUtils
 import pers.neige.neigeitems.utils.SectionUtils.parseSection
 import java.util.concurrent.ConcurrentHashMap
 
@@ -36,10 +37,27 @@ object WeightJoinParser : SectionParser() {
             data.getString("amount"),
             data.getString("transform"),
             data.getString("shuffled"),
-            data.getString("order")
+            data.getString("order"),
+            null
         )
     }
 
+    override fun compile(data: ConfigurationSection): SectionEvaluator {
+        val list = data.getStringList("list")
+        val separator = data.getString("separator")
+        val prefix = data.getString("prefix")
+        val postfix = data.getString("postfix")
+        val amount = data.getString("amount")
+        val transform = data.getString("transform")
+        val shuffled = data.getString("shuffled")
+        val order = data.getString("order")
+        // 不包含节点的权重列表可以预先统计并构建采样器
+        val weights = if (list.none { it.contains('<') || it.contains('\\') }) Weights(list) else null
+        return SectionEvaluator { cache, player, sections ->
+            handler(cache, player, sections, list, separator, prefix, postfix, amount, transform, shuffled, order, weights)
+        }
+    }
+
     /**
      * @param cache 解析值缓存
      * @param player 待解析玩家
@@ -52,6 +70,7 @@ object WeightJoinParser : SectionParser() {
      * @param rawTransform 操作函数
      * @param rawShuffled 是否乱序
      * @param rawOrder 是否按原有顺序排列
+     * @param prepared 预先统计的权重信息, 为null时根据解析后的列表统计
      * @return 解析值
      */
     private fun handler(
@@ -65,7 +84,8 @@ object WeightJoinParser : SectionParser() {
         rawAmount: String?,
         rawTransform: String?,
         rawShuffled: String?,
-        rawOrder: String?
+        rawOrder: String?,
+        prepared: Weights?
     ): String? {
         // 如果待操作列表存在, 进行后续操作
         list?.let {
@@ -95,36 +115,9 @@ object WeightJoinParser : SectionParser() {
             val result = StringBuilder()
             // 添加前缀
             result.append(prefix)
-            // 索引记录
-            val indexMap = if (order) {
-                HashMap<String, Int>()
-            } else {
-                null
-            }
-
             // 加权随机取值
-            val info = HashMap<String, Double>()
-            // 加载所有参数并遍历
-            list.forEachIndexed { i, raw ->
-                val value = raw.parseSection(cache, player, sections)
-                // 检测权重
-                when (val index = value.indexOf("::")) {
-                    // 无权重, 直接记录
-                    -1 -> {
-                        info[value] = info.getOrDefault(value, 0.0) + 1
-                        // 索引记录
-                        indexMap?.put(value, i)
-                    }
-                    // 有权重, 根据权重大小进行记录
-                    else -> {
-                        val weight = value.substring(0, index).toDoubleOrNull() ?: 1.0
-                        val string = value.substring(index + 2, value.length)
-                        info[string] = info.getOrDefault(string, 0.0) + weight
-                        // 索引记录
-                        indexMap?.put(string, i)
-                    }
-                }
-            }
+            val weights = prepared ?: Weights(list.map { it.parseSection(cache, player, sections) })
+            val info = weights.info
 
             // 获取数量限制
             val amount = rawAmount?.parseSection(cache, player, sections)?.toIntOrNull()?.let {
@@ -136,10 +129,11 @@ object WeightJoinParser : SectionParser() {
             } ?: 1
 
             // 获取结果
+            val sampled = weights.sampler.sampleValues(amount)
             val realList = when {
-                shuffled -> weight(info, amount).shuffled()
-                order -> weight(info, amount).sortedBy { indexMap!![it] }
-                else -> weight(info, amount)
+                shuffled -> sampled.shuffled()
+                order -> sampled.sortedBy { weights.indexMap[it] }
+                else -> sampled
             }
 
             // 预定义参数map
@@ -189,4 +183,48 @@ object WeightJoinParser : SectionParser() {
         }
         return null
     }
-}
\ No newline at end of file
+
+    /**
+     * 权重信息
+     *
+     * @param values 已解析的文本列表
+     */
+    private class Weights(values: List<String>) {
+        /**
+         * 文本-权重
+         */
+        val info = HashMap<String, Double>()
+
+        /**
+         * 文本-最后出现的索引
+         */
+        val indexMap = HashMap<String, Int>()
+
+        init {
+            values.forEachIndexed { i, value ->
+                // 检测权重
+                when (val index = value.indexOf("::")) {
+                    // 无权重, 直接记录
+                    -1 -> {
+                        info[value] = info.getOrDefault(value, 0.0) + 1
+                        // 索引记录
+                        indexMap[value] = i
+                    }
+                    // 有权重, 根据权重大小进行记录
+                    else -> {
+                        val weight = value.substring(0, index).toDoubleOrNull() ?: 1.0
+                        val string = value.substring(index + 2, value.length)
+                        info[string] = info.getOrDefault(string, 0.0) + weight
+                        // 索引记录
+                        indexMap[string] = i
+                    }
+                }
+            }
+        }
+
+        /**
+         * 不放回加权采样器
+         */
+        val sampler = SamplingUtils.sampler(info)
+    }
+}
@@ -2,7 +2,9 @@ package pers.neige.neigeitems.section.impl
 
 import org.bukkit.OfflinePlayer
 import org.bukkit.configuration.ConfigurationSection
+import pers.neige.neigeitems.section.SectionEvaluator
 import pers.neige.neigeitems.section.SectionParser
+import pers.neige.neigeitems.utils.SamplingUtils
 import pers.neige.neigeitems.utils.SectionUtils.parseSection
 import java.math.BigDecimal
 import java.util.concurrent.ThreadLocalRandom
@@ -28,6 +30,20 @@ object WeightParser : SectionParser() {
         )
     }
 
+    override fun compile(data: ConfigurationSection): SectionEvaluator {
+        val values = data.getStringList("values")
+        // 不包含节点的权重列表可以预先统计并构建别名表
+        if (values.none { it.contains('<') || it.contains('\\') }) {
+            val info = HashMap<String, BigDecimal>()
+            collect(values, info)
+            val aliasTable = SamplingUtils.aliasTable(info.mapValues { it.value.toDouble() })
+            return SectionEvaluator { _, _, _ -> aliasTable.sample() }
+        }
+        return SectionEvaluator { cache, player, sections ->
+            handler(cache, player, sections, true, values)
+        }
+    }
+
     override fun onRequest(
         args: List<String>,
         cache: MutableMap<String, String>?,
@@ -59,10 +75,22 @@ object WeightParser : SectionParser() {
         values: List<String>
     ): String? {
         val info = HashMap<String, BigDecimal>()
+        // 加载所有参数
+        val total = collect(values.map { it.parseSection(parse, cache, player, sections) }, info)
+        // 根据最后的记录值进行字符随机
+        return pick(info, total)?.parseSection(parse, cache, player, sections)
+    }
+
+    /**
+     * 统计权重
+     *
+     * @param values 已解析的文本列表
+     * @param info 用于记录 文本-权重
+     * @return 总权重
+     */
+    private fun collect(values: List<String>, info: HashMap<String, BigDecimal>): BigDecimal {
         var total = BigDecimal.ZERO
-        // 加载所有参数并遍历
-        values.forEach {
-            val value = it.parseSection(parse, cache, player, sections)
+        values.forEach { value ->
             // 检测权重
             when (val index = value.indexOf("::")) {
                 // 无权重, 直接记录
@@ -79,22 +107,26 @@ object WeightParser : SectionParser() {
                 }
             }
         }
-        // 根据最后的记录值进行字符随机
-        return when {
-            info.isEmpty() -> null
-            else -> {
-                val random = BigDecimal(ThreadLocalRandom.current().nextDouble().toString()).multiply(total)
-                var current = BigDecimal.ZERO
-                var result: String? = null
-                for ((key, value) in info) {
-                    current = current.add(value)
-                    if (random <= current) {
-                        result = key.parseSection(parse, cache, player, sections)
-                        break
-                    }
-                }
-                result
+        return total
+    }
+
+    /**
+     * 根据权重随机选取文本
+     *
+     * @param info 文本-权重
+     * @param total 总权重
+     * @return 选取结果, 不存在可选文本时返回null
+     */
+    private fun pick(info: Map<String, BigDecimal>, total: BigDecimal): String? {
+        if (info.isEmpty()) return null
+        val random = BigDecimal(ThreadLocalRandom.current().nextDouble().toString()).multiply(total)
+        var current = BigDecimal.ZERO
+        for ((key, value) in info) {
+            current = current.add(value)
+            if (random <= current) {
+                return key
             }
         }
+        return null
     }
-}
\ No newline at end of file
+}
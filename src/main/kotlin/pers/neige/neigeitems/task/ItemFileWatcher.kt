@@ -0,0 +1,132 @@
+package pers.neige.neigeitems.task
+
+import org.slf4j.LoggerFactory
+import pers.neige.neigeitems.NeigeItems
+import pers.neige.neigeitems.annotation.Awake
+import pers.neige.neigeitems.event.PluginReloadEvent
+import pers.neige.neigeitems.manager.ConfigManager
+import pers.neige.neigeitems.manager.ItemManager
+import pers.neige.neigeitems.manager.SectionManager
+import java.io.File
+import java.nio.file.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * 物品文件监听任务, 监听 Items 及 GlobalSections 文件夹, 文件变动时在监听线程中进行增量重载
+ */
+object ItemFileWatcher {
+    @JvmStatic
+    private val logger = LoggerFactory.getLogger(ItemFileWatcher::class.java.simpleName)
+
+    /**
+     * 文件变动后的静默等待时间(毫秒), 期间的连续变动合并为一次重载
+     */
+    private const val QUIET_PERIOD = 500L
+
+    private var thread: Thread? = null
+
+    /**
+     * 根据配置启动或关闭文件监听
+     */
+    @JvmStatic
+    @Synchronized
+    fun reload() {
+        stop()
+        if (!ConfigManager.watchItemFiles) return
+        val dataFolder = NeigeItems.getInstance().dataFolder
+        val itemDir = File(dataFolder, "Items").toPath()
+        val sectionDir = File(dataFolder, "GlobalSections").toPath()
+        val service = FileSystems.getDefault().newWatchService()
+        try {
+            register(service, itemDir)
+            register(service, sectionDir)
+        } catch (error: Throwable) {
+            service.close()
+            logger.error("物品文件监听启动失败", error)
+            return
+        }
+        thread = Thread({ watch(service, sectionDir) }, "NeigeItems-ItemFileWatcher").also {
+            it.isDaemon = true
+            it.start()
+        }
+    }
+
+    /**
+     * 关闭文件监听
+     */
+    @JvmStatic
+    @Synchronized
+    @Awake(lifeCycle = Awake.LifeCycle.DISABLE)
+    fun stop() {
+        thread?.interrupt()
+        thread = null
+    }
+
+    /**
+     * 注册文件夹及其全部子文件夹
+     */
+    private fun register(service: WatchService, dir: Path) {
+        if (!Files.isDirectory(dir)) return
+        Files.walk(dir).use { paths ->
+            paths.filter { Files.isDirectory(it) }.forEach {
+                it.register(
+                    service,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY
+                )
+            }
+        }
+    }
+
+    private fun watch(service: WatchService, sectionDir: Path) {
+        service.use {
+            try {
+                while (!Thread.currentThread().isInterrupted) {
+                    var key: WatchKey? = service.take()
+                    var sectionChanged = false
+                    // 合并静默期内的连续变动
+                    while (key != null) {
+                        val dir = key.watchable() as Path
+                        for (event in key.pollEvents()) {
+                            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                                sectionChanged = true
+                                continue
+                            }
+                            val path = dir.resolve(event.context() as Path)
+                            // 新建的子文件夹同样需要监听
+                            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                                register(service, path)
+                            }
+                            if (path.startsWith(sectionDir)) {
+                                sectionChanged = true
+                            }
+                        }
+                        key.reset()
+                        key = service.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS)
+                    }
+                    reloadChanged(sectionChanged)
+                }
+            } catch (_: InterruptedException) {
+            } catch (_: ClosedWatchServiceException) {
+            }
+        }
+    }
+
+    private fun reloadChanged(sectionChanged: Boolean) {
+        try {
+            PluginReloadEvent.Pre(PluginReloadEvent.Type.ITEM).call()
+            // 与 /ni reload 共用 ItemManager 的锁, 避免两次重载交错执行
+            val changedIds = synchronized(ItemManager) {
+                val changedSections = if (sectionChanged) SectionManager.reloadChanged() else emptySet()
+                ItemManager.reloadChanged(changedSections)
+            }
+            PluginReloadEvent.Post(PluginReloadEvent.Type.ITEM).call()
+            if (changedIds.isNotEmpty()) {
+                logger.info("检测到物品文件变动, 已重建 {} 个物品", changedIds.size)
+            }
+        } catch (error: Throwable) {
+            logger.error("物品文件变动后重载失败", error)
+        }
+    }
+}
@@ -2,55 +2,201 @@ package pers.neige.neigeitems.task
 
 import org.bukkit.Bukkit
 import org.bukkit.Material
+import org.bukkit.entity.Player
+import org.bukkit.inventory.PlayerInventory
 import pers.neige.neigeitems.annotation.Schedule
 import pers.neige.neigeitems.item.ItemCheck
+import pers.neige.neigeitems.item.action.ItemActionType
 import pers.neige.neigeitems.manager.ActionManager
 import pers.neige.neigeitems.manager.ConfigManager
 import pers.neige.neigeitems.manager.ItemManager.checkDurability
+import pers.neige.neigeitems.manager.UserManager
+import pers.neige.neigeitems.user.InventoryCache
 import pers.neige.neigeitems.utils.ItemUtils.getDamage
 import pers.neige.neigeitems.utils.ItemUtils.isNiItem
+import pers.neige.neigeitems.utils.ItemUtils.peekNiId
 import pers.neige.neigeitems.utils.ItemUtils.setDamage
 
 /**
- * 玩家背包扫描任务, 用于物品过期检查、耐久百分比同步、物品更新、tick动作执行
+ * 玩家背包扫描任务, 用于物品过期检查、耐久百分比同步、物品更新、tick动作执行.
+ * 背包内容未发生变动时, 仅处理拥有tick动作的槽位, 以及过期时间轮中已到期的槽位.
+ * 可将在线玩家分为多组轮流扫描, 并限制每tick的扫描时间, 超出时间的玩家顺延至下一tick.
  */
 object TickInventory {
+    /**
+     * 当前tick, 每次调度加一, 用于计算tick动作的触发间隔
+     */
+    @JvmStatic
+    @Volatile
+    var currentTick = 0L
+        private set
+
+    /**
+     * 等待扫描的玩家
+     */
+    private val backlog = ArrayDeque<Player>()
+
+    /**
+     * 已在等待队列中的玩家
+     */
+    private val queued = HashSet<Player>()
+
+    /**
+     * 当前等待扫描的玩家数量
+     */
+    @JvmStatic
+    @Volatile
+    var backlogSize = 0
+        private set
+
+    /**
+     * 因超出每tick扫描时间上限而顺延的玩家扫描次数
+     */
+    @JvmStatic
+    @Volatile
+    var deferredCount = 0L
+        private set
+
     @JvmStatic
     @Schedule(period = 1, async = true)
     private fun schedule() {
-        Bukkit.getOnlinePlayers().forEach { player ->
-            val inventory = player.inventory
-            for (index in 0 until 41) {
-                kotlin.runCatching {
-                    // 获取物品
-                    val itemStack = inventory.getItem(index)
-                    // 获取NI物品信息(不是NI物品就停止操作)
-                    val itemInfo = itemStack?.isNiItem() ?: return@runCatching
-
-                    // 检测物品过期, 检测物品更新
-                    ItemCheck.checkItem(player, itemStack, itemInfo)
-                    // 耐久百分比强制同步
-                    if (ConfigManager.forceSync && itemInfo.neigeItems.containsKey("durability")) {
-                        val durability = itemInfo.neigeItems.getInt("durability")
-                        val maxDurability = itemInfo.neigeItems.getInt("maxDurability")
-                        val theoreticalDamage = itemStack.checkDurability(durability, maxDurability)
-                        if (itemStack.getDamage() != theoreticalDamage) {
-                            itemStack.setDamage(theoreticalDamage)
-                        }
-                    }
-                    if (itemStack.amount != 0 && itemStack.type != Material.AIR) {
-                        // 执行物品动作
-                        ActionManager.tick(player, itemStack, itemInfo, "tick_$index")
-                        when (index) {
-                            inventory.heldItemSlot -> ActionManager.tick(player, itemStack, itemInfo, "tick_hand")
-                            40 -> ActionManager.tick(player, itemStack, itemInfo, "tick_offhand")
-                            39 -> ActionManager.tick(player, itemStack, itemInfo, "tick_head")
-                            38 -> ActionManager.tick(player, itemStack, itemInfo, "tick_chest")
-                            37 -> ActionManager.tick(player, itemStack, itemInfo, "tick_legs")
-                            36 -> ActionManager.tick(player, itemStack, itemInfo, "tick_feet")
-                        }
+        synchronized(backlog) {
+            val tick = ++currentTick
+            // 将到达过期时间的槽位标记为待处理
+            InventoryCache.advanceExpiries(System.currentTimeMillis())
+            val shards = ConfigManager.tickShards.coerceAtLeast(1)
+            val budget = ConfigManager.tickBudget * 1_000_000L
+            if (shards == 1 && budget <= 0 && backlog.isEmpty()) {
+                Bukkit.getOnlinePlayers().forEach { scanInventory(it, tick) }
+                return
+            }
+            // 将本tick对应分组的玩家加入等待队列
+            val shard = (tick % shards).toInt()
+            Bukkit.getOnlinePlayers().forEach { player ->
+                if ((player.uniqueId.hashCode() and Int.MAX_VALUE) % shards == shard && queued.add(player)) {
+                    backlog.addLast(player)
+                }
+            }
+            val deadline = if (budget > 0) System.nanoTime() + budget else Long.MAX_VALUE
+            // 每tick至少扫描一名玩家, 保证队列向前推进
+            while (backlog.isNotEmpty()) {
+                val player = backlog.removeFirst()
+                queued.remove(player)
+                if (player.isOnline) {
+                    scanInventory(player, tick)
+                }
+                if (System.nanoTime() >= deadline) break
+            }
+            backlogSize = backlog.size
+            deferredCount += backlog.size
+        }
+    }
+
+    /**
+     * 扫描玩家背包
+     */
+    private fun scanInventory(player: Player, tick: Long) {
+        val inventory = player.inventory
+        val cache = UserManager.INSTANCE[player.uniqueId]?.inventoryCache
+        if (cache == null) {
+            // User尚未初始化, 不使用缓存
+            for (index in 0 until InventoryCache.SLOT_COUNT) {
+                tickSlot(player, inventory, index, null)
+            }
+            return
+        }
+        if (cache.beginScan(inventory.heldItemSlot, ConfigManager.fullScanInterval, tick)) {
+            for (index in 0 until InventoryCache.SLOT_COUNT) {
+                tickSlot(player, inventory, index, cache)
+            }
+            cache.finishScan()
+        } else {
+            var dueSlots = cache.pollDueSlots()
+            // 拥有tick动作的槽位
+            for (index in cache.activeSlots) {
+                dueSlots = dueSlots and (1L shl index).inv()
+                tickSlot(player, inventory, index, cache)
+            }
+            // 已到达过期时间的槽位
+            while (dueSlots != 0L) {
+                val index = java.lang.Long.numberOfTrailingZeros(dueSlots)
+                dueSlots = dueSlots and (dueSlots - 1)
+                tickSlot(player, inventory, index, cache)
+            }
+        }
+    }
+
+    /**
+     * 处理单个槽位
+     *
+     * @param cache 背包槽位状态缓存, 为null时每次都进行完整检查
+     */
+    private fun tickSlot(
+        player: Player,
+        inventory: PlayerInventory,
+        index: Int,
+        cache: InventoryCache?
+    ) {
+        kotlin.runCatching {
+            // 获取物品
+            val itemStack = inventory.getItem(index)
+            // 快速获取NI物品ID, 不是NI物品时不构建NI物品信息
+            val id = itemStack.peekNiId()
+            // 获取NI物品信息(不是NI物品就停止操作)
+            val itemInfo = id?.let { itemStack?.isNiItem(it) } ?: let {
+                cache?.clear(index)
+                return@runCatching
+            }
+            val neigeItems = itemInfo.neigeItems
+            // 物品拥有的tick类动作
+            val itemAction = ActionManager.itemActions[itemInfo.id]
+            val tickMask = itemAction?.tickMask ?: 0L
+            val hashCode = neigeItems.getInt("hashCode", 0)
+            val itemTime = neigeItems.getLong("itemTime", InventoryCache.NO_EXPIRY)
+            val durability = neigeItems.getInt("durability", -1)
+
+            val time = System.currentTimeMillis()
+            // 物品与上次检查时一致且未过期时, 无需重复检查
+            if (
+                cache == null
+                || ConfigManager.fullScanInterval <= 0
+                || !cache.matches(index, itemInfo.id, hashCode, itemTime, durability)
+                || time >= itemTime
+            ) {
+                // 检测物品过期, 检测物品更新
+                ItemCheck.checkItem(player, itemStack, itemInfo)
+                // 耐久百分比强制同步
+                if (ConfigManager.forceSync && neigeItems.containsKey("durability")) {
+                    val maxDurability = neigeItems.getInt("maxDurability")
+                    val theoreticalDamage = itemStack.checkDurability(durability, maxDurability)
+                    if (itemStack.getDamage() != theoreticalDamage) {
+                        itemStack.setDamage(theoreticalDamage)
                     }
                 }
+                // 检查后物品发生变动将触发数据包使缓存失效, 下一tick重新记录
+                cache?.record(
+                    index,
+                    itemInfo.id,
+                    hashCode,
+                    itemTime,
+                    durability,
+                    tickMask != 0L,
+                    time
+                )
+            }
+            // 没有tick类动作的物品无需继续处理
+            if (itemAction == null || tickMask == 0L) return@runCatching
+            if (itemStack.amount != 0 && itemStack.type != Material.AIR) {
+                // 执行物品动作
+                ActionManager.tick(player, itemStack, itemInfo, itemAction, ItemActionType.tickSlot(index))
+                when (index) {
+                    inventory.heldItemSlot -> ActionManager.tick(player, itemStack, itemInfo, itemAction, ItemActionType.TICK_HAND)
+                    40 -> ActionManager.tick(player, itemStack, itemInfo, itemAction, ItemActionType.TICK_OFFHAND)
+                    39 -> ActionManager.tick(player, itemStack, itemInfo, itemAction, ItemActionType.TICK_HEAD)
+                    38 -> ActionManager.tick(player, itemStack, itemInfo, itemAction, ItemActionType.TICK_CHEST)
+                    37 -> ActionManager.tick(player, itemStack, itemInfo, itemAction, ItemActionType.TICK_LEGS)
+                    36 -> ActionManager.tick(player, itemStack, itemInfo, itemAction, ItemActionType.TICK_FEET)
+                }
             }
         }
     }
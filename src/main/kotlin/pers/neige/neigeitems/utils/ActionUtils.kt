@@ -58,7 +58,7 @@ object ActionUtils {
      */
     @JvmStatic
     fun ActionTrigger.isCoolDown(player: Player, cd: Long): Boolean {
-        val leftTime = player.checkCooldown("ni:$group", cd)
+        val leftTime = player.checkCooldown(cooldownId, cd)
         if (leftTime > 0) {
             ConfigManager.config.getString("Messages.itemCooldown")?.let {
                 val message = it.replace("{time}", "%.1f".format(leftTime.toDouble() / 1000))
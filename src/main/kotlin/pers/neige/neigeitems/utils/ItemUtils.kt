@@ -10,6 +10,7 @@ import org.bukkit.entity.Player
 import org.bukkit.inventory.ItemStack
 import org.bukkit.util.Vector
 import pers.neige.neigeitems.config.ConfigReader
+import pers.neige.neigeitems.item.ItemGenerator
 import pers.neige.neigeitems.item.ItemInfo
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.*
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.api.NbtComponentLike
@@ -563,6 +564,21 @@ object ItemUtils {
         return null
     }
 
+    /**
+     * 已通过 peekNiId 获取NI物品ID时, 复用该ID构建NI物品信息, 不再重复读取物品ID
+     *
+     * @param id 已知的NI物品ID
+     * @return NI物品信息, 非NI物品返回null
+     */
+    @JvmStatic
+    fun ItemStack.isNiItem(id: String): ItemInfo? {
+        // 获取物品NBT
+        val itemTag = this.getNbtOrNull() ?: return null
+        // 如果为非NI物品则终止操作
+        val neigeItems = itemTag.getCompound("NeigeItems") ?: return null
+        return ItemInfo(this, NbtItemStack(this), itemTag, neigeItems, id, null)
+    }
+
     /**
      * 根据ItemStack获取对应的NI物品ID
      *
@@ -570,8 +586,19 @@ object ItemUtils {
      */
     @JvmStatic
     fun ItemStack?.getItemId(): String? {
-        val directTag = this.getDirectTag()
-        return directTag?.getDeepString("NeigeItems.id")
+        return this.peekNiId()
+    }
+
+    /**
+     * 快速获取NI物品ID, 直接读取物品NBT, 不构建 ItemInfo 及NBT包装对象.
+     * 用于在构建完整的NI物品信息前判断物品是否需要继续处理.
+     *
+     * @return NI物品ID, 非NI物品返回null
+     */
+    @JvmStatic
+    fun ItemStack?.peekNiId(): String? {
+        if (this == null || this.type == Material.AIR) return null
+        return NeigeItemsUtils.peekNiId(this)
     }
 
     /**
@@ -693,13 +720,21 @@ object ItemUtils {
         sections: ConfigurationSection? = null,
         parse: Boolean
     ) {
+        // 先解析, 解析完根据换行符分割
+        val infos = ArrayList<String>()
         for (rawInfo in itemInfos) {
-            // 先解析, 解析完根据换行符分割, 分割完遍历随机
-            val infos = if (parse) {
-                rawInfo.parseSection(cache, player, sections).split("\n")
+            if (parse) {
+                infos.addAll(rawInfo.parseSection(cache, player, sections).split("\n"))
             } else {
-                rawInfo.split("\n")
+                infos.addAll(rawInfo.split("\n"))
             }
+        }
+        // 各条物品信息相互独立, 条件允许时并行生成, 结果按物品信息顺序合并
+        if (infos.size > 1 && ItemGenerator.canGenerateParallel()) {
+            ItemGenerator.generateParallel(infos.size) { index ->
+                ArrayList<ItemStack>().also { loadItems(it, infos[index], player) }
+            }.forEach { items.addAll(it) }
+        } else {
             for (info in infos) {
                 loadItems(items, info, player)
             }
@@ -797,11 +832,7 @@ object ItemUtils {
             // 随机生成, 那疯狂造就完事儿了
             when {
                 ItemManager.hasItem(args[0]) -> {
-                    repeat(amount) {
-                        ItemManager.getItemStack(args[0], player, data)?.let { itemStack ->
-                            items.add(itemStack)
-                        }
-                    }
+                    items.addAll(ItemManager.getItemStacks(args[0], player, data, amount))
                 }
 
                 // 对于其他物品, 这个配置项不代表是否随机生成, 代表物品是否合并
@@ -173,6 +173,21 @@ object PlayerUtils {
         return user.checkCooldown(key, cooldown)
     }
 
+    /**
+     * 检测冷却状态.
+     * 冷却完成则重新设置冷却并返回0.
+     * 冷却未完成则返回剩余时间.
+     *
+     * @param id       冷却组整数ID(通过 SlotKeys.cooldown 获取)
+     * @param cooldown 冷却刷新时间
+     * @return 剩余冷却时间
+     */
+    @JvmStatic
+    fun Player.checkCooldown(id: Int, cooldown: Long): Long {
+        val user = UserManager.INSTANCE[uniqueId] ?: return Long.MAX_VALUE
+        return user.checkCooldown(id, cooldown)
+    }
+
     /**
      * 返回剩余冷却时间.
      *
@@ -244,5 +244,314 @@ object SamplingUtils {
         return null
     }
 
+    /**
+     * 构建别名表, 用于重复进行有放回加权随机采样.
+     *
+     * @param samples 样本集
+     * @return 别名表
+     */
+    @JvmStatic
+    fun <T> aliasTable(
+        samples: Map<T, Double>
+    ): AliasTable<T> {
+        val values = ArrayList<T>(samples.size)
+        val weights = DoubleArray(samples.size)
+        for ((key, value) in samples) {
+            weights[values.size] = value
+            values.add(key)
+        }
+        return AliasTable(values, weights)
+    }
+
+    /**
+     * 构建别名表, 用于重复进行有放回加权随机采样.
+     *
+     * @param samples 样本集
+     * @return 别名表
+     */
+    @JvmStatic
+    fun <T> aliasTable(
+        samples: List<Pair<T, Double>>
+    ): AliasTable<T> {
+        val values = ArrayList<T>(samples.size)
+        val weights = DoubleArray(samples.size)
+        for (pair in samples) {
+            weights[values.size] = pair.second
+            values.add(pair.first)
+        }
+        return AliasTable(values, weights)
+    }
+
+    /**
+     * 构建加权采样器, 用于重复进行不放回加权随机采样.
+     *
+     * @param samples 样本集
+     * @return 加权采样器
+     */
+    @JvmStatic
+    fun <T> sampler(
+        samples: Map<T, Double>
+    ): WeightedSampler<T> {
+        val values = ArrayList<T>(samples.size)
+        val weights = DoubleArray(samples.size)
+        for ((key, value) in samples) {
+            weights[values.size] = value
+            values.add(key)
+        }
+        return WeightedSampler(values, weights)
+    }
+
+    /**
+     * 构建加权采样器, 用于重复进行不放回加权随机采样.
+     *
+     * @param samples 样本集
+     * @return 加权采样器
+     */
+    @JvmStatic
+    fun <T> sampler(
+        samples: List<Pair<T, Double>>
+    ): WeightedSampler<T> {
+        val values = ArrayList<T>(samples.size)
+        val weights = DoubleArray(samples.size)
+        for (pair in samples) {
+            weights[values.size] = pair.second
+            values.add(pair.first)
+        }
+        return WeightedSampler(values, weights)
+    }
+
     class SamplingResult<T>(val value: T, val weight: Double, val index: Int)
+
+    /**
+     * 别名表(Vose's Alias Method), 构建耗时O(n), 单次有放回采样耗时O(1).
+     * 构建后不可变, 可在多线程中共享.
+     * 权重不大于0的样本不会被选中, 所有样本权重均不大于0时总是返回第一个样本.
+     *
+     * @property values 样本
+     */
+    class AliasTable<T>(private val values: List<T>, weights: DoubleArray) {
+        /**
+         * 各列保留自身的概率
+         */
+        private val probabilities = DoubleArray(values.size)
+
+        /**
+         * 各列的别名索引
+         */
+        private val aliases = IntArray(values.size)
+
+        /**
+         * 权重和
+         */
+        val total: Double
+
+        init {
+            val size = values.size
+            var total = 0.0
+            for (weight in weights) {
+                if (weight > 0) total += weight
+            }
+            this.total = total
+            if (total > 0) {
+                // 将权重缩放至平均值为1
+                val scaled = DoubleArray(size) { if (weights[it] > 0) weights[it] * size / total else 0.0 }
+                val small = IntArray(size)
+                val large = IntArray(size)
+                var smallSize = 0
+                var largeSize = 0
+                for (index in 0 until size) {
+                    if (scaled[index] < 1.0) {
+                        small[smallSize++] = index
+                    } else {
+                        large[largeSize++] = index
+                    }
+                }
+                while (smallSize > 0 && largeSize > 0) {
+                    val less = small[--smallSize]
+                    val more = large[--largeSize]
+                    probabilities[less] = scaled[less]
+                    aliases[less] = more
+                    scaled[more] = scaled[more] + scaled[less] - 1.0
+                    if (scaled[more] < 1.0) {
+                        small[smallSize++] = more
+                    } else {
+                        large[largeSize++] = more
+                    }
+                }
+                // 剩余列的概率理论上均为1, 消除浮点误差
+                while (largeSize > 0) {
+                    probabilities[large[--largeSize]] = 1.0
+                }
+                while (smallSize > 0) {
+                    probabilities[small[--smallSize]] = 1.0
+                }
+            }
+        }
+
+        /**
+         * 样本数量
+         */
+        val size get() = values.size
+
+        /**
+         * 加权随机采样.
+         *
+         * @return 采样结果, 样本集为空时返回null
+         */
+        fun sample(): T? {
+            val index = sampleIndex()
+            return if (index == -1) null else values[index]
+        }
+
+        /**
+         * 加权随机采样.
+         *
+         * @return 采样结果索引, 样本集为空时返回-1
+         */
+        fun sampleIndex(): Int {
+            if (values.isEmpty()) return -1
+            if (total <= 0) return 0
+            val random = ThreadLocalRandom.current()
+            val column = random.nextInt(values.size)
+            return if (random.nextDouble() < probabilities[column]) column else aliases[column]
+        }
+    }
+
+    /**
+     * 基于树状数组(Fenwick Tree)的加权采样器, 构建耗时O(n), 不放回采样k个样本耗时O(k log n).
+     * 构建后不可变, 每次采样在树数组的副本上进行, 可在多线程中共享.
+     * 权重不大于0的样本仅在其余样本均被选中后, 按原有顺序依次选中.
+     *
+     * @property values 样本
+     */
+    class WeightedSampler<T>(private val values: List<T>, weights: DoubleArray) {
+        /**
+         * 各样本权重
+         */
+        private val weights = DoubleArray(values.size) { weights[it].coerceAtLeast(0.0) }
+
+        /**
+         * 树状数组, 下标从1开始
+         */
+        private val tree = DoubleArray(values.size + 1)
+
+        /**
+         * 权重不大于0的样本索引
+         */
+        private val zeroIndexes: IntArray
+
+        /**
+         * 不小于样本数量的最大2的幂
+         */
+        private val highestBit: Int
+
+        /**
+         * 权重和
+         */
+        val total: Double
+
+        init {
+            val size = values.size
+            var total = 0.0
+            for (index in 0 until size) {
+                total += this.weights[index]
+                val node = index + 1
+                tree[node] += this.weights[index]
+                val parent = node + (node and -node)
+                if (parent <= size) tree[parent] += tree[node]
+            }
+            this.total = total
+            zeroIndexes = (0 until size).filter { this.weights[it] <= 0 }.toIntArray()
+            highestBit = if (size == 0) 0 else Integer.highestOneBit(size)
+        }
+
+        /**
+         * 样本数量
+         */
+        val size get() = values.size
+
+        /**
+         * 不放回加权随机采样.
+         *
+         * @param amount 采样数量
+         * @return 采样结果
+         */
+        fun sample(amount: Int): List<SamplingResult<T>> {
+            val size = values.size
+            val count = amount.coerceAtMost(size)
+            if (count <= 0) return ArrayList()
+            val result = ArrayList<SamplingResult<T>>(count)
+            val tree = this.tree.copyOf()
+            val removed = BooleanArray(size)
+            val random = ThreadLocalRandom.current()
+            var total = this.total
+            val positiveCount = size - zeroIndexes.size
+            while (result.size < count && result.size < positiveCount && total > 0) {
+                val index = find(tree, removed, random.nextDouble() * total)
+                val weight = weights[index]
+                removed[index] = true
+                result.add(SamplingResult(values[index], weight, index))
+                total -= weight
+                // 移除已选中样本
+                var node = index + 1
+                while (node <= size) {
+                    tree[node] -= weight
+                    node += node and -node
+                }
+            }
+            var zeroIndex = 0
+            while (result.size < count && zeroIndex < zeroIndexes.size) {
+                val index = zeroIndexes[zeroIndex++]
+                result.add(SamplingResult(values[index], weights[index], index))
+            }
+            return result
+        }
+
+        /**
+         * 不放回加权随机采样.
+         *
+         * @param amount 采样数量
+         * @return 采样结果
+         */
+        fun sampleValues(amount: Int): List<T> {
+            val samples = sample(amount)
+            val result = ArrayList<T>(samples.size)
+            for (sample in samples) {
+                result.add(sample.value)
+            }
+            return result
+        }
+
+        /**
+         * 查找前缀和首次超过目标值的样本
+         *
+         * @param tree 树状数组
+         * @param removed 样本是否已被移除
+         * @param target 目标值
+         * @return 样本索引
+         */
+        private fun find(tree: DoubleArray, removed: BooleanArray, target: Double): Int {
+            val size = values.size
+            var remaining = target
+            var node = 0
+            var bit = highestBit
+            while (bit != 0) {
+                val next = node + bit
+                if (next <= size && tree[next] <= remaining) {
+                    node = next
+                    remaining -= tree[next]
+                }
+                bit = bit shr 1
+            }
+            // 浮点误差可能导致越界或落在不可选的样本上, 回退到最近的可选样本
+            var index = node.coerceAtMost(size - 1)
+            while (index > 0 && !selectable(removed, index)) index--
+            while (index < size - 1 && !selectable(removed, index)) index++
+            return index
+        }
+
+        private fun selectable(removed: BooleanArray, index: Int): Boolean {
+            return !removed[index] && weights[index] > 0
+        }
+    }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import pers.neige.neigeitems.item.ItemInfo
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.NbtCompound
 import pers.neige.neigeitems.libs.bot.inker.bukkit.nbt.neigeitems.utils.TranslationUtils
 import pers.neige.neigeitems.manager.SectionManager
+import pers.neige.neigeitems.section.CompiledSections
 import pers.neige.neigeitems.section.Section
 import pers.neige.neigeitems.utils.ItemUtils.getDamage
 import pers.neige.neigeitems.utils.StringUtils.split
@@ -30,8 +31,25 @@ object SectionUtils {
     fun String.parseSection(
         cache: MutableMap<String, String>? = null, player: OfflinePlayer? = null, sections: ConfigurationSection? = null
     ): String {
-        return this.parse {
-            return@parse it.getSection(cache, player, sections)
+        return SectionUtilsJ.parse(this) { text, type, args ->
+            getSection(text, type, args, cache, player, sections)
+        }
+    }
+
+    /**
+     * 对预编译文本进行节点解析
+     *
+     * @param cache 解析值缓存
+     * @param player 待解析玩家
+     * @param sections 节点池
+     * @return 解析值
+     */
+    @JvmStatic
+    fun SectionTemplate.parseSection(
+        cache: MutableMap<String, String>? = null, player: OfflinePlayer? = null, sections: ConfigurationSection? = null
+    ): String {
+        return this.evaluate { text, type, args ->
+            getSection(text, type, args, cache, player, sections)
         }
     }
 
@@ -121,42 +139,70 @@ object SectionUtils {
         cache: MutableMap<String, String>?, player: OfflinePlayer?, sections: ConfigurationSection?
     ): String {
         val index = this.indexOf("::")
+        return if (index == -1) {
+            getSection(this, null, null, cache, player, sections)
+        } else {
+            getSection(this, this.substring(0, index), this.substring(index + 2).split('_', '\\'), cache, player, sections)
+        } ?: "<$this>"
+    }
+
+    /**
+     * 对已拆分的节点内容进行解析
+     *
+     * @param text 节点内容(已经去掉 <>)
+     * @param type 即时声明节点类型, 私有节点调用时为null
+     * @param args 即时声明节点参数, 私有节点调用时为null
+     * @param cache 解析值缓存
+     * @param player 待解析玩家
+     * @param sections 节点池
+     * @return 解析值, 解析失败返回null
+     */
+    @JvmStatic
+    fun getSection(
+        text: String,
+        type: String?,
+        args: List<String>?,
+        cache: MutableMap<String, String>?,
+        player: OfflinePlayer?,
+        sections: ConfigurationSection?
+    ): String? {
         // 私有节点调用
-        if (index == -1) {
+        if (type == null || args == null) {
             // 尝试读取缓存
-            if (cache?.containsKey(this) == true) {
+            if (cache?.containsKey(text) == true) {
                 // 直接返回对应节点值
-                return cache[this].toString()
+                return cache[text].toString()
                 // 读取失败, 尝试主动解析
             } else {
-                // 尝试解析并返回对应节点值
-                if (sections != null && sections.contains(this)) {
+                // 预编译节点池
+                if (sections is CompiledSections) {
+                    sections.getEvaluator(text)?.let { evaluator ->
+                        return evaluator.evaluate(cache, player, sections)
+                    }
+                    // 尝试解析并返回对应节点值
+                } else if (sections != null && sections.contains(text)) {
                     // 获取节点ConfigurationSection
-                    val section = sections.getConfigurationSection(this)
+                    val section = sections.getConfigurationSection(text)
                     // 简单节点
                     if (section == null) {
-                        val result = sections.getString(this)?.parseSection(cache, player, sections) ?: "<$this>"
-                        cache?.put(this, result)
+                        val result = sections.getString(text)?.parseSection(cache, player, sections) ?: "<$text>"
+                        cache?.put(text, result)
                         return result
                     }
                     // 加载节点
-                    return Section(section, this).load(cache, player, sections) ?: "<$this>"
+                    return Section(section, text).load(cache, player, sections)
                 }
-                if (this.startsWith("#")) {
-                    val rgb = this.substring(1).toIntOrNull(16)
+                if (text.startsWith("#")) {
+                    val rgb = text.substring(1).toIntOrNull(16)
                     if (rgb != null) {
                         return ColorUtils.toHexColorPrefix(rgb)
                     }
                 }
             }
-            return "<$this>"
+            return null
             // 即时声明节点解析
         } else {
-            // 获取节点类型
-            val type = this.substring(0, index)
-            // 所有参数
-            val args = this.substring(index + 2).split('_', '\\')
-            return SectionManager.sectionParsers[type]?.onRequest(args, cache, player, sections) ?: "<$this>"
+            return SectionManager.sectionParsers[type]?.onRequest(args, cache, player, sections)
         }
     }
 